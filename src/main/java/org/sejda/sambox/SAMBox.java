@@ -34,6 +34,72 @@ public final class SAMBox
      * The number of objects to include in a single ObjectsStream.
      */
     public static final String OBJECTS_STREAM_SIZE_PROPERTY = "org.sejda.sambox.objects.stream.size";
+    /**
+     * Size in bytes of the serialized objects after which an ObjectsStream is considered full and no more objects are
+     * added to it. Not set means no limit other than {@link #OBJECTS_STREAM_SIZE_PROPERTY}.
+     */
+    public static final String OBJECTS_STREAM_MAX_BYTES_PROPERTY = "org.sejda.sambox.objects.stream.max.bytes";
+    /**
+     * If true, lazily loaded indirect objects of a parsed document can be resolved concurrently by multiple threads,
+     * each one parsing with its own view of the source
+     */
+    public static final String CONCURRENT_OBJECTS_RESOLUTION_PROPERTY = "org.sejda.sambox.concurrent.objects.resolution";
+    /**
+     * Number of threads used to preload the indirect objects of a document parsed with
+     * org.sejda.sambox.input.ParseOption#PRELOAD_OBJECTS. Defaults to the number of available processors.
+     */
+    public static final String PRELOAD_WORKERS_PROPERTY = "org.sejda.sambox.preload.workers";
+    /**
+     * Max estimated size in bytes of the parsed objects kept in memory for a document. When exceeded, the least
+     * recently used unmodified objects are evicted and parsed again if requested. Not set or non positive means no
+     * limit.
+     */
+    public static final String OBJECTS_STORE_MAX_WEIGHT_PROPERTY = "org.sejda.sambox.objects.store.max.weight";
+    /**
+     * Directory where xref index files are stored when parsing with org.sejda.sambox.input.ParseOption#XREF_INDEX.
+     * Defaults to .sambox/xref-index in the user home. The directory must be owned by the current user and not
+     * writable by others, otherwise indexes are not used.
+     */
+    public static final String XREF_INDEX_DIRECTORY_PROPERTY = "org.sejda.sambox.xref.index.directory";
+    /**
+     * If true, the decoded data of streams is always kept in memory once read, instead of being decoded lazily every
+     * time the stream is read, when the stream filters allow it
+     */
+    public static final String UNFILTERED_STREAMS_CACHE_PROPERTY = "org.sejda.sambox.unfiltered.streams.cache";
+    /**
+     * Size in bytes after which stream data buffered while creating, encoding or decoding streams is moved from heap
+     * to a temporary file. Not set means data is always kept on heap.
+     */
+    public static final String SCRATCH_FILE_THRESHOLD_PROPERTY = "org.sejda.sambox.scratch.file.threshold";
+    /**
+     * Directory where temporary files are created when stream data is moved from heap, see
+     * {@link #SCRATCH_FILE_THRESHOLD_PROPERTY}. Defaults to java.io.tmpdir.
+     */
+    public static final String SCRATCH_DIRECTORY_PROPERTY = "org.sejda.sambox.scratch.directory";
+    /**
+     * Max estimated size in bytes of the glyph outlines cached by a {@link org.sejda.sambox.rendering.GlyphCache}
+     * created with no explicit size. Defaults to 32MB.
+     */
+    public static final String GLYPH_CACHE_MAX_BYTES_PROPERTY = "org.sejda.sambox.rendering.glyph.cache.max.bytes";
+    /**
+     * Max estimated size in bytes of the decoded images cached by a
+     * {@link org.sejda.sambox.pdmodel.graphics.image.DecodedImageCache} created with no explicit size. Every document
+     * has a cache of its own and images are softly referenced, so they can be reclaimed under memory pressure. Defaults
+     * to 64MB.
+     */
+    public static final String DECODED_IMAGE_CACHE_MAX_BYTES_PROPERTY = "org.sejda.sambox.decoded.image.cache.max.bytes";
+    /**
+     * Number of threads of the pool, shared by all the documents written, used to compress streams and objects streams
+     * when writing with org.sejda.sambox.output.WriteOption#PARALLEL_COMPRESS_STREAMS. Defaults to the number of
+     * available processors.
+     */
+    public static final String STREAMS_COMPRESSION_WORKERS_PROPERTY = "org.sejda.sambox.streams.compression.workers";
+    /**
+     * Max number of objects waiting to be written when writing with
+     * org.sejda.sambox.output.WriteOption#ASYNC_BODY_WRITE. When reached, the writing waits for room to be available.
+     * Not set means no limit.
+     */
+    public static final String ASYNC_WRITE_QUEUE_SIZE_PROPERTY = "org.sejda.sambox.async.write.queue.size";
     public static final String FONT_PROVIDER_PROPERTY = "org.sejda.sambox.font.provider";
 
     public static final String SAMBOX_PROPERTIES = "/org/sejda/sambox/resources/version.properties";
@@ -60,7 +60,9 @@ public class COSArray extends COSBase implements List<COSBase>
     @Override
     public boolean add(COSBase object)
     {
-        return objects.add(object);
+        objects.add(object);
+        changed();
+        return true;
     }
 
     /**
@@ -79,30 +81,32 @@ public class COSArray extends COSBase implements List<COSBase>
     public void add(int index, COSBase object)
     {
         objects.add(index, object);
+        changed();
     }
 
     @Override
     public void clear()
     {
         objects.clear();
+        changed();
     }
 
     @Override
     public boolean removeAll(Collection<?> objectsList)
     {
-        return objects.removeAll(objectsList);
+        return changedIf(objects.removeAll(objectsList));
     }
 
     @Override
     public boolean retainAll(Collection<?> objectsList)
     {
-        return objects.retainAll(objectsList);
+        return changedIf(objects.retainAll(objectsList));
     }
 
     @Override
     public boolean addAll(Collection<? extends COSBase> objectsList)
     {
-        return objects.addAll(objectsList);
+        return changedIf(objects.addAll(objectsList));
     }
 
     /**
@@ -114,7 +118,7 @@ public class COSArray extends COSBase implements List<COSBase>
     {
         if (objectList != null)
         {
-            return objects.addAll(objectList.objects);
+            return changedIf(objects.addAll(objectList.objects));
         }
         return false;
     }
@@ -122,13 +126,15 @@ public class COSArray extends COSBase implements List<COSBase>
     @Override
     public boolean addAll(int i, Collection<? extends COSBase> objectList)
     {
-        return objects.addAll(i, objectList);
+        return changedIf(objects.addAll(i, objectList));
     }
 
     @Override
     public COSBase set(int index, COSBase object)
     {
-        return objects.set(index, object);
+        COSBase previous = objects.set(index, object);
+        changed();
+        return previous;
     }
 
     /**
@@ -307,7 +313,9 @@ public class COSArray extends COSBase implements List<COSBase>
     @Override
     public COSBase remove(int i)
     {
-        return objects.remove(i);
+        COSBase removed = objects.remove(i);
+        changed();
+        return removed;
     }
 
     /**
@@ -319,7 +327,7 @@ public class COSArray extends COSBase implements List<COSBase>
     {
         if (!objects.isEmpty())
         {
-            return objects.remove(objects.size() - 1);
+            return remove(objects.size() - 1);
         }
         return null;
     }
@@ -327,7 +335,7 @@ public class COSArray extends COSBase implements List<COSBase>
     @Override
     public boolean remove(Object o)
     {
-        return objects.remove(o);
+        return changedIf(objects.remove(o));
     }
 
     /**
@@ -440,6 +448,7 @@ public class COSArray extends COSBase implements List<COSBase>
         if (size() > size)
         {
             objects.subList(size, size()).clear();
+            changed();
         }
         return this;
     }
@@ -520,6 +529,20 @@ public class COSArray extends COSBase implements List<COSBase>
         return objects.subList(fromIndex, toIndex);
     }
 
+    private void changed()
+    {
+        COSChangeListeners.changed(this);
+    }
+
+    private boolean changedIf(boolean changed)
+    {
+        if (changed)
+        {
+            changed();
+        }
+        return changed;
+    }
+
     @Override
     public void accept(COSVisitor visitor) throws IOException
     {
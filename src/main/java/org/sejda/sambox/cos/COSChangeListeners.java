@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.cos;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Listeners notified when the content of a {@link COSDictionary} (streams included), a {@link COSArray} or a
+ * {@link COSString} changes. Listeners are kept on the side so observed objects don't carry any additional field, the
+ * objects are weakly referenced and compared by identity. Changes made through the collection views of a dictionary or
+ * an array (ex. {@link COSDictionary#entrySet()} or {@link COSArray#iterator()}) are not notified.
+ * <p>
+ * Listeners are referenced as long as the observed object is, so they shouldn't hold a strong reference to it.
+ * </p>
+ *
+ * @author Andrea Vacondio
+ */
+public final class COSChangeListeners
+{
+    private static final Map<ObjectReference, ChangeListener> LISTENERS = new HashMap<>();
+    private static final ReferenceQueue<COSBase> QUEUE = new ReferenceQueue<>();
+    // lets changes skip the lookup when nothing is observed, which is the common case
+    private static volatile boolean observing = false;
+
+    private COSChangeListeners()
+    {
+        // hide
+    }
+
+    /**
+     * Sets the listener to notify when the content of the given object changes, replacing any previous one
+     *
+     * @param object
+     * @param listener the listener or null to remove the current one
+     */
+    public static synchronized void set(COSBase object, ChangeListener listener)
+    {
+        requireNonNull(object);
+        purge();
+        if (isNull(listener))
+        {
+            LISTENERS.remove(new ObjectReference(object, null));
+        }
+        else
+        {
+            LISTENERS.put(new ObjectReference(object, QUEUE), listener);
+        }
+        observing = !LISTENERS.isEmpty();
+    }
+
+    /**
+     * @param object
+     * @return the listener notified when the content of the given object changes or null
+     */
+    public static synchronized ChangeListener get(COSBase object)
+    {
+        if (observing)
+        {
+            purge();
+            return LISTENERS.get(new ObjectReference(object, null));
+        }
+        return null;
+    }
+
+    /**
+     * Notifies the listener of the given object, if any, that the content of the object has changed
+     */
+    static void changed(COSBase object)
+    {
+        if (observing)
+        {
+            ChangeListener listener = get(object);
+            if (nonNull(listener))
+            {
+                listener.changed();
+            }
+        }
+    }
+
+    private static void purge()
+    {
+        ObjectReference reference;
+        while ((reference = (ObjectReference) QUEUE.poll()) != null)
+        {
+            LISTENERS.remove(reference);
+        }
+        observing = !LISTENERS.isEmpty();
+    }
+
+    /**
+     * Listener for changes in the content of a COS object
+     */
+    @FunctionalInterface
+    public interface ChangeListener
+    {
+        /**
+         * Called after the content of the observed object has changed
+         */
+        void changed();
+    }
+
+    private static class ObjectReference extends WeakReference<COSBase>
+    {
+        private final int hash;
+
+        ObjectReference(COSBase referent, ReferenceQueue<COSBase> queue)
+        {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof ObjectReference))
+            {
+                return false;
+            }
+            COSBase referent = get();
+            return nonNull(referent) && referent == ((ObjectReference) obj).get();
+        }
+    }
+}
@@ -87,6 +87,17 @@ public class COSDictionary extends COSBase
     public void clear()
     {
         items.clear();
+        changed();
+    }
+
+    /**
+     * Notifies the change listener, if any, that the content of this dictionary has changed
+     * 
+     * @see COSChangeListeners
+     */
+    protected void changed()
+    {
+        COSChangeListeners.changed(this);
     }
 
     /**
@@ -194,12 +205,16 @@ public class COSDictionary extends COSBase
         else
         {
             items.put(key, value);
+            changed();
         }
     }
 
     public void putIfAbsent(COSName key, COSBase value)
     {
-        items.putIfAbsent(key, value);
+        if (items.putIfAbsent(key, value) == null)
+        {
+            changed();
+        }
     }
 
     /**
@@ -223,7 +238,7 @@ public class COSDictionary extends COSBase
     {
         if (nonNull(value))
         {
-            items.putIfAbsent(key, value.getCOSObject());
+            putIfAbsent(key, value.getCOSObject());
         }
     }
 
@@ -263,7 +278,7 @@ public class COSDictionary extends COSBase
 
     public void putIfAbsent(COSName key, boolean value)
     {
-        items.putIfAbsent(key, COSBoolean.valueOf(value));
+        putIfAbsent(key, COSBoolean.valueOf(value));
     }
 
     /**
@@ -387,7 +402,7 @@ public class COSDictionary extends COSBase
 
     public void putIfAbsent(COSName key, String value)
     {
-        items.putIfAbsent(key, COSString.parseLiteral(value));
+        putIfAbsent(key, COSString.parseLiteral(value));
     }
 
     /**
@@ -449,7 +464,7 @@ public class COSDictionary extends COSBase
 
     public void putIfAbsent(COSName key, int value)
     {
-        items.putIfAbsent(key, COSInteger.get(value));
+        putIfAbsent(key, COSInteger.get(value));
     }
 
     /**
@@ -476,7 +491,7 @@ public class COSDictionary extends COSBase
 
     public void putIfAbsent(COSName key, long value)
     {
-        items.putIfAbsent(key, COSInteger.get(value));
+        putIfAbsent(key, COSInteger.get(value));
     }
 
     /**
@@ -1168,7 +1183,10 @@ public class COSDictionary extends COSBase
      */
     public void removeItem(COSName key)
     {
-        items.remove(key);
+        if (items.remove(key) != null)
+        {
+            changed();
+        }
     }
 
     /**
@@ -1178,7 +1196,7 @@ public class COSDictionary extends COSBase
      */
     public void removeItems(COSName... keys)
     {
-        Arrays.stream(keys).forEach(items::remove);
+        Arrays.stream(keys).forEach(this::removeItem);
     }
 
     /**
@@ -23,6 +23,8 @@ import static org.sejda.io.SeekableSources.inMemorySeekableSourceFrom;
 
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -34,13 +36,14 @@ import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
-import org.sejda.commons.FastByteArrayOutputStream;
 import org.sejda.commons.util.IOUtils;
 import org.sejda.io.SeekableSource;
 import org.sejda.io.SeekableSourceSupplier;
+import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.filter.DecodeResult;
 import org.sejda.sambox.filter.Filter;
 import org.sejda.sambox.filter.FilterFactory;
+import org.sejda.sambox.util.ScratchBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,11 +61,16 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     private static final Logger LOG = LoggerFactory.getLogger(COSStream.class);
 
     private LazySeekableSourceViewHolder existing;
-    private byte[] filtered;
-    private byte[] unfiltered;
-    private DecodeResult decodeResult;
+    private ScratchBuffer filtered;
+    private volatile ScratchBuffer unfiltered;
+    private volatile DecodeResult decodeResult;
     // an encryption function that returns an encrypted view of the filtered stream
     private Function<InputStream, InputStream> encryptor;
+    // decrypts data read from the original source
+    private StreamDecryptor decryptor;
+    private volatile long decryptedLength = -1;
+    // if the encrypted source data has to be written as is
+    private boolean keepSourceEncryption = false;
     private boolean encryptable = true;
     // if the writer should write the stream length as indirect object
     private boolean indirectLength = false;
@@ -100,6 +108,10 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
      */
     public final InputStream getFilteredStream() throws IOException
     {
+        if (keepSourceEncryption && nonNull(existing))
+        {
+            return existingRawData();
+        }
         if (nonNull(encryptor))
         {
             return encryptor.apply(doGetFilteredStream());
@@ -111,14 +123,14 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     {
         if (nonNull(existing))
         {
-            return existing.get().asInputStream();
+            return existingData();
         }
         encodeIfRequired();
         if (nonNull(filtered))
         {
-            return new MyByteArrayInputStream(filtered);
+            return filtered.asInputStream();
         }
-        return new MyByteArrayInputStream(unfiltered);
+        return asInputStream(unfiltered);
     }
 
     /**
@@ -127,13 +139,40 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
      */
     public SeekableSource getFilteredSource() throws IOException
     {
-        if (existing != null)
+        if (existing != null && isNull(decryptor))
         {
             return existing.get();
         }
         return inMemorySeekableSourceFrom(getFilteredStream());
     }
 
+    /**
+     * @return true if the stream data is a view of the source the stream has been parsed from, meaning the data hasn't
+     * been replaced
+     */
+    public boolean hasSourceData()
+    {
+        return nonNull(existing);
+    }
+
+    /**
+     * @return the number of bytes of encoded and decoded stream data this stream is currently holding on heap. Data
+     * read from the original source or moved to a temporary file is not counted.
+     */
+    public long getInMemoryDataLength()
+    {
+        return inMemoryLength(filtered) + inMemoryLength(unfiltered);
+    }
+
+    private static long inMemoryLength(ScratchBuffer buffer)
+    {
+        if (nonNull(buffer) && !buffer.isSpilled())
+        {
+            return buffer.size();
+        }
+        return 0;
+    }
+
     /**
      * @return the length of the encoded stream as long
      * @throws IOException
@@ -142,14 +181,14 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     {
         if (existing != null)
         {
-            return existing.length;
+            return existingLength();
         }
         encodeIfRequired();
         if (nonNull(filtered))
         {
-            return filtered.length;
+            return filtered.size();
         }
-        return ofNullable(unfiltered).map(f -> f.length).orElse(0);
+        return ofNullable(unfiltered).map(ScratchBuffer::size).orElse(0L);
     }
 
     private void encodeIfRequired() throws IOException
@@ -164,15 +203,26 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     }
 
     /**
+     * Returns the decoded stream. When all the filters of the stream support it, data is decoded lazily while the
+     * returned stream is read and it's not retained, otherwise the whole decoded data is kept in memory for subsequent
+     * calls. Retaining decoded data can be enforced setting the {@link SAMBox#UNFILTERED_STREAMS_CACHE_PROPERTY} system
+     * property.
+     *
      * @return the (decoded) stream with all of the filters applied.
      * @throws IOException when encoding/decoding causes an exception
+     * @see Filter#isLazyDecodingSupported()
      */
     public InputStream getUnfilteredStream() throws IOException
     {
+        if (isNull(unfiltered) && !Boolean.getBoolean(SAMBox.UNFILTERED_STREAMS_CACHE_PROPERTY)
+                && canDecodeLazily())
+        {
+            return lazilyDecodedStream();
+        }
         decodeIfRequired();
         if (unfiltered != null)
         {
-            return new MyByteArrayInputStream(unfiltered);
+            return unfiltered.asInputStream();
         }
         return getStreamToDecode();
     }
@@ -186,13 +236,21 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         decodeIfRequired();
         if (unfiltered != null)
         {
-            return inMemorySeekableSourceFrom(unfiltered);
+            return unfiltered.asSeekableSource();
         }
         if (existing != null)
         {
+            if (nonNull(decryptor))
+            {
+                return inMemorySeekableSourceFrom(existingData());
+            }
             return existing.get();
         }
-        return inMemorySeekableSourceFrom(filtered);
+        if (filtered != null)
+        {
+            return filtered.asSeekableSource();
+        }
+        return inMemorySeekableSourceFrom(new byte[0]);
     }
 
     /**
@@ -204,13 +262,17 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         decodeIfRequired();
         if (unfiltered != null)
         {
-            return ByteBuffer.wrap(unfiltered).asReadOnlyBuffer();
+            return unfiltered.asByteBuffer();
         }
         if (existing != null)
         {
-            return ByteBuffer.wrap(IOUtils.toByteArray(existing.get().asInputStream()));
+            return ByteBuffer.wrap(IOUtils.toByteArray(existingData()));
         }
-        return ByteBuffer.wrap(filtered).asReadOnlyBuffer();
+        if (filtered != null)
+        {
+            return filtered.asByteBuffer();
+        }
+        return ByteBuffer.allocate(0).asReadOnlyBuffer();
     }
 
     /**
@@ -222,20 +284,27 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         decodeIfRequired();
         if (nonNull(unfiltered))
         {
-            return unfiltered.length;
+            return unfiltered.size();
         }
         if (nonNull(existing))
         {
-            return existing.length;
+            return existingLength();
         }
-        return ofNullable(filtered).map(f -> f.length).orElse(0);
+        return ofNullable(filtered).map(ScratchBuffer::size).orElse(0L);
     }
 
     private void decodeIfRequired() throws IOException
     {
         if (nonNull(getFilters()) && isNull(unfiltered))
         {
-            doDecode();
+            // streams shared by pages rendered concurrently are decoded once
+            synchronized (this)
+            {
+                if (isNull(unfiltered))
+                {
+                    doDecode();
+                }
+            }
         }
     }
 
@@ -281,46 +350,167 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         }
     }
 
+    private boolean canDecodeLazily() throws IOException
+    {
+        COSBase filters = getFilters();
+        if (filters instanceof COSName)
+        {
+            return FilterFactory.INSTANCE.getFilter((COSName) filters).isLazyDecodingSupported();
+        }
+        if (filters instanceof COSArray && ((COSArray) filters).size() > 0)
+        {
+            COSArray filtersArray = (COSArray) filters;
+            for (int i = 0; i < filtersArray.size(); i++)
+            {
+                COSBase filterName = filtersArray.getObject(i);
+                if (!(filterName instanceof COSName) || !FilterFactory.INSTANCE
+                        .getFilter((COSName) filterName).isLazyDecodingSupported())
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private InputStream lazilyDecodedStream() throws IOException
+    {
+        InputStream decoded;
+        if (nonNull(existing))
+        {
+            decoded = existingData();
+        }
+        else
+        {
+            decoded = asInputStream(filtered);
+        }
+        COSBase filters = getFilters();
+        if (filters instanceof COSName)
+        {
+            return FilterFactory.INSTANCE.getFilter((COSName) filters).decodingStream(decoded,
+                    this, 0);
+        }
+        COSArray filtersArray = (COSArray) filters;
+        for (int i = 0; i < filtersArray.size(); i++)
+        {
+            decoded = FilterFactory.INSTANCE.getFilter((COSName) filtersArray.getObject(i))
+                    .decodingStream(decoded, this, i);
+        }
+        return decoded;
+    }
+
     private InputStream getStreamToDecode() throws IOException
     {
         if (existing != null)
         {
-            return existing.get().asInputStream();
+            return existingData();
         }
-        return new MyByteArrayInputStream(filtered);
+        return asInputStream(filtered);
     }
 
-    private byte[] decodeChain(COSArray filters, InputStream startingFrom) throws IOException
+    /**
+     * @return the existing data, on a view of its own so reading it doesn't interfere with other reads of this
+     * COSStream, possibly from other threads
+     */
+    private InputStream existingData() throws IOException
+    {
+        InputStream data = existingRawData();
+        if (nonNull(decryptor))
+        {
+            return decryptor.decrypt(data);
+        }
+        return data;
+    }
+
+    /**
+     * @return the existing data as found in the source, on a view of its own that is closed when the stream is closed
+     */
+    private InputStream existingRawData() throws IOException
     {
-        if (filters.size() > 0)
+        SeekableSource view = existing.newView();
+        return new FilterInputStream(view.asInputStream())
         {
-            byte[] tmpResult = new byte[0];
-            InputStream input = startingFrom;
-            for (int i = 0; i < filters.size(); i++)
+            @Override
+            public void close() throws IOException
             {
-                COSName filterName = (COSName) filters.getObject(i);
-                tmpResult = decode(filterName, i, input);
-                input = new MyByteArrayInputStream(tmpResult);
+                super.close();
+                IOUtils.close(view);
             }
-            return tmpResult;
+        };
+    }
+
+    private long existingLength() throws IOException
+    {
+        if (nonNull(decryptor))
+        {
+            if (decryptedLength < 0)
+            {
+                try (SeekableSource view = existing.newView())
+                {
+                    decryptedLength = decryptor.decryptedLength(view);
+                }
+            }
+            return decryptedLength;
         }
-        return null;
+        return existing.length;
     }
 
-    private byte[] decode(COSName filterName, int filterIndex, InputStream toDecode)
+    private static InputStream asInputStream(ScratchBuffer buffer) throws IOException
+    {
+        if (nonNull(buffer))
+        {
+            return buffer.asInputStream();
+        }
+        return new MyByteArrayInputStream(null);
+    }
+
+    private ScratchBuffer decodeChain(COSArray filters, InputStream startingFrom)
             throws IOException
     {
-        if (toDecode.available() > 0)
+        ScratchBuffer result = null;
+        for (int i = 0; i < filters.size(); i++)
         {
-            Filter filter = FilterFactory.INSTANCE.getFilter(filterName);
-            try (MyByteArrayOutputStream out = new MyByteArrayOutputStream())
+            COSName filterName = (COSName) filters.getObject(i);
+            if (isNull(result))
             {
-                decodeResult = filter.decode(toDecode, out, this, filterIndex);
-                return out.toByteArray();
+                result = decode(filterName, i, startingFrom);
+            }
+            else
+            {
+                ScratchBuffer previous = result;
+                try (InputStream input = previous.asInputStream())
+                {
+                    result = decode(filterName, i, input);
+                }
+                finally
+                {
+                    previous.release();
+                }
             }
         }
-        return new byte[0];
+        return result;
+    }
 
+    private ScratchBuffer decode(COSName filterName, int filterIndex, InputStream toDecode)
+            throws IOException
+    {
+        ScratchBuffer out = new ScratchBuffer();
+        try
+        {
+            if (toDecode.available() > 0)
+            {
+                Filter filter = FilterFactory.INSTANCE.getFilter(filterName);
+                decodeResult = filter.decode(toDecode, out, this, filterIndex);
+            }
+            out.close();
+            return out;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            out.release();
+            throw e;
+        }
     }
 
     /**
@@ -333,39 +523,62 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         COSBase filters = getFilters();
         if (filters instanceof COSName)
         {
-            filtered = encode((COSName) filters, new MyByteArrayInputStream(unfiltered));
+            try (InputStream toEncode = unfiltered.asInputStream())
+            {
+                filtered = encode((COSName) filters, toEncode);
+            }
         }
         else if (filters instanceof COSArray)
         {
-            filtered = encodeChain((COSArray) filters, new MyByteArrayInputStream(unfiltered));
+            try (InputStream toEncode = unfiltered.asInputStream())
+            {
+                filtered = encodeChain((COSArray) filters, toEncode);
+            }
         }
     }
 
-    private byte[] encode(COSName filterName, InputStream toEncode) throws IOException
+    private ScratchBuffer encode(COSName filterName, InputStream toEncode) throws IOException
     {
         Filter filter = FilterFactory.INSTANCE.getFilter(filterName);
-        try (MyByteArrayOutputStream encoded = new MyByteArrayOutputStream())
+        ScratchBuffer encoded = new ScratchBuffer();
+        try
         {
             filter.encode(toEncode, encoded, this);
-            return encoded.toByteArray();
+            encoded.close();
+            return encoded;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            encoded.release();
+            throw e;
         }
     }
 
-    private byte[] encodeChain(COSArray filters, InputStream startingFrom) throws IOException
+    private ScratchBuffer encodeChain(COSArray filters, InputStream startingFrom)
+            throws IOException
     {
-        if (filters.size() > 0)
+        ScratchBuffer result = null;
+        for (int i = filters.size() - 1; i >= 0; i--)
         {
-            byte[] tmpResult = new byte[0];
-            InputStream input = startingFrom;
-            for (int i = filters.size() - 1; i >= 0; i--)
+            COSName filterName = (COSName) filters.getObject(i);
+            if (isNull(result))
             {
-                COSName filterName = (COSName) filters.getObject(i);
-                tmpResult = encode(filterName, input);
-                input = new MyByteArrayInputStream(tmpResult);
+                result = encode(filterName, startingFrom);
+            }
+            else
+            {
+                ScratchBuffer previous = result;
+                try (InputStream input = previous.asInputStream())
+                {
+                    result = encode(filterName, input);
+                }
+                finally
+                {
+                    previous.release();
+                }
             }
-            return tmpResult;
         }
-        return null;
+        return result;
     }
 
     /**
@@ -406,6 +619,37 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     public void setEncryptor(Function<InputStream, InputStream> encryptor)
     {
         this.encryptor = encryptor;
+        this.keepSourceEncryption = false;
+    }
+
+    /**
+     * If the stream data is the unmodified data of an encrypted source, encrypted with the given cipher and key, this
+     * stream is set to return the encrypted source data as filtered stream, so it can be written as is, without
+     * decrypting it and encrypting it again.
+     * 
+     * @param cipher the cipher algorithm name, "AES" or "RC4"
+     * @param key the encryption key
+     * @return true if the encrypted source data is going to be used, false if the stream has to be encrypted
+     * @see #setEncryptor(Function)
+     */
+    public boolean keepSourceEncryption(String cipher, byte[] key)
+    {
+        this.keepSourceEncryption = nonNull(existing) && nonNull(decryptor)
+                && decryptor.isEncryptedWith(cipher, key);
+        return keepSourceEncryption;
+    }
+
+    /**
+     * Sets the decryptor used to decrypt the data read from the source this stream has been parsed from. Data is
+     * decrypted every time it is read and the decrypted data is not retained, unless the stream needs to be decoded and
+     * its filters don't support lazy decoding. The decryptor is not used once the stream data has been replaced.
+     * 
+     * @param decryptor
+     */
+    public void setDecryptor(StreamDecryptor decryptor)
+    {
+        this.decryptor = decryptor;
+        this.decryptedLength = -1;
     }
 
     /**
@@ -417,11 +661,12 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     public OutputStream createFilteredStream()
     {
         IOUtils.closeQuietly(existing);
-        unfiltered = null;
         existing = null;
-        filtered = null;
-        return new MyByteArrayOutputStream(bytes -> {
-            this.filtered = bytes;
+        releaseUnfiltered();
+        releaseFiltered();
+        changed();
+        return new StreamDataOutputStream(buffer -> {
+            this.filtered = buffer;
         });
     }
 
@@ -453,8 +698,13 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         {
             try (InputStream in = getUnfilteredStream())
             {
-                try (MyByteArrayOutputStream out = new MyByteArrayOutputStream(bytes -> {
-                    this.unfiltered = bytes;
+                try (StreamDataOutputStream out = new StreamDataOutputStream(buffer -> {
+                    if (buffer != this.unfiltered)
+                    {
+                        // decoding might have cached it
+                        releaseUnfiltered();
+                    }
+                    this.unfiltered = buffer;
                 }))
                 {
                     IOUtils.copy(in, out);
@@ -466,7 +716,8 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         setItem(COSName.FILTER, filters);
         IOUtils.closeQuietly(existing);
         existing = null;
-        filtered = null;
+        releaseFiltered();
+        changed();
     }
 
     /**
@@ -550,12 +801,13 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
      */
     public OutputStream createUnfilteredStream()
     {
-        filtered = null;
+        releaseFiltered();
         IOUtils.closeQuietly(existing);
         existing = null;
-        unfiltered = null;
-        return new MyByteArrayOutputStream(bytes -> {
-            this.unfiltered = bytes;
+        releaseUnfiltered();
+        changed();
+        return new StreamDataOutputStream(buffer -> {
+            this.unfiltered = buffer;
         });
     }
 
@@ -563,10 +815,10 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     {
         if (nonNull(existing))
         {
-            return existing.get().size() <= 0;
+            return existingLength() <= 0;
         }
-        return ofNullable(filtered).map(f -> (f.length <= 0)).orElseGet(() -> {
-            return ofNullable(unfiltered).map(u -> (u.length <= 0)).orElse(true);
+        return ofNullable(filtered).map(f -> (f.size() <= 0)).orElseGet(() -> {
+            return ofNullable(unfiltered).map(u -> (u.size() <= 0)).orElse(true);
         });
     }
 
@@ -575,9 +827,9 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
      */
     public String asTextString()
     {
-        try
+        try (InputStream stream = getUnfilteredStream())
         {
-            return COSString.newInstance(IOUtils.toByteArray(getUnfilteredStream())).getString();
+            return COSString.newInstance(IOUtils.toByteArray(stream)).getString();
         }
         catch (IOException e)
         {
@@ -591,8 +843,26 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     {
         IOUtils.closeQuietly(existing);
         existing = null;
-        unfiltered = null;
-        filtered = null;
+        releaseUnfiltered();
+        releaseFiltered();
+    }
+
+    private void releaseFiltered()
+    {
+        if (nonNull(filtered))
+        {
+            filtered.release();
+            filtered = null;
+        }
+    }
+
+    private void releaseUnfiltered()
+    {
+        if (nonNull(unfiltered))
+        {
+            unfiltered.release();
+            unfiltered = null;
+        }
     }
 
     /**
@@ -602,12 +872,12 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
     {
         if (nonNull(existing))
         {
-            unfiltered = null;
-            filtered = null;
+            releaseUnfiltered();
+            releaseFiltered();
         }
         if (nonNull(filtered))
         {
-            unfiltered = null;
+            releaseUnfiltered();
         }
     }
 
@@ -627,26 +897,37 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
         this.indirectLength = indirectLength;
     }
 
-    static class MyByteArrayOutputStream extends FastByteArrayOutputStream
+    /**
+     * Stream where stream data is written to a {@link ScratchBuffer} that is given to the consumer once closed
+     */
+    static class StreamDataOutputStream extends FilterOutputStream
     {
-        private Optional<Consumer<byte[]>> onClose;
+        private final ScratchBuffer buffer;
+        private final Consumer<ScratchBuffer> onClose;
 
-        MyByteArrayOutputStream()
+        StreamDataOutputStream(Consumer<ScratchBuffer> onClose)
         {
-            this(null);
+            this(new ScratchBuffer(), onClose);
         }
 
-        MyByteArrayOutputStream(Consumer<byte[]> onClose)
+        private StreamDataOutputStream(ScratchBuffer buffer, Consumer<ScratchBuffer> onClose)
         {
-            super();
-            this.onClose = Optional.ofNullable(onClose);
+            super(buffer);
+            this.buffer = buffer;
+            this.onClose = onClose;
         }
 
         @Override
-        public void close()
+        public void write(byte[] b, int off, int len) throws IOException
         {
-            super.close();
-            onClose.ifPresent(c -> c.accept(toByteArray()));
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            buffer.close();
+            onClose.accept(buffer);
         }
     }
 
@@ -683,6 +964,14 @@ public class COSStream extends COSDictionary implements Closeable, Encryptable
             this.length = length;
         }
 
+        /**
+         * @return a new view of the data, the caller is responsible for closing it
+         */
+        SeekableSource newView() throws IOException
+        {
+            return supplier.get();
+        }
+
         SeekableSource get() throws IOException
         {
             if (view == null)
@@ -69,6 +69,12 @@ public final class COSString extends COSBase implements Encryptable
     public void setValue(byte[] value)
     {
         this.bytes = Arrays.copyOf(value, value.length);
+        changed();
+    }
+
+    private void changed()
+    {
+        COSChangeListeners.changed(this);
     }
 
     /**
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.cos;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.sejda.io.SeekableSource;
+
+/**
+ * Component decrypting the data of a {@link COSStream} parsed from an encrypted document. Data is decrypted on demand
+ * every time it is read.
+ * 
+ * @author Andrea Vacondio
+ */
+public interface StreamDecryptor
+{
+    /**
+     * @param encrypted
+     * @return a stream of the decrypted data, closing it closes the given encrypted stream
+     * @throws IOException
+     */
+    InputStream decrypt(InputStream encrypted) throws IOException;
+
+    /**
+     * @param encrypted the encrypted data
+     * @return the length of the decrypted data
+     * @throws IOException
+     */
+    long decryptedLength(SeekableSource encrypted) throws IOException;
+
+    /**
+     * @param cipher the cipher algorithm name, "AES" or "RC4"
+     * @param key the encryption key
+     * @return true if the data is encrypted using the given cipher and key
+     */
+    boolean isEncryptedWith(String cipher, byte[] key);
+}
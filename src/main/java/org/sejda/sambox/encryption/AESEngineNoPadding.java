@@ -18,13 +18,17 @@ package org.sejda.sambox.encryption;
 
 import static java.util.Objects.nonNull;
 import static org.bouncycastle.util.Arrays.copyOf;
+import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
 
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.function.Supplier;
 
 import org.bouncycastle.crypto.BufferedBlockCipher;
+import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
 import org.bouncycastle.crypto.InvalidCipherTextException;
-import org.bouncycastle.crypto.engines.AESFastEngine;
+import org.bouncycastle.crypto.engines.AESEngine;
 import org.bouncycastle.crypto.io.CipherInputStream;
 import org.bouncycastle.crypto.modes.CBCBlockCipher;
 import org.bouncycastle.crypto.params.KeyParameter;
@@ -38,17 +42,22 @@ import org.bouncycastle.crypto.params.ParametersWithIV;
  */
 class AESEngineNoPadding implements AESEncryptionAlgorithmEngine
 {
-    private BufferedBlockCipher cipher;
+    private final Supplier<BufferedBlockCipher> cipherSupplier;
+    // bytes are encrypted synchronously so a cipher per thread can be reused, streams are lazy and get their own
+    private final ThreadLocal<ReusableCipher> bytesCipher;
 
-    AESEngineNoPadding(BufferedBlockCipher cipher)
+    AESEngineNoPadding(Supplier<BufferedBlockCipher> cipherSupplier)
     {
-        this.cipher = cipher;
+        requireNotNullArg(cipherSupplier, "Cipher supplier cannot be null");
+        this.cipherSupplier = cipherSupplier;
+        this.bytesCipher = ThreadLocal.withInitial(() -> new ReusableCipher(cipherSupplier.get()));
     }
 
     @Override
     public InputStream encryptStream(InputStream data, byte[] key, byte[] iv)
     {
-        init(key, iv);
+        BufferedBlockCipher cipher = cipherSupplier.get();
+        cipher.init(true, parameters(key, iv));
         return new CipherInputStream(data, cipher);
     }
 
@@ -61,12 +70,16 @@ class AESEngineNoPadding implements AESEncryptionAlgorithmEngine
     @Override
     public byte[] encryptBytes(byte[] data, byte[] key, byte[] iv)
     {
-        init(key, iv);
+        BufferedBlockCipher cipher = bytesCipher.get().init(key, iv);
         try
         {
             byte[] buf = new byte[cipher.getOutputSize(data.length)];
             int len = cipher.processBytes(data, 0, data.length, buf, 0);
             len += cipher.doFinal(buf, len);
+            if (len == buf.length)
+            {
+                return buf;
+            }
             return copyOf(buf, len);
         }
         catch (DataLengthException | IllegalStateException | InvalidCipherTextException e)
@@ -81,16 +94,42 @@ class AESEngineNoPadding implements AESEncryptionAlgorithmEngine
         return encryptBytes(data, key, null);
     }
 
-    private void init(byte[] key, byte[] iv)
+    private static CipherParameters parameters(byte[] key, byte[] iv)
     {
-        cipher.reset();
         if (nonNull(iv))
         {
-            cipher.init(true, new ParametersWithIV(new KeyParameter(key), iv));
+            return new ParametersWithIV(new KeyParameter(key), iv);
         }
-        else
+        return new KeyParameter(key);
+    }
+
+    /**
+     * A cipher that remembers the last key it was initialized with so that, when only the initialization vector
+     * changes, the key schedule is not computed again
+     */
+    private static class ReusableCipher
+    {
+        private final BufferedBlockCipher cipher;
+        private byte[] key;
+
+        ReusableCipher(BufferedBlockCipher cipher)
+        {
+            this.cipher = cipher;
+        }
+
+        BufferedBlockCipher init(byte[] key, byte[] iv)
         {
-            cipher.init(true, new KeyParameter(key));
+            if (nonNull(iv) && Arrays.equals(this.key, key))
+            {
+                // a null key parameter tells the CBC mode to keep the current key
+                cipher.init(true, new ParametersWithIV(null, iv));
+            }
+            else
+            {
+                cipher.init(true, parameters(key, iv));
+                this.key = key;
+            }
+            return cipher;
         }
     }
 
@@ -100,7 +139,7 @@ class AESEngineNoPadding implements AESEncryptionAlgorithmEngine
     static AESEngineNoPadding cbc()
     {
         return new AESEngineNoPadding(
-                new BufferedBlockCipher(new CBCBlockCipher(new AESFastEngine())));
+                () -> new BufferedBlockCipher(new CBCBlockCipher(new AESEngine())));
     }
 
     /**
@@ -108,6 +147,6 @@ class AESEngineNoPadding implements AESEncryptionAlgorithmEngine
      */
     static AESEngineNoPadding ecb()
     {
-        return new AESEngineNoPadding(new BufferedBlockCipher(new AESFastEngine()));
+        return new AESEngineNoPadding(() -> new BufferedBlockCipher(new AESEngine()));
     }
 }
@@ -31,32 +31,24 @@ import org.bouncycastle.crypto.params.KeyParameter;
  */
 class ARC4Engine implements EncryptionAlgorithmEngine
 {
-
-    private StreamCipher cipher;
-
-    public ARC4Engine()
-    {
-        cipher = new RC4Engine();
-    }
+    // bytes are encrypted synchronously so a cipher per thread can be reused, streams are lazy and get their own
+    private final ThreadLocal<StreamCipher> bytesCipher = ThreadLocal.withInitial(RC4Engine::new);
 
     @Override
     public InputStream encryptStream(InputStream data, byte[] key)
     {
-        init(key);
+        StreamCipher cipher = new RC4Engine();
+        cipher.init(true, new KeyParameter(key));
         return new CipherInputStream(data, cipher);
     }
 
     @Override
     public byte[] encryptBytes(byte[] data, byte[] key)
     {
-        init(key);
+        StreamCipher cipher = bytesCipher.get();
+        cipher.init(true, new KeyParameter(key));
         byte[] out = new byte[data.length];
         cipher.processBytes(data, 0, data.length, out, 0);
         return out;
     }
-
-    private void init(byte[] key)
-    {
-        cipher.init(true, new KeyParameter(key));
-    }
 }
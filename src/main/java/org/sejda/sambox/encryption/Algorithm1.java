@@ -23,6 +23,7 @@ import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
 
 import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.function.Function;
 
 import org.bouncycastle.crypto.engines.AESEngine;
@@ -42,17 +43,21 @@ class Algorithm1 implements GeneralEncryptionAlgorithm
     private static final byte[] AES_SALT = { (byte) 0x73, (byte) 0x41, (byte) 0x6c, (byte) 0x54 };
 
     private EncryptionAlgorithmEngine engine;
+    private String cipher;
     private MessageDigest digest = MessageDigests.md5();
     private Function<COSObjectKey, byte[]> keyCalculator;
     private Function<byte[], byte[]> md5Initializer;
     private Function<byte[], byte[]> md5ToKey;
     private COSObjectKey currentCOSObjectKey;
+    // key of the current object, all its strings and streams share it
+    private byte[] currentKey;
 
-    private Algorithm1(EncryptionAlgorithmEngine engine, byte[] key)
+    private Algorithm1(EncryptionAlgorithmEngine engine, String cipher, byte[] key)
     {
         requireNotNullArg(engine, "Encryption engine cannot be null");
         requireArg(key != null && key.length > 0, "Encryption key cannot be blank");
         this.engine = engine;
+        this.cipher = cipher;
         keyCalculator = (cosKey) -> {
             requireNotNullArg(cosKey, "Cannot encrypt a reference with a null key");
             byte[] append = new byte[5];
@@ -76,6 +81,10 @@ class Algorithm1 implements GeneralEncryptionAlgorithm
     @Override
     public void setCurrentCOSObjectKey(COSObjectKey currentCOSObjectKey)
     {
+        if (!Objects.equals(this.currentCOSObjectKey, currentCOSObjectKey))
+        {
+            this.currentKey = null;
+        }
         this.currentCOSObjectKey = currentCOSObjectKey;
     }
 
@@ -84,9 +93,7 @@ class Algorithm1 implements GeneralEncryptionAlgorithm
     {
         if (value.encryptable())
         {
-            requireObjectKey();
-            value.setValue(engine.encryptBytes(value.getBytes(), keyCalculator
-                    .andThen(md5Initializer).andThen(md5ToKey).apply(currentCOSObjectKey)));
+            value.setValue(engine.encryptBytes(value.getBytes(), currentKey()));
         }
     }
 
@@ -95,19 +102,27 @@ class Algorithm1 implements GeneralEncryptionAlgorithm
     {
         if (value.encryptable())
         {
-            requireObjectKey();
-            value.setEncryptor((i) -> engine.encryptStream(i, keyCalculator.andThen(md5Initializer)
-                    .andThen(md5ToKey).apply(currentCOSObjectKey)));
+            byte[] key = currentKey();
+            if (!value.keepSourceEncryption(cipher, key))
+            {
+                value.setEncryptor((i) -> engine.encryptStream(i, key));
+            }
         }
     }
 
-    private void requireObjectKey()
+    private byte[] currentKey()
     {
         if (isNull(currentCOSObjectKey))
         {
             throw new EncryptionException(
                     "General encryption algorithm 1 requires object number and generation number");
         }
+        if (isNull(currentKey))
+        {
+            currentKey = keyCalculator.andThen(md5Initializer).andThen(md5ToKey)
+                    .apply(currentCOSObjectKey);
+        }
+        return currentKey;
     }
 
     @Override
@@ -124,7 +139,7 @@ class Algorithm1 implements GeneralEncryptionAlgorithm
      */
     static Algorithm1 withAESEngine(byte[] key)
     {
-        Algorithm1 algorithm = new Algorithm1(new ConcatenatingAESEngine(), key);
+        Algorithm1 algorithm = new Algorithm1(new ConcatenatingAESEngine(), "AES", key);
         algorithm.md5Initializer = algorithm.md5Initializer.andThen(k -> {
             algorithm.digest.update(AES_SALT);
             return k;
@@ -140,7 +155,7 @@ class Algorithm1 implements GeneralEncryptionAlgorithm
      */
     static Algorithm1 withARC4Engine(byte[] key)
     {
-        return new Algorithm1(new ARC4Engine(), key);
+        return new Algorithm1(new ARC4Engine(), "RC4", key);
     }
 
 }
@@ -63,7 +63,10 @@ class Algorithm1A implements GeneralEncryptionAlgorithm
     {
         if (value.encryptable())
         {
-            value.setEncryptor((i) -> engine.encryptStream(i, key));
+            if (!value.keepSourceEncryption("AES", key))
+            {
+                value.setEncryptor((i) -> engine.encryptStream(i, key));
+            }
         }
     }
 
@@ -23,7 +23,7 @@ import java.io.InputStream;
 import java.io.SequenceInputStream;
 import java.security.SecureRandom;
 
-import org.bouncycastle.crypto.engines.AESFastEngine;
+import org.bouncycastle.crypto.engines.AESEngine;
 import org.bouncycastle.crypto.modes.CBCBlockCipher;
 import org.bouncycastle.crypto.paddings.PaddedBufferedBlockCipher;
 
@@ -40,7 +40,7 @@ public class ConcatenatingAESEngine extends AESEngineNoPadding
 
     ConcatenatingAESEngine()
     {
-        super(new PaddedBufferedBlockCipher(new CBCBlockCipher(new AESFastEngine())));
+        super(() -> new PaddedBufferedBlockCipher(new CBCBlockCipher(new AESEngine())));
         random = new SecureRandom();
     }
 
@@ -30,6 +30,8 @@ import org.sejda.sambox.cos.COSDictionary;
  */
 final class ASCII85Filter extends Filter
 {
+    private static final int BUFFER_SIZE = 0x4000;
+
     @Override
     public DecodeResult decode(InputStream encoded, OutputStream decoded, COSDictionary parameters,
             int index) throws IOException
@@ -43,6 +45,34 @@ final class ASCII85Filter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream decodingStream(InputStream encoded, COSDictionary parameters, int index)
+    {
+        return new DecodingInputStream(new ASCII85InputStream(encoded))
+        {
+            private final byte[] buffer = new byte[BUFFER_SIZE];
+
+            @Override
+            protected boolean decodeNextChunk(InputStream encoded, OutputStream chunk)
+                    throws IOException
+            {
+                int read = encoded.read(buffer);
+                if (read == -1)
+                {
+                    return false;
+                }
+                chunk.write(buffer, 0, read);
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public boolean isLazyDecodingSupported()
+    {
+        return true;
+    }
+
     @Override
     public void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
             throws IOException
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.filter;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.sejda.commons.util.IOUtils;
+
+/**
+ * An {@link InputStream} of decoded data where the data is decoded lazily, one chunk at a time, while the stream is
+ * read. Only the current chunk is kept in memory.
+ *
+ * @author Andrea Vacondio
+ */
+abstract class DecodingInputStream extends InputStream
+{
+    private final Chunk chunk = new Chunk();
+    private final InputStream encoded;
+    private int position = 0;
+    private boolean finished = false;
+
+    DecodingInputStream(InputStream encoded)
+    {
+        requireNonNull(encoded);
+        this.encoded = encoded;
+    }
+
+    /**
+     * Decodes the next chunk of data from the encoded stream and writes it to the given output. Writing nothing is
+     * allowed, this is called again until it returns false.
+     *
+     * @param encoded
+     * @param chunk where the decoded data has to be written
+     * @return false if there's nothing left to decode
+     * @throws IOException
+     */
+    protected abstract boolean decodeNextChunk(InputStream encoded, OutputStream chunk)
+            throws IOException;
+
+    /**
+     * Called once when there's nothing left to decode, it gives a chance to write any remaining data to the given
+     * output
+     *
+     * @param chunk
+     * @throws IOException
+     */
+    protected void onFinish(OutputStream chunk) throws IOException
+    {
+        // nothing by default
+    }
+
+    private boolean fill() throws IOException
+    {
+        while (position >= chunk.size)
+        {
+            if (finished)
+            {
+                return false;
+            }
+            chunk.size = 0;
+            position = 0;
+            if (!decodeNextChunk(encoded, chunk))
+            {
+                finished = true;
+                onFinish(chunk);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        if (fill())
+        {
+            return chunk.bytes[position++] & 0xFF;
+        }
+        return -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (off < 0 || len < 0 || len > b.length - off)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0)
+        {
+            return 0;
+        }
+        int read = 0;
+        // we fill the buffer as much as possible since some consumers expect it
+        while (read < len && fill())
+        {
+            int length = Math.min(len - read, chunk.size - position);
+            System.arraycopy(chunk.bytes, position, b, off + read, length);
+            position += length;
+            read += length;
+        }
+        return read > 0 ? read : -1;
+    }
+
+    /**
+     * @return the number of decoded bytes that can be read without decoding further data. It's zero only when the
+     * stream is fully read.
+     */
+    @Override
+    public int available() throws IOException
+    {
+        if (fill())
+        {
+            return chunk.size - position;
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        finished = true;
+        position = 0;
+        chunk.size = 0;
+        IOUtils.close(encoded);
+    }
+
+    /**
+     * Growable buffer for the current decoded chunk
+     */
+    private static class Chunk extends OutputStream
+    {
+        private byte[] bytes = new byte[1024];
+        private int size = 0;
+
+        @Override
+        public void write(int b)
+        {
+            ensureCapacity(size + 1);
+            bytes[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+            ensureCapacity(size + len);
+            System.arraycopy(b, off, bytes, size, len);
+            size += len;
+        }
+
+        private void ensureCapacity(int capacity)
+        {
+            if (capacity > bytes.length)
+            {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+    }
+}
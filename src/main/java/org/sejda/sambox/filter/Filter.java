@@ -28,6 +28,7 @@ import java.util.zip.Deflater;
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 
+import org.sejda.commons.FastByteArrayOutputStream;
 import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
@@ -68,6 +69,33 @@ public abstract class Filter
     public abstract DecodeResult decode(InputStream encoded, OutputStream decoded,
             COSDictionary parameters, int index) throws IOException;
 
+    /**
+     * Returns a stream of the decoded data. Filters supporting lazy decoding (see {@link #isLazyDecodingSupported()})
+     * decode the data while the returned stream is read, without holding it all in memory, the default implementation
+     * decodes all the data in memory.
+     *
+     * @param encoded the encoded byte stream
+     * @param parameters the parameters used for decoding
+     * @param index the index to the filter being decoded
+     * @return the stream of decoded data
+     * @throws IOException if the stream cannot be decoded
+     */
+    public InputStream decodingStream(InputStream encoded, COSDictionary parameters, int index)
+            throws IOException
+    {
+        FastByteArrayOutputStream decoded = new FastByteArrayOutputStream();
+        decode(encoded, decoded, parameters, index);
+        return decoded.getInputStream();
+    }
+
+    /**
+     * @return true if {@link #decodingStream(InputStream, COSDictionary, int)} decodes the data lazily
+     */
+    public boolean isLazyDecodingSupported()
+    {
+        return false;
+    }
+
     /**
      * Encodes data.
      * 
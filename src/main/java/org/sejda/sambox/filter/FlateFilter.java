@@ -113,6 +113,18 @@ final class FlateFilter extends Filter
         out.flush();
     }
 
+    @Override
+    public InputStream decodingStream(InputStream encoded, COSDictionary parameters, int index)
+    {
+        return new FlateDecodingInputStream(encoded, getDecodeParams(parameters, index));
+    }
+
+    @Override
+    public boolean isLazyDecodingSupported()
+    {
+        return true;
+    }
+
     @Override
     public void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
             throws IOException
@@ -134,4 +146,94 @@ final class FlateFilter extends Filter
         }
         encoded.flush();
     }
+
+    /**
+     * Lazy counterpart of {@link FlateFilter#decompress(InputStream, OutputStream)}, inflating one chunk at a time
+     */
+    private static class FlateDecodingInputStream extends DecodingInputStream
+    {
+        private final Inflater inflater = new Inflater(true);
+        private final COSDictionary decodeParams;
+        private final byte[] buf = new byte[2048];
+        private final byte[] res = new byte[BUFFER_SIZE];
+        private OutputStream out;
+        private boolean dataWritten = false;
+
+        FlateDecodingInputStream(InputStream encoded, COSDictionary decodeParams)
+        {
+            super(encoded);
+            this.decodeParams = decodeParams;
+        }
+
+        @Override
+        protected boolean decodeNextChunk(InputStream in, OutputStream chunk) throws IOException
+        {
+            if (out == null)
+            {
+                out = Predictor.wrapPredictor(chunk, decodeParams);
+                // skip zlib header
+                in.read(buf, 0, 2);
+                int read = in.read(buf);
+                if (read <= 0)
+                {
+                    return false;
+                }
+                inflater.setInput(buf, 0, read);
+            }
+            while (true)
+            {
+                int resRead = 0;
+                try
+                {
+                    resRead = inflater.inflate(res);
+                }
+                catch (DataFormatException e)
+                {
+                    if (dataWritten)
+                    {
+                        // some data could be read -> don't throw an exception
+                        LOG.warn(
+                                "FlateFilter: premature end of stream due to a DataFormatException");
+                        return false;
+                    }
+                    LOG.error(
+                            "FlateFilter: stop reading corrupt stream due to a DataFormatException");
+                    throw new IOException(e);
+                }
+                if (resRead != 0)
+                {
+                    out.write(res, 0, resRead);
+                    dataWritten = true;
+                    return true;
+                }
+                if (inflater.finished() || inflater.needsDictionary())
+                {
+                    return false;
+                }
+                int read = in.read(buf);
+                if (read <= 0)
+                {
+                    return false;
+                }
+                inflater.setInput(buf, 0, read);
+            }
+        }
+
+        @Override
+        protected void onFinish(OutputStream chunk) throws IOException
+        {
+            inflater.end();
+            if (out != null)
+            {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            inflater.end();
+            super.close();
+        }
+    }
 }
@@ -40,6 +40,18 @@ final class IdentityFilter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream decodingStream(InputStream encoded, COSDictionary parameters, int index)
+    {
+        return encoded;
+    }
+
+    @Override
+    public boolean isLazyDecodingSupported()
+    {
+        return true;
+    }
+
     @Override
     public void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
             throws IOException
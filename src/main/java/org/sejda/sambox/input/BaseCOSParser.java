@@ -211,6 +211,11 @@ abstract class BaseCOSParser extends SourceReader
      */
     public COSNumber nextNumber() throws IOException
     {
+        long value = readIntegerValue(true);
+        if (value != NO_INTEGER)
+        {
+            return COSInteger.get(value);
+        }
         return COSNumber.get(readNumber());
     }
 
@@ -315,7 +320,7 @@ abstract class BaseCOSParser extends SourceReader
         long length = streamLength(streamDictionary);
         if (length > 0)
         {
-            stream = new COSStream(streamDictionary, source(), position(), length);
+            stream = new COSStream(streamDictionary, streamsSource(), position(), length);
         }
         else
         {
@@ -332,6 +337,15 @@ abstract class BaseCOSParser extends SourceReader
         return stream;
     }
 
+    /**
+     * @return the {@link SeekableSource} parsed {@link COSStream}s are going to read their data from. By default it's the
+     * source this parser is reading from.
+     */
+    protected SeekableSource streamsSource()
+    {
+        return source();
+    }
+
     /**
      * Retrieves the stream length. It gets it from the dictionary, if not present there it applies fallback strategy
      * searching for endstream or endobj keywords.
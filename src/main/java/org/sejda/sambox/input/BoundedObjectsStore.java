@@ -0,0 +1,524 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.ofNullable;
+import static org.sejda.commons.util.RequireUtils.requireArg;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSBoolean;
+import org.sejda.sambox.cos.COSChangeListeners;
+import org.sejda.sambox.cos.COSChangeListeners.ChangeListener;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSFloat;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSNull;
+import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.COSString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A memory bounded store for parsed objects. Every stored object has an estimated weight in bytes and when the total
+ * weight exceeds the given maximum, the least recently used objects are evicted. Only clean objects can be evicted,
+ * meaning objects that the given predicate says can be parsed again and whose content hasn't changed since they have
+ * been stored. Objects found modified are pinned and never evicted.
+ * <p>
+ * Evicted objects are weakly referenced, if someone is still holding a reference to an evicted object, the same
+ * instance is returned when the object is requested again, otherwise the store returns null and the object is supposed
+ * to be parsed again. Evicted objects are observed (see {@link COSChangeListeners}) and, if changed while evicted,
+ * they are pinned back in the store so the changes are not lost.
+ * </p>
+ *
+ * @author Andrea Vacondio
+ */
+class BoundedObjectsStore extends AbstractMap<COSObjectKey, COSBase>
+{
+    private static final Logger LOG = LoggerFactory.getLogger(BoundedObjectsStore.class);
+    // max number of eviction candidates to check for every insert
+    private static final int MAX_EVICTION_ATTEMPTS = 32;
+
+    private final long maxWeight;
+    private final Predicate<COSObjectKey> reparsable;
+    private final LinkedHashMap<COSObjectKey, StoredObject> objects = new LinkedHashMap<>(16,
+            0.75f, true);
+    private final Map<COSObjectKey, StoredObject> pinned = new HashMap<>();
+    private final Map<COSObjectKey, EvictedReference> evicted = new HashMap<>();
+    private final ReferenceQueue<COSBase> queue = new ReferenceQueue<>();
+    private long weight = 0;
+
+    /**
+     * @param maxWeight max estimated weight in bytes of the stored objects
+     * @param reparsable predicate telling if the object with the given key can be parsed again once evicted
+     */
+    BoundedObjectsStore(long maxWeight, Predicate<COSObjectKey> reparsable)
+    {
+        requireArg(maxWeight > 0, "Max weight must be positive");
+        requireNonNull(reparsable);
+        this.maxWeight = maxWeight;
+        this.reparsable = reparsable;
+    }
+
+    @Override
+    public synchronized COSBase get(Object key)
+    {
+        purge();
+        StoredObject stored = objects.get(key);
+        if (nonNull(stored))
+        {
+            if (stored.object instanceof COSStream)
+            {
+                // stream data may have been decoded or replaced since it was weighed
+                reweigh((COSObjectKey) key, stored);
+            }
+            return stored.object;
+        }
+        stored = pinned.get(key);
+        if (nonNull(stored))
+        {
+            return stored.object;
+        }
+        EvictedReference reference = evicted.remove(key);
+        if (nonNull(reference))
+        {
+            COSBase object = reference.get();
+            if (nonNull(object))
+            {
+                LOG.trace("Restoring evicted object {}", key);
+                unobserve(object, reference.listener);
+                // we keep the original fingerprint so changes made while evicted make the object dirty
+                doPut(reference.key, new StoredObject(object, reference.fingerprint,
+                        weightOf(object)));
+                return object;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized COSBase put(COSObjectKey key, COSBase value)
+    {
+        requireNonNull(key);
+        requireNonNull(value);
+        purge();
+        stopObserving(evicted.remove(key));
+        StoredObject previous = doPut(key,
+                new StoredObject(value, fingerprintOf(value), weightOf(value)));
+        return nonNull(previous) ? previous.object : null;
+    }
+
+    private StoredObject doPut(COSObjectKey key, StoredObject stored)
+    {
+        StoredObject previous = doRemove(key, false);
+        if (stored.fingerprint == null)
+        {
+            pinned.put(key, stored);
+        }
+        else
+        {
+            objects.put(key, stored);
+            weight += stored.weight;
+            evictIfRequired(key);
+        }
+        return previous;
+    }
+
+    private void reweigh(COSObjectKey key, StoredObject stored)
+    {
+        long current = weightOf(stored.object);
+        if (current != stored.weight)
+        {
+            weight += current - stored.weight;
+            stored.weight = current;
+            evictIfRequired(key);
+        }
+    }
+
+    private void evictIfRequired(COSObjectKey justStored)
+    {
+        Iterator<Entry<COSObjectKey, StoredObject>> iterator = objects.entrySet().iterator();
+        int attempts = 0;
+        while (weight > maxWeight && iterator.hasNext() && attempts++ < MAX_EVICTION_ATTEMPTS)
+        {
+            Entry<COSObjectKey, StoredObject> candidate = iterator.next();
+            if (candidate.getKey().equals(justStored))
+            {
+                // the caller is going to need it
+                return;
+            }
+            StoredObject stored = candidate.getValue();
+            iterator.remove();
+            weight -= stored.weight;
+            if (reparsable.test(candidate.getKey())
+                    && stored.fingerprint.equals(fingerprintOf(stored.object)))
+            {
+                EvictedReference reference = new EvictedReference(candidate.getKey(),
+                        stored.object, stored.fingerprint, queue);
+                if (observe(stored.object, reference.listener))
+                {
+                    LOG.trace("Evicting object {}", candidate.getKey());
+                    evicted.put(candidate.getKey(), reference);
+                    continue;
+                }
+                unobserve(stored.object, reference.listener);
+            }
+            LOG.trace("Object {} cannot be evicted", candidate.getKey());
+            pinned.put(candidate.getKey(), stored);
+        }
+    }
+
+    /**
+     * Sets the given listener on the given object and all its direct observable content
+     * 
+     * @return false if some of the content is already observed by someone else, in that case we cannot tell if the
+     * object changes and it shouldn't be evicted
+     */
+    private static boolean observe(COSBase object, EvictedObjectListener listener)
+    {
+        if (isObservable(object))
+        {
+            ChangeListener current = COSChangeListeners.get(object);
+            if (nonNull(current) && !isPreviousEvictionOf(current, listener))
+            {
+                return false;
+            }
+            COSChangeListeners.set(object, listener);
+        }
+        return forEachDirectValue(object, v -> observe(v, listener));
+    }
+
+    /**
+     * @return true if the given current listener has been set by a previous eviction of the same object
+     */
+    private static boolean isPreviousEvictionOf(ChangeListener current,
+            EvictedObjectListener listener)
+    {
+        return current instanceof EvictedObjectListener
+                && ((EvictedObjectListener) current).reference.get() == listener.reference.get();
+    }
+
+    /**
+     * Removes the given listener from the given object and all its direct observable content
+     */
+    private static void unobserve(COSBase object, EvictedObjectListener listener)
+    {
+        if (isObservable(object) && COSChangeListeners.get(object) == listener)
+        {
+            COSChangeListeners.set(object, null);
+        }
+        forEachDirectValue(object, v -> {
+            unobserve(v, listener);
+            return true;
+        });
+    }
+
+    private static boolean isObservable(COSBase object)
+    {
+        return object instanceof COSDictionary || object instanceof COSArray
+                || object instanceof COSString;
+    }
+
+    /**
+     * Applies the given function to the values of the given dictionary or array, stopping at the first false
+     * 
+     * @return false if the function returned false for some value
+     */
+    private static boolean forEachDirectValue(COSBase object, Predicate<COSBase> function)
+    {
+        if (object instanceof COSDictionary)
+        {
+            for (COSBase value : ((COSDictionary) object).getValues())
+            {
+                if (!function.test(value))
+                {
+                    return false;
+                }
+            }
+        }
+        if (object instanceof COSArray)
+        {
+            COSArray array = (COSArray) object;
+            for (int i = 0; i < array.size(); i++)
+            {
+                if (!function.test(array.get(i)))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An evicted object has changed, if still evicted we pin it so the changes are not lost once the object is no
+     * longer referenced
+     */
+    private synchronized void changedWhileEvicted(EvictedObjectListener listener)
+    {
+        EvictedReference reference = listener.reference;
+        COSBase object = reference.get();
+        if (nonNull(object) && evicted.get(reference.key) == reference)
+        {
+            LOG.trace("Evicted object {} has changed", reference.key);
+            evicted.remove(reference.key);
+            unobserve(object, listener);
+            pinned.put(reference.key, new StoredObject(object, null, weightOf(object)));
+        }
+    }
+
+    @Override
+    public synchronized COSBase remove(Object key)
+    {
+        StoredObject previous = doRemove(key, true);
+        return nonNull(previous) ? previous.object : null;
+    }
+
+    private StoredObject doRemove(Object key, boolean removeEvicted)
+    {
+        if (removeEvicted)
+        {
+            stopObserving(evicted.remove(key));
+        }
+        StoredObject previous = objects.remove(key);
+        if (nonNull(previous))
+        {
+            weight -= previous.weight;
+            return previous;
+        }
+        return pinned.remove(key);
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        objects.clear();
+        pinned.clear();
+        evicted.values().forEach(BoundedObjectsStore::stopObserving);
+        evicted.clear();
+        weight = 0;
+    }
+
+    private static void stopObserving(EvictedReference reference)
+    {
+        if (nonNull(reference))
+        {
+            ofNullable(reference.get()).ifPresent(o -> unobserve(o, reference.listener));
+        }
+    }
+
+    @Override
+    public synchronized Set<Entry<COSObjectKey, COSBase>> entrySet()
+    {
+        Map<COSObjectKey, COSBase> snapshot = new HashMap<>();
+        objects.forEach((k, v) -> snapshot.put(k, v.object));
+        pinned.forEach((k, v) -> snapshot.put(k, v.object));
+        return Collections.unmodifiableSet(snapshot.entrySet());
+    }
+
+    /**
+     * @return the estimated weight of the evictable objects currently in the store
+     */
+    synchronized long weight()
+    {
+        return weight;
+    }
+
+    private void purge()
+    {
+        EvictedReference reference;
+        while ((reference = (EvictedReference) queue.poll()) != null)
+        {
+            evicted.remove(reference.key, reference);
+        }
+    }
+
+    /**
+     * @param object
+     * @return a fingerprint of the direct content of the given object or null if we cannot tell if the object changes
+     */
+    static Long fingerprintOf(COSBase object)
+    {
+        if (object instanceof COSStream && !((COSStream) object).hasSourceData())
+        {
+            // stream data is in memory, it could be anything
+            return null;
+        }
+        return fingerprint(object, 17);
+    }
+
+    private static long fingerprint(COSBase object, long hash)
+    {
+        long current = hash * 31;
+        if (object instanceof COSDictionary)
+        {
+            for (Entry<COSName, COSBase> entry : ((COSDictionary) object).entrySet())
+            {
+                current = fingerprint(entry.getValue(),
+                        current * 31 + entry.getKey().getName().hashCode());
+            }
+            return current * 31 + ((COSDictionary) object).size();
+        }
+        if (object instanceof COSArray)
+        {
+            COSArray array = (COSArray) object;
+            for (int i = 0; i < array.size(); i++)
+            {
+                current = fingerprint(array.get(i), current);
+            }
+            return current * 31 + array.size();
+        }
+        if (object instanceof COSName)
+        {
+            return current + ((COSName) object).getName().hashCode();
+        }
+        if (object instanceof COSString)
+        {
+            return current + Arrays.hashCode(((COSString) object).getBytes());
+        }
+        if (object instanceof COSInteger)
+        {
+            return current + Long.hashCode(((COSInteger) object).longValue());
+        }
+        if (object instanceof COSFloat)
+        {
+            return current + Float.floatToIntBits(((COSFloat) object).floatValue());
+        }
+        if (object instanceof COSBoolean)
+        {
+            return current + Boolean.hashCode(((COSBoolean) object).getValue());
+        }
+        if (object instanceof COSNull || object == null)
+        {
+            return current;
+        }
+        if (object instanceof ExistingIndirectCOSObject)
+        {
+            // we don't resolve indirect references
+            return current + object.id().objectIdentifier.hashCode();
+        }
+        return current + System.identityHashCode(object);
+    }
+
+    /**
+     * @param object
+     * @return an estimate of the memory in bytes taken by the given object
+     */
+    static long weightOf(COSBase object)
+    {
+        if (object instanceof COSStream)
+        {
+            // data read from the source or moved to a temp file doesn't take memory
+            return doWeightOf(object) + ((COSStream) object).getInMemoryDataLength();
+        }
+        return doWeightOf(object);
+    }
+
+    private static long doWeightOf(COSBase object)
+    {
+        if (object instanceof COSDictionary)
+        {
+            long weight = 48;
+            for (Entry<COSName, COSBase> entry : ((COSDictionary) object).entrySet())
+            {
+                weight += 32 + doWeightOf(entry.getValue());
+            }
+            return weight;
+        }
+        if (object instanceof COSArray)
+        {
+            COSArray array = (COSArray) object;
+            long weight = 32;
+            for (int i = 0; i < array.size(); i++)
+            {
+                weight += 8 + doWeightOf(array.get(i));
+            }
+            return weight;
+        }
+        if (object instanceof COSString)
+        {
+            return 32 + ((COSString) object).getBytes().length;
+        }
+        // names are cached and shared, numbers and other objects have a small fixed size
+        return 16;
+    }
+
+    private static class StoredObject
+    {
+        final COSBase object;
+        final Long fingerprint;
+        long weight;
+
+        StoredObject(COSBase object, Long fingerprint, long weight)
+        {
+            this.object = object;
+            this.fingerprint = fingerprint;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Listener set on an evicted object and its content. It references the object only weakly, so it doesn't prevent
+     * the object from being garbage collected.
+     */
+    private class EvictedObjectListener implements ChangeListener
+    {
+        final EvictedReference reference;
+
+        EvictedObjectListener(EvictedReference reference)
+        {
+            this.reference = reference;
+        }
+
+        @Override
+        public void changed()
+        {
+            changedWhileEvicted(this);
+        }
+    }
+
+    private class EvictedReference extends WeakReference<COSBase>
+    {
+        final COSObjectKey key;
+        final Long fingerprint;
+        final EvictedObjectListener listener = new EvictedObjectListener(this);
+
+        EvictedReference(COSObjectKey key, COSBase referent, Long fingerprint,
+                ReferenceQueue<COSBase> queue)
+        {
+            super(referent, queue);
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -20,9 +20,11 @@ import static org.sejda.sambox.util.CharUtils.isDigit;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 
 import org.sejda.io.SeekableSource;
 import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSInteger;
 import org.sejda.sambox.cos.COSNumber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +39,7 @@ class COSParser extends BaseCOSParser
     private static final Logger LOG = LoggerFactory.getLogger(COSParser.class);
 
     private IndirectObjectsProvider provider;
+    private SeekableSource streamsSource;
 
     COSParser(SeekableSource source)
     {
@@ -50,6 +53,22 @@ class COSParser extends BaseCOSParser
         this.provider = provider;
     }
 
+    /**
+     * Creates a parser reading from the given source where parsed streams read their data from the given streamsSource.
+     * It can be used when the source is a view of the streamsSource starting at offset zero, so that streams offsets are
+     * the same in both of them.
+     * 
+     * @param source
+     * @param streamsSource
+     * @param provider
+     */
+    COSParser(SeekableSource source, SeekableSource streamsSource,
+            IndirectObjectsProvider provider)
+    {
+        this(source, provider);
+        this.streamsSource = streamsSource;
+    }
+
     @Override
     public COSBase nextParsedToken() throws IOException
     {
@@ -127,6 +146,35 @@ class COSParser extends BaseCOSParser
      * @see #nextNumber()
      */
     public COSBase nextNumberOrIndirectReference() throws IOException
+    {
+        long start = position();
+        long objectNumber = readIntegerValue(true);
+        if (objectNumber != NO_INTEGER)
+        {
+            long offset = position();
+            skipSpaces();
+            if (isDigit(source().peek()))
+            {
+                long generation = readIntegerValue(false);
+                if (generation == NO_INTEGER || generation > Integer.MAX_VALUE)
+                {
+                    // let the String based parsing deal with it
+                    position(start);
+                    return nextNumberOrIndirectReferenceFromTokens();
+                }
+                skipSpaces();
+                if ('R' == source().read())
+                {
+                    return new ExistingIndirectCOSObject(objectNumber, (int) generation, provider);
+                }
+            }
+            position(offset);
+            return COSInteger.get(objectNumber);
+        }
+        return nextNumberOrIndirectReferenceFromTokens();
+    }
+
+    private COSBase nextNumberOrIndirectReferenceFromTokens() throws IOException
     {
         String first = readNumber();
         long offset = position();
@@ -159,6 +207,12 @@ class COSParser extends BaseCOSParser
         return provider;
     }
 
+    @Override
+    protected SeekableSource streamsSource()
+    {
+        return Optional.ofNullable(streamsSource).orElseGet(super::streamsSource);
+    }
+
     /**
      * Closes the parser but not the associated provider
      */
@@ -20,7 +20,9 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.ofNullable;
+import static org.sejda.commons.util.RequireUtils.requireArg;
 import static org.sejda.commons.util.RequireUtils.requireIOCondition;
+import static org.sejda.commons.util.RequireUtils.requireState;
 import static org.sejda.sambox.input.BaseCOSParser.ENDOBJ;
 import static org.sejda.sambox.input.BaseCOSParser.ENDSTREAM;
 import static org.sejda.sambox.input.BaseCOSParser.STREAM;
@@ -28,12 +30,27 @@ import static org.sejda.sambox.input.SourceReader.OBJ;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.sejda.commons.util.IOUtils;
+import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
@@ -53,6 +70,17 @@ import org.slf4j.LoggerFactory;
  * underlying source on demand (ie. when the {@link IndirectObjectsProvider#get(COSObjectKey)} method is called). Parsed
  * objects are stored in a cache to be reused. If for given a {@link COSObjectKey} no entry is found in the xref, a
  * fallback mechanism is activated performing a full scan of the document to retrieve all the objects defined in it.
+ * <p>
+ * By default objects are parsed one at a time. If the concurrent resolution is enabled (see
+ * {@link SAMBox#CONCURRENT_OBJECTS_RESOLUTION_PROPERTY}), every parse uses a {@link COSParser} on a view of the
+ * source, taken from a bounded pool of idle parsers, and locking is done per object key (or per containing objects stream key for compressed objects), so
+ * different objects can be parsed at the same time while the same object is still parsed only once.
+ * </p>
+ * <p>
+ * Parsed objects are kept until the provider is closed or they are released, unless a max weight for the store is set
+ * (see {@link SAMBox#OBJECTS_STORE_MAX_WEIGHT_PROPERTY}), in which case unmodified objects can be evicted and
+ * transparently parsed again when requested.
+ * </p>
  * 
  * @author Andrea Vacondio
  */
@@ -62,19 +90,64 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
 
     private Xref xref = new Xref();
     private ObjectsFullScanner scanner;
-    // TODO references that the GC can claim
-    private Map<COSObjectKey, COSBase> store = new ConcurrentHashMap<>();
+    private Map<COSObjectKey, COSBase> store;
     private SecurityHandler securityHandler = null;
     private COSParser parser;
+    private final boolean concurrent;
+    // locks of the objects being parsed, removed once nobody is using them
+    private final ConcurrentMap<COSObjectKey, ParseLock> locks = new ConcurrentHashMap<>();
+    // parsers on views of the source, idle and available for concurrent parsing
+    private final BlockingQueue<COSParser> idleParsers = new ArrayBlockingQueue<>(
+            Runtime.getRuntime().availableProcessors());
+
+    LazyIndirectObjectsProvider()
+    {
+        this(Boolean.getBoolean(SAMBox.CONCURRENT_OBJECTS_RESOLUTION_PROPERTY));
+    }
+
+    /**
+     * @param concurrent true if objects can be resolved concurrently by multiple threads
+     */
+    LazyIndirectObjectsProvider(boolean concurrent)
+    {
+        this(concurrent, Long.getLong(SAMBox.OBJECTS_STORE_MAX_WEIGHT_PROPERTY, 0));
+    }
+
+    /**
+     * @param concurrent true if objects can be resolved concurrently by multiple threads
+     * @param storeMaxWeight if positive, the max estimated weight in bytes of the parsed objects store, after which
+     * clean objects are evicted from the store and parsed again when requested
+     */
+    LazyIndirectObjectsProvider(boolean concurrent, long storeMaxWeight)
+    {
+        this.concurrent = concurrent;
+        if (storeMaxWeight > 0)
+        {
+            this.store = new BoundedObjectsStore(storeMaxWeight, k -> nonNull(xref.get(k)));
+        }
+        else
+        {
+            this.store = new ConcurrentHashMap<>();
+        }
+    }
 
     @Override
     public COSBase get(COSObjectKey key)
     {
-        if (isNull(store.get(key)))
+        COSBase value = store.get(key);
+        if (isNull(value))
         {
-            parseObject(key);
+            if (concurrent)
+            {
+                parseObjectConcurrently(key);
+            }
+            else
+            {
+                parseObject(key);
+            }
+            value = store.get(key);
         }
-        return store.get(key);
+        return value;
     }
 
     @Override
@@ -101,6 +174,14 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
         return xref.add(entry);
     }
 
+    /**
+     * @return the xref entries known to this provider
+     */
+    Collection<XrefEntry> xrefEntries()
+    {
+        return xref.values();
+    }
+
     @Override
     public COSObjectKey highestKey()
     {
@@ -123,37 +204,198 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
         return this;
     }
 
+    /**
+     * Eagerly parses all the indirect objects in the xref using a pool of the given number of workers. In use entries
+     * are parsed individually while compressed ones are parsed grouped by containing objects stream, so every objects
+     * stream is decoded once. Concurrent resolution must be enabled.
+     * 
+     * @param poolSize number of threads to use
+     * @throws IOException if the thread is interrupted while waiting for the workers to complete
+     */
+    void preload(int poolSize) throws IOException
+    {
+        requireState(concurrent, "Concurrent objects resolution is required to preload objects");
+        requireArg(poolSize > 0, "Number of workers must be positive");
+        Map<Long, List<COSObjectKey>> compressed = new HashMap<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (XrefEntry entry : xref.values())
+        {
+            if (entry.getType() == XrefType.IN_USE)
+            {
+                tasks.add(() -> {
+                    get(entry.key());
+                    return null;
+                });
+            }
+            else if (entry instanceof CompressedXrefEntry)
+            {
+                compressed.computeIfAbsent(((CompressedXrefEntry) entry).getObjectStreamNumber(),
+                        k -> new ArrayList<>()).add(entry.key());
+            }
+        }
+        compressed.values().forEach(keys -> tasks.add(() -> {
+            keys.forEach(this::get);
+            return null;
+        }));
+        LOG.debug("Preloading {} indirect objects with {} workers", xref.values().size(),
+                poolSize);
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, new ThreadFactory()
+        {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable target)
+            {
+                Thread thread = new Thread(null, target,
+                        "pdf-preload-thread-" + counter.incrementAndGet(), 0);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try
+        {
+            for (Future<Void> result : executor.invokeAll(tasks))
+            {
+                try
+                {
+                    result.get();
+                }
+                catch (ExecutionException e)
+                {
+                    LOG.warn("An error occurred preloading objects", e.getCause());
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
     private synchronized void parseObject(COSObjectKey key)
+    {
+        doParseObject(key, parser);
+    }
+
+    private void parseObjectConcurrently(COSObjectKey key)
+    {
+        COSObjectKey lockKey = lockKey(key);
+        ParseLock lock = locks.compute(lockKey,
+                (k, l) -> ofNullable(l).orElseGet(ParseLock::new).acquire());
+        try
+        {
+            synchronized (lock)
+            {
+                if (isNull(store.get(key)))
+                {
+                    COSParser worker = borrowParser();
+                    try
+                    {
+                        doParseObject(key, worker);
+                    }
+                    finally
+                    {
+                        returnParser(worker);
+                    }
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            LOG.warn("Unable to create a parser for " + key, e);
+        }
+        finally
+        {
+            locks.computeIfPresent(lockKey, (k, l) -> l.release());
+        }
+    }
+
+    /**
+     * @param key
+     * @return the key to lock on to parse the object with the given key. Compressed objects are parsed all together
+     * with the containing objects stream so we lock on the objects stream key.
+     */
+    private COSObjectKey lockKey(COSObjectKey key)
+    {
+        XrefEntry xrefEntry = xref.get(key);
+        if (xrefEntry instanceof CompressedXrefEntry)
+        {
+            return new COSObjectKey(((CompressedXrefEntry) xrefEntry).getObjectStreamNumber(), 0);
+        }
+        return key;
+    }
+
+    /**
+     * @return an idle parser reading from a view of the original source, a new one if none is available. The parser is
+     * used exclusively by the caller until it's returned with {@link #returnParser(COSParser)}.
+     * @throws IOException if a view of the source cannot be created
+     */
+    private COSParser borrowParser() throws IOException
+    {
+        COSParser worker = idleParsers.poll();
+        if (isNull(worker))
+        {
+            try
+            {
+                worker = new COSParser(parser.source().view(0, parser.length()), parser.source(),
+                        this);
+            }
+            catch (RuntimeException e)
+            {
+                // ex. the source has been closed
+                throw new IOException("Unable to create a view of the source", e);
+            }
+        }
+        return worker;
+    }
+
+    /**
+     * Makes the given parser available to other parses, it's closed if there are already enough idle parsers
+     */
+    private void returnParser(COSParser worker)
+    {
+        if (!idleParsers.offer(worker))
+        {
+            IOUtils.closeQuietly(worker);
+        }
+    }
+
+    private void doParseObject(COSObjectKey key, COSParser parser)
     {
         XrefEntry xrefEntry = xref.get(key);
         if (nonNull(xrefEntry))
         {
             try
             {
-                doParse(xrefEntry);
+                doParse(xrefEntry, parser);
             }
             catch (IOException e)
             {
                 LOG.warn("An error occurred while parsing " + xrefEntry, e);
-                doParseFallbackObject(key);
+                doParseFallbackObject(key, parser);
             }
         }
         else
         {
             LOG.warn("Unable to find xref data for {}", key);
-            doParseFallbackObject(key);
+            doParseFallbackObject(key, parser);
         }
     }
 
-    private void doParseFallbackObject(COSObjectKey key)
+    private void doParseFallbackObject(COSObjectKey key, COSParser parser)
     {
         LOG.info("Trying fallback strategy for " + key);
-        XrefEntry xrefEntry = scanner.entries().get(key);
+        XrefEntry xrefEntry = fallbackEntries().get(key);
         if (nonNull(xrefEntry))
         {
             try
             {
-                doParse(xrefEntry);
+                doParse(xrefEntry, parser);
             }
             catch (IOException e)
             {
@@ -166,12 +408,21 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
         }
     }
 
-    private void doParse(XrefEntry xrefEntry) throws IOException
+    private Xref fallbackEntries()
+    {
+        // the scanner uses the shared parser
+        synchronized (scanner)
+        {
+            return scanner.entries();
+        }
+    }
+
+    private void doParse(XrefEntry xrefEntry, COSParser parser) throws IOException
     {
         LOG.trace("Parsing indirect object {}", xrefEntry);
         if (xrefEntry.getType() == XrefType.IN_USE)
         {
-            parseInUseEntry(xrefEntry);
+            parseInUseEntry(xrefEntry, parser);
         }
         if (xrefEntry.getType() == XrefType.COMPRESSED)
         {
@@ -180,7 +431,7 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
         LOG.trace("Parsing done");
     }
 
-    private void parseInUseEntry(XrefEntry xrefEntry) throws IOException
+    private void parseInUseEntry(XrefEntry xrefEntry, COSParser parser) throws IOException
     {
         parser.position(xrefEntry.getByteOffset());
         parser.skipExpectedIndirectObjectDefinition(xrefEntry.key());
@@ -200,8 +451,7 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
         if (securityHandler != null)
         {
             LOG.trace("Decrypting entry {}", xrefEntry);
-            securityHandler.decrypt(found, xrefEntry.getObjectNumber(),
-                    xrefEntry.getGenerationNumber());
+            decrypt(found, xrefEntry);
         }
         if (!parser.skipTokenIfValue(ENDOBJ))
         {
@@ -224,6 +474,24 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
         store.put(xrefEntry.key(), ofNullable(found).orElse(COSNull.NULL));
     }
 
+    private void decrypt(COSBase found, XrefEntry xrefEntry) throws IOException
+    {
+        if (concurrent)
+        {
+            // the security handler keeps state and it's not thread safe
+            synchronized (securityHandler)
+            {
+                securityHandler.decrypt(found, xrefEntry.getObjectNumber(),
+                        xrefEntry.getGenerationNumber());
+            }
+        }
+        else
+        {
+            securityHandler.decrypt(found, xrefEntry.getObjectNumber(),
+                    xrefEntry.getGenerationNumber());
+        }
+    }
+
     private void parseCompressedEntry(XrefEntry xrefEntry) throws IOException
     {
         XrefEntry containingStreamEntry = xref.get(
@@ -234,7 +502,16 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
                         && containingStreamEntry.getType() != XrefType.COMPRESSED,
                 "Expected an uncompressed indirect object reference for the ObjectStream");
 
-        parseObject(containingStreamEntry.key());
+        if (concurrent)
+        {
+            // the objects stream is closed once its objects are parsed, we need to parse it again
+            store.remove(containingStreamEntry.key());
+            parseObjectConcurrently(containingStreamEntry.key());
+        }
+        else
+        {
+            parseObject(containingStreamEntry.key());
+        }
         COSBase stream = ofNullable(store.get(containingStreamEntry.key()))
                 .map(COSBase::getCOSObject).orElseThrow(() -> new IOException(
                         "Unable to find ObjectStream " + containingStreamEntry));
@@ -290,7 +567,8 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
                     if (containingStreamEntry.owns(xref.get(key)))
                     {
                         LOG.trace("Parsed compressed object {} {}", key, object.getClass());
-                        store.put(key, object);
+                        // we don't replace objects of this stream already in the store, they might have been modified
+                        store.putIfAbsent(key, object);
                     }
                 }
                 if (streamParser.skipTokenIfValue(ENDOBJ))
@@ -318,15 +596,48 @@ class LazyIndirectObjectsProvider implements IndirectObjectsProvider
     @Override
     public void close()
     {
+        List<COSParser> idle = new ArrayList<>();
+        idleParsers.drainTo(idle);
+        idle.forEach(IOUtils::closeQuietly);
+        locks.clear();
         store.values().stream().filter(o -> o instanceof Closeable).map(o -> (Closeable) o)
                 .forEach(IOUtils::closeQuietly);
         store.clear();
     }
 
+    /**
+     * package-private for testing
+     * 
+     * @return the number of locks of objects being parsed
+     */
+    int parseLocks()
+    {
+        return locks.size();
+    }
+
     @Override
     public String id()
     {
         return parser.source().id();
     }
 
+    /**
+     * Lock of the parse of an object, with the number of threads using it so that it can be removed when none is
+     */
+    private static class ParseLock
+    {
+        // only accessed in the ConcurrentMap compute functions, atomically for a given key
+        private int users;
+
+        ParseLock acquire()
+        {
+            users++;
+            return this;
+        }
+
+        ParseLock release()
+        {
+            return --users > 0 ? this : null;
+        }
+    }
 }
@@ -16,22 +16,28 @@
  */
 package org.sejda.sambox.input;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.requireNonNull;
 import static org.sejda.commons.util.RequireUtils.requireIOCondition;
 import static org.sejda.sambox.util.SpecVersionUtils.PDF_HEADER;
 import static org.sejda.sambox.util.SpecVersionUtils.parseHeaderString;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Optional;
+import java.util.Set;
 
 import org.sejda.commons.util.IOUtils;
 import org.sejda.io.SeekableSource;
+import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.cos.COSDocument;
 import org.sejda.sambox.pdmodel.PDDocument;
 import org.sejda.sambox.pdmodel.encryption.DecryptionMaterial;
 import org.sejda.sambox.pdmodel.encryption.PDEncryption;
 import org.sejda.sambox.pdmodel.encryption.SecurityHandler;
 import org.sejda.sambox.pdmodel.encryption.StandardDecryptionMaterial;
+import org.sejda.sambox.xref.FileTrailer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,6 +63,20 @@ public class PDFParser
         return parse(source, (String) null);
     }
 
+    /**
+     * Parses the given {@link SeekableSource} using the given options, returning the corresponding {@link PDDocument}.
+     * 
+     * @param source
+     * @param options
+     * @return the parsed document
+     * @throws IOException
+     */
+    public static PDDocument parse(SeekableSource source, ParseOption... options)
+            throws IOException
+    {
+        return parse(source, (String) null, options);
+    }
+
     /**
      * Parses the given {@link SeekableSource} returning the corresponding {@link IncrementablePDDocument}.
      * 
@@ -79,9 +99,26 @@ public class PDFParser
      * @throws IOException
      */
     public static PDDocument parse(SeekableSource source, String password) throws IOException
+    {
+        return parse(source, password, new ParseOption[0]);
+    }
+
+    /**
+     * Parses the given {@link SeekableSource} using the given password and options, returning the corresponding
+     * decrypted {@link PDDocument}.
+     * 
+     * @param source {@link SeekableSource} to parse
+     * @param password to be used for decryption. Optional.
+     * @param options
+     * @return the parsed document
+     * @throws IOException
+     */
+    public static PDDocument parse(SeekableSource source, String password, ParseOption... options)
+            throws IOException
     {
         return parse(source,
-                Optional.ofNullable(password).map(StandardDecryptionMaterial::new).orElse(null));
+                Optional.ofNullable(password).map(StandardDecryptionMaterial::new).orElse(null),
+                options);
     }
 
     /**
@@ -111,14 +148,48 @@ public class PDFParser
      */
     public static PDDocument parse(SeekableSource source, DecryptionMaterial decryptionMaterial)
             throws IOException
+    {
+        return parse(source, decryptionMaterial, new ParseOption[0]);
+    }
+
+    /**
+     * Parses the given {@link SeekableSource} using the given {@link DecryptionMaterial} and options, returning the
+     * corresponding decrypted {@link PDDocument}.
+     * 
+     * @param source {@link SeekableSource} to parse
+     * @param decryptionMaterial to be used for decryption. Optional.
+     * @param options
+     * @return the parsed document
+     * @throws IOException
+     */
+    public static PDDocument parse(SeekableSource source, DecryptionMaterial decryptionMaterial,
+            ParseOption... options) throws IOException
     {
         requireNonNull(source);
-        COSParser parser = new COSParser(source);
-        PDDocument document = doParse(decryptionMaterial, parser);
+        Set<ParseOption> parseOptions = Optional.ofNullable(options).map(Arrays::asList)
+                .filter(l -> !l.isEmpty()).map(EnumSet::copyOf)
+                .orElseGet(() -> EnumSet.noneOf(ParseOption.class));
+        COSParser parser = newParser(source, parseOptions);
+        PDDocument document = doParse(decryptionMaterial, parser,
+                parseOptions.contains(ParseOption.XREF_INDEX));
         document.setOnCloseAction(() -> {
             IOUtils.close(parser.provider());
             IOUtils.close(parser);
         });
+        if (parseOptions.contains(ParseOption.PRELOAD_OBJECTS))
+        {
+            try
+            {
+                ((LazyIndirectObjectsProvider) parser.provider()).preload(
+                        Integer.getInteger(SAMBox.PRELOAD_WORKERS_PROPERTY,
+                                Runtime.getRuntime().availableProcessors()));
+            }
+            catch (IOException e)
+            {
+                IOUtils.closeQuietly(document);
+                throw e;
+            }
+        }
         return document;
     }
 
@@ -136,18 +207,45 @@ public class PDFParser
     {
         requireNonNull(source);
         COSParser parser = new COSParser(source);
-        return new IncrementablePDDocument(doParse(decryptionMaterial, parser), parser);
+        return new IncrementablePDDocument(doParse(decryptionMaterial, parser, false), parser);
     }
 
-    private static PDDocument doParse(DecryptionMaterial decryptionMaterial, COSParser parser)
-            throws IOException
+    private static COSParser newParser(SeekableSource source, Set<ParseOption> options)
+    {
+        if (options.contains(ParseOption.CONCURRENT_OBJECTS_RESOLUTION)
+                || options.contains(ParseOption.PRELOAD_OBJECTS))
+        {
+            LazyIndirectObjectsProvider provider = new LazyIndirectObjectsProvider(true);
+            COSParser parser = new COSParser(source, provider);
+            provider.initializeWith(parser);
+            return parser;
+        }
+        return new COSParser(source);
+    }
+
+    private static PDDocument doParse(DecryptionMaterial decryptionMaterial, COSParser parser,
+            boolean xrefIndex) throws IOException
     {
         String headerVersion = readHeader(parser);
         LOG.trace("Parsed header version: " + headerVersion);
-        XrefParser xrefParser = new XrefParser(parser);
-        xrefParser.parse();
+        FileTrailer trailer = null;
+        if (xrefIndex)
+        {
+            trailer = XrefIndex.load(parser).orElse(null);
+        }
+        if (isNull(trailer))
+        {
+            XrefParser xrefParser = new XrefParser(parser);
+            xrefParser.parse();
+            trailer = xrefParser.trailer();
+            if (xrefIndex)
+            {
+                XrefIndex.store(parser, trailer,
+                        ((LazyIndirectObjectsProvider) parser.provider()).xrefEntries());
+            }
+        }
 
-        COSDocument document = new COSDocument(xrefParser.trailer(), headerVersion);
+        COSDocument document = new COSDocument(trailer, headerVersion);
         if (document.isEncrypted())
         {
             LOG.debug("Preparing for document decryption");
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import org.sejda.sambox.SAMBox;
+
+/**
+ * Options that can be selected when parsing a PDF document.
+ * 
+ * @author Andrea Vacondio
+ */
+public enum ParseOption
+{
+    /**
+     * Indirect objects can be lazily resolved concurrently by multiple threads
+     * 
+     * @see SAMBox#CONCURRENT_OBJECTS_RESOLUTION_PROPERTY
+     */
+    CONCURRENT_OBJECTS_RESOLUTION,
+    /**
+     * All the indirect objects in the xref are eagerly parsed by a pool of workers before the document is returned. It
+     * implies {@link #CONCURRENT_OBJECTS_RESOLUTION}.
+     * 
+     * @see SAMBox#PRELOAD_WORKERS_PROPERTY
+     */
+    PRELOAD_OBJECTS,
+    /**
+     * The resolved xref and trailer of documents read from a file are persisted to an index file and loaded from it when
+     * the same, unchanged, file is parsed again, skipping the xref parsing or reconstruction.
+     * 
+     * @see SAMBox#XREF_INDEX_DIRECTORY_PROPERTY
+     */
+    XREF_INDEX;
+}
@@ -16,7 +16,6 @@
  */
 package org.sejda.sambox.input;
 
-import static java.util.Arrays.asList;
 import static org.sejda.commons.util.RequireUtils.requireIOCondition;
 import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
 import static org.sejda.sambox.util.CharUtils.ASCII_BACKSPACE;
@@ -53,7 +52,7 @@ import org.slf4j.LoggerFactory;
 /**
  * Component responsible for reading a {@link SeekableSource}. Methods to read expected kind of tokens are available as
  * well as methods to skip them. This implementation uses a pool of {@link StringBuilder}s to minimize garbage
- * collection.
+ * collection and reads integers, plain names and keywords without creating intermediate objects whenever possible.
  * 
  * @author Andrea Vacondio
  */
@@ -65,6 +64,12 @@ class SourceReader implements Closeable
     private static final long OBJECT_NUMBER_THRESHOLD = 10000000000L;
     private static final int GENERATION_NUMBER_THRESHOLD = 65535;
     public static final String OBJ = "obj";
+    /**
+     * Value returned by {@link #readIntegerValue(boolean)} when the next token is not an integer it can read
+     */
+    static final long NO_INTEGER = Long.MIN_VALUE;
+    // more digits than this may overflow a long and are left to the slow path
+    private static final int MAX_FAST_INTEGER_DIGITS = 18;
 
     private Pool<StringBuilder> pool = new Pool<>(StringBuilder::new,
             Integer.getInteger(SAMBox.BUFFERS_POOL_SIZE_PROPERTY, 10)).onGive(b -> {
@@ -158,8 +163,7 @@ class SourceReader implements Closeable
     public boolean skipTokenIfValue(String... values) throws IOException
     {
         long pos = position();
-        String token = readToken();
-        if (!asList(values).contains(token))
+        if (!nextTokenIsOneOf(values))
         {
             source.position(pos);
             return false;
@@ -271,9 +275,39 @@ class SourceReader implements Closeable
     public boolean isNextToken(String... values) throws IOException
     {
         long pos = position();
-        String token = readToken();
+        boolean found = nextTokenIsOneOf(values);
         position(pos);
-        return asList(values).contains(token);
+        return found;
+    }
+
+    /**
+     * Reads the next token and compares it to the given values without creating a {@link String} for it
+     */
+    private boolean nextTokenIsOneOf(String... values) throws IOException
+    {
+        skipSpaces();
+        StringBuilder builder = pool.borrow();
+        try
+        {
+            int c;
+            while (((c = source.read()) != -1) && !isEndOfName(c))
+            {
+                builder.append((char) c);
+            }
+            unreadIfValid(c);
+            for (String value : values)
+            {
+                if (value.contentEquals(builder))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        finally
+        {
+            pool.give(builder);
+        }
     }
 
     /**
@@ -351,6 +385,32 @@ class SourceReader implements Closeable
     public String readName() throws IOException
     {
         skipExpected('/');
+        long start = position();
+        StringBuilder builder = pool.borrow();
+        try
+        {
+            int c;
+            while (((c = source.read()) != -1) && !isEndOfName(c))
+            {
+                if (c == '#' || c > 0x7F)
+                {
+                    // escaped or non ASCII names need to be decoded
+                    position(start);
+                    return readEncodedName();
+                }
+                builder.append((char) c);
+            }
+            unreadIfValid(c);
+            return builder.toString();
+        }
+        finally
+        {
+            pool.give(builder);
+        }
+    }
+
+    private String readEncodedName() throws IOException
+    {
         FastByteArrayOutputStream buffer = new FastByteArrayOutputStream();
         int i;
         while (((i = source.read()) != -1) && !isEndOfName(i))
@@ -403,6 +463,14 @@ class SourceReader implements Closeable
      */
     public int readInt() throws IOException
     {
+        skipSpaces();
+        long start = position();
+        long value = readIntegerValue(false);
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+        {
+            return (int) value;
+        }
+        position(start);
         String intBuffer = readIntegerNumber();
         try
         {
@@ -424,6 +492,12 @@ class SourceReader implements Closeable
      */
     public long readLong() throws IOException
     {
+        skipSpaces();
+        long value = readIntegerValue(false);
+        if (value != NO_INTEGER)
+        {
+            return value;
+        }
         String longBuffer = readIntegerNumber();
         try
         {
@@ -467,6 +541,48 @@ class SourceReader implements Closeable
         }
     }
 
+    /**
+     * Reads a token conforming with a PDF Integer object defined in Numeric Objects chap 7.3.3 PDF 32000-1:2008,
+     * computing its value directly from the source bytes. Only integers made of an optional sign and up to 18 digits
+     * are read, anything else is left to the {@link String} based methods.
+     *
+     * @param complete if true the integer must be a complete numeric token, not followed by chars that are valid in a
+     * real number (Ex. "12.5" or "1e3")
+     * @return the integer value or {@link #NO_INTEGER} if the next token is not an integer that can be read this way,
+     * in which case the position is left unchanged.
+     * @throws IOException If there is an error reading from the stream.
+     */
+    final long readIntegerValue(boolean complete) throws IOException
+    {
+        long start = position();
+        int c = source.read();
+        boolean negative = c == '-';
+        if (negative || c == '+')
+        {
+            c = source.read();
+        }
+        long value = 0;
+        int digits = 0;
+        while (c != -1 && isDigit(c) && digits < MAX_FAST_INTEGER_DIGITS)
+        {
+            value = value * 10 + (c - '0');
+            digits++;
+            c = source.read();
+        }
+        if (digits == 0 || isDigit(c) || (complete && isNumberChar(c)))
+        {
+            position(start);
+            return NO_INTEGER;
+        }
+        unreadIfValid(c);
+        return negative ? -value : value;
+    }
+
+    private static boolean isNumberChar(int c)
+    {
+        return c == '.' || c == 'E' || c == 'e' || c == '+' || c == '-';
+    }
+
     /**
      * Reads a token conforming with PDF Numeric Objects chap 7.3.3 PDF 32000-1:2008.
      *
@@ -0,0 +1,498 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.sejda.commons.util.RequireUtils.requireIOCondition;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSBoolean;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSFloat;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSNull;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.COSString;
+import org.sejda.sambox.util.Hex;
+import org.sejda.sambox.xref.CompressedXrefEntry;
+import org.sejda.sambox.xref.FileTrailer;
+import org.sejda.sambox.xref.XrefEntry;
+import org.sejda.sambox.xref.XrefType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Component capable of persisting the resolved xref entries and trailer of a document to a sidecar index file and to
+ * load them back, so that xref parsing (and the full scan of broken documents) can be skipped when the same file is
+ * opened again. The index is only used for sources backed by a file and it's keyed by the file length, last modified
+ * time and a hash of the first and last bytes of the file. Index files are stored in the directory set with
+ * {@link SAMBox#XREF_INDEX_DIRECTORY_PROPERTY} or in a directory in the user home. Offsets read from an index are
+ * trusted, so directories and index files are only used if they are owned by the current user and, where POSIX
+ * permissions are supported, not writable by others.
+ *
+ * @author Andrea Vacondio
+ */
+final class XrefIndex
+{
+    private static final Logger LOG = LoggerFactory.getLogger(XrefIndex.class);
+
+    private static final int MAGIC = 0x53425849;
+    private static final byte VERSION = 2;
+    private static final int SAMPLE_LENGTH = 4096;
+    private static final String DIGEST = "SHA-256";
+    private static final String EXTENSION = ".xrefidx";
+
+    private XrefIndex()
+    {
+        // hide
+    }
+
+    /**
+     * Loads the xref index of the source of the given parser, if any. Entries are added to the parser provider.
+     *
+     * @param parser
+     * @return the trailer or an empty optional if no valid index is found
+     */
+    static Optional<FileTrailer> load(COSParser parser)
+    {
+        try
+        {
+            Optional<Path> index = indexFileFor(parser);
+            if (index.isPresent() && Files.isRegularFile(index.get()))
+            {
+                if (isTrusted(index.get().getParent()) && isTrusted(index.get()))
+                {
+                    return doLoad(parser, index.get());
+                }
+                LOG.warn("Ignoring xref index {} owned by a different user or writable by others",
+                        index.get());
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOG.warn("Unable to load xref index, xref is going to be parsed", e);
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<FileTrailer> doLoad(COSParser parser, Path index) throws IOException
+    {
+        byte[] content = Files.readAllBytes(index);
+        int bodyLength = content.length - digestLength();
+        requireIOCondition(bodyLength > 0, "Invalid xref index");
+        if (!MessageDigest.isEqual(digest(content, 0, bodyLength),
+                Arrays.copyOfRange(content, bodyLength, content.length)))
+        {
+            LOG.debug("Corrupted xref index {}", index);
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(content, 0, bodyLength)))
+        {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION)
+            {
+                LOG.debug("Invalid xref index {}", index);
+                return Optional.empty();
+            }
+            long length = in.readLong();
+            long lastModified = in.readLong();
+            byte[] checksum = new byte[in.readInt()];
+            in.readFully(checksum);
+            if (length != parser.length() || lastModified != lastModified(parser)
+                    || !MessageDigest.isEqual(checksum, checksum(parser)))
+            {
+                LOG.debug("Outdated xref index {}", index);
+                return Optional.empty();
+            }
+            long xrefOffset = in.readLong();
+            byte[] trailerBytes = new byte[in.readInt()];
+            in.readFully(trailerBytes);
+            int size = in.readInt();
+            requireIOCondition(size >= 0, "Invalid number of xref entries");
+            List<XrefEntry> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+            {
+                XrefEntry entry = readEntry(in);
+                requireIOCondition(entry.getType() != XrefType.IN_USE
+                        || (entry.getByteOffset() >= 0 && entry.getByteOffset() < length),
+                        "Invalid offset in xref index " + entry);
+                entries.add(entry);
+            }
+            FileTrailer trailer;
+            try (COSParser trailerParser = new COSParser(
+                    SeekableSources.inMemorySeekableSourceFrom(trailerBytes), parser.provider()))
+            {
+                trailer = new FileTrailer(trailerParser.nextDictionary());
+            }
+            trailer.xrefOffset(xrefOffset);
+            entries.forEach(parser.provider()::addEntry);
+            LOG.debug("Loaded {} xref entries from index {}", size, index);
+            return Optional.of(trailer);
+        }
+    }
+
+    private static XrefEntry readEntry(DataInputStream in) throws IOException
+    {
+        XrefType type = XrefType.values()[in.readByte()];
+        long objectNumber = in.readLong();
+        if (type == XrefType.COMPRESSED)
+        {
+            return CompressedXrefEntry.compressedEntry(objectNumber, in.readLong(), in.readLong());
+        }
+        int generation = in.readInt();
+        long offset = in.readLong();
+        if (type == XrefType.FREE)
+        {
+            return XrefEntry.freeEntry(objectNumber, generation);
+        }
+        return XrefEntry.inUseEntry(objectNumber, offset, generation);
+    }
+
+    /**
+     * Stores the given trailer and xref entries to the index file for the source of the given parser. Failures are
+     * logged and ignored.
+     *
+     * @param parser
+     * @param trailer
+     * @param entries
+     */
+    static void store(COSParser parser, FileTrailer trailer, Collection<XrefEntry> entries)
+    {
+        try
+        {
+            Optional<Path> index = indexFileFor(parser);
+            if (index.isPresent())
+            {
+                createDirectory(index.get().getParent());
+                if (isTrusted(index.get().getParent()))
+                {
+                    doStore(parser, index.get(), trailer, entries);
+                }
+                else
+                {
+                    LOG.warn(
+                            "Not storing xref index in {} owned by a different user or writable by others",
+                            index.get().getParent());
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOG.warn("Unable to store xref index", e);
+        }
+    }
+
+    private static void doStore(COSParser parser, Path index, FileTrailer trailer,
+            Collection<XrefEntry> entries) throws IOException
+    {
+        ByteArrayOutputStream trailerBytes = new ByteArrayOutputStream();
+        write(trailer.getCOSObject(), trailerBytes);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(body))
+        {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(parser.length());
+            out.writeLong(lastModified(parser));
+            byte[] checksum = checksum(parser);
+            out.writeInt(checksum.length);
+            out.write(checksum);
+            out.writeLong(trailer.xrefOffset());
+            out.writeInt(trailerBytes.size());
+            trailerBytes.writeTo(out);
+            out.writeInt(entries.size());
+            for (XrefEntry entry : entries)
+            {
+                writeEntry(entry, out);
+            }
+        }
+        // created readable and writable by the owner only
+        Path tmp = Files.createTempFile(index.getParent(), "xref", ".tmp");
+        try
+        {
+            try (OutputStream out = Files.newOutputStream(tmp))
+            {
+                body.writeTo(out);
+                out.write(digest(body.toByteArray(), 0, body.size()));
+            }
+            Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            LOG.debug("Stored {} xref entries to index {}", entries.size(), index);
+        }
+        finally
+        {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeEntry(XrefEntry entry, DataOutputStream out) throws IOException
+    {
+        out.writeByte(entry.getType().ordinal());
+        out.writeLong(entry.getObjectNumber());
+        if (entry instanceof CompressedXrefEntry)
+        {
+            out.writeLong(((CompressedXrefEntry) entry).getObjectStreamNumber());
+            out.writeLong(((CompressedXrefEntry) entry).getIndex());
+        }
+        else
+        {
+            out.writeInt(entry.getGenerationNumber());
+            out.writeLong(entry.getByteOffset());
+        }
+    }
+
+    /**
+     * Writes the given trailer value in PDF syntax, without resolving indirect references
+     */
+    private static void write(COSBase value, ByteArrayOutputStream out) throws IOException
+    {
+        if (value instanceof ExistingIndirectCOSObject)
+        {
+            write(value.id().objectIdentifier.objectNumber() + " "
+                    + value.id().objectIdentifier.generation() + " R", out);
+        }
+        else if (value instanceof COSStream)
+        {
+            throw new IOException("Streams are not supported in xref index trailer");
+        }
+        else if (value instanceof COSDictionary)
+        {
+            write("<<", out);
+            for (Map.Entry<COSName, COSBase> entry : ((COSDictionary) value).entrySet())
+            {
+                write(entry.getKey(), out);
+                write(" ", out);
+                write(entry.getValue(), out);
+                write(" ", out);
+            }
+            write(">>", out);
+        }
+        else if (value instanceof COSArray)
+        {
+            write("[", out);
+            for (COSBase item : (COSArray) value)
+            {
+                write(item, out);
+                write(" ", out);
+            }
+            write("]", out);
+        }
+        else if (value instanceof COSName)
+        {
+            out.write('/');
+            for (byte b : ((COSName) value).getName().getBytes(StandardCharsets.UTF_8))
+            {
+                int current = b & 0xFF;
+                if ((current >= 'a' && current <= 'z') || (current >= 'A' && current <= 'Z')
+                        || (current >= '0' && current <= '9'))
+                {
+                    out.write(b);
+                }
+                else
+                {
+                    out.write('#');
+                    out.write(Hex.getBytes(b));
+                }
+            }
+        }
+        else if (value instanceof COSString)
+        {
+            write("<" + ((COSString) value).toHexString() + ">", out);
+        }
+        else if (value instanceof COSInteger || value instanceof COSFloat
+                || value instanceof COSBoolean)
+        {
+            write(value.toString(), out);
+        }
+        else if (isNull(value) || value instanceof COSNull)
+        {
+            write("null", out);
+        }
+        else
+        {
+            throw new IOException("Unsupported type in xref index trailer " + value.getClass());
+        }
+    }
+
+    private static void write(String value, ByteArrayOutputStream out) throws IOException
+    {
+        out.write(value.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static long lastModified(COSParser parser) throws IOException
+    {
+        return Files.getLastModifiedTime(Paths.get(parser.source().id())).toMillis();
+    }
+
+    /**
+     * @return the checksum of the content of the source, a hash of its first and last bytes
+     */
+    private static byte[] checksum(COSParser parser) throws IOException
+    {
+        long length = parser.length();
+        int sampleLength = (int) Math.min(length, SAMPLE_LENGTH);
+        byte[] samples = new byte[sampleLength * 2];
+        long position = parser.position();
+        try
+        {
+            read(parser, 0, ByteBuffer.wrap(samples, 0, sampleLength));
+            read(parser, length - sampleLength,
+                    ByteBuffer.wrap(samples, sampleLength, sampleLength));
+        }
+        finally
+        {
+            parser.position(position);
+        }
+        return digest(samples, 0, samples.length);
+    }
+
+    private static void read(COSParser parser, long position, ByteBuffer buffer) throws IOException
+    {
+        parser.position(position);
+        while (buffer.hasRemaining() && parser.source().read(buffer) > 0)
+        {
+            // keep reading
+        }
+    }
+
+    private static byte[] digest(byte[] bytes, int offset, int length) throws IOException
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST);
+            digest.update(bytes, offset, length);
+            return digest.digest();
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+    private static int digestLength() throws IOException
+    {
+        try
+        {
+            return MessageDigest.getInstance(DIGEST).getDigestLength();
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Creates the given directory, if missing, accessible by the owner only where POSIX permissions are supported
+     */
+    private static void createDirectory(Path directory) throws IOException
+    {
+        if (!Files.isDirectory(directory))
+        {
+            if (directory.getFileSystem().supportedFileAttributeViews().contains("posix"))
+            {
+                Files.createDirectories(directory, PosixFilePermissions
+                        .asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            }
+            else
+            {
+                Files.createDirectories(directory);
+            }
+        }
+    }
+
+    /**
+     * @return true if the given path is owned by the current user and, where POSIX permissions are supported, it's not
+     * writable by the group or others
+     */
+    private static boolean isTrusted(Path path) throws IOException
+    {
+        UserPrincipal user = path.getFileSystem().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+        if (!user.equals(Files.getOwner(path, LinkOption.NOFOLLOW_LINKS)))
+        {
+            return false;
+        }
+        PosixFileAttributeView posix = Files.getFileAttributeView(path,
+                PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+        if (nonNull(posix))
+        {
+            Set<PosixFilePermission> permissions = posix.readAttributes().permissions();
+            return !permissions.contains(PosixFilePermission.GROUP_WRITE)
+                    && !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+        }
+        return true;
+    }
+
+    /**
+     * @return the index file for the source of the given parser or an empty optional if the source is not backed by a
+     * file
+     */
+    private static Optional<Path> indexFileFor(COSParser parser)
+            throws IOException
+    {
+        Path file;
+        try
+        {
+            file = Paths.get(parser.source().id());
+        }
+        catch (RuntimeException e)
+        {
+            return Optional.empty();
+        }
+        if (!Files.isRegularFile(file))
+        {
+            return Optional.empty();
+        }
+        Path directory = Paths.get(System.getProperty(SAMBox.XREF_INDEX_DIRECTORY_PROPERTY,
+                Paths.get(System.getProperty("user.home"), ".sambox", "xref-index").toString()));
+        byte[] path = file.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8);
+        return Optional.of(
+                directory.resolve(Hex.getString(digest(path, 0, path.length)) + EXTENSION));
+    }
+}
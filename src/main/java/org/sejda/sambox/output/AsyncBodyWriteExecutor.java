@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.output;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Holds an optional application wide {@link Executor} used to write documents with {@link WriteOption#ASYNC_BODY_WRITE}.
+ * When set, objects of every document written asynchronously are written by tasks submitted to the given executor
+ * (objects of a single document are still written in order, one at a time) instead of using a new thread per written
+ * document. This allows to write many documents concurrently with a predictable number of threads.
+ * <p>
+ * The executor shouldn't be the same one running the tasks that write the documents, unless it can create new threads
+ * when needed (Ex. a virtual threads executor), since a document writing task waits for the executor to make room in
+ * the queue of objects to write, see {@link org.sejda.sambox.SAMBox#ASYNC_WRITE_QUEUE_SIZE_PROPERTY}.
+ * </p>
+ * 
+ * @author Andrea Vacondio
+ */
+public final class AsyncBodyWriteExecutor
+{
+    private static volatile Executor executor;
+
+    private AsyncBodyWriteExecutor()
+    {
+        // hide
+    }
+
+    /**
+     * Sets the executor to use for documents written from now on
+     * 
+     * @param executor the executor or null to go back to a new thread per written document
+     */
+    public static void set(Executor executor)
+    {
+        AsyncBodyWriteExecutor.executor = executor;
+    }
+
+    /**
+     * @return the executor to use, if set
+     */
+    public static Optional<Executor> get()
+    {
+        return Optional.ofNullable(executor);
+    }
+}
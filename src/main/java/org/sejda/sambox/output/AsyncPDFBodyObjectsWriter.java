@@ -16,22 +16,37 @@
  */
 package org.sejda.sambox.output;
 
+import static java.util.Objects.nonNull;
+import static org.sejda.commons.util.RequireUtils.requireArg;
 import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
 
 import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.cos.IndirectCOSObjectReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Implementation of a PDFBodyObjectsWriter that asynchronously writes {@link IndirectCOSObjectReference}. Objects are
- * written submitting a task to a single thread executor service.
+ * queued and written, in order, by a task submitted to an executor. The executor is the one set using
+ * {@link AsyncBodyWriteExecutor} or a single thread executor owned by this writer if none is set. When the queue is
+ * full (see {@link SAMBox#ASYNC_WRITE_QUEUE_SIZE_PROPERTY}) the caller waits for room to be available.
  * 
  * @author Andrea Vacondio
  *
@@ -40,29 +55,66 @@ class AsyncPDFBodyObjectsWriter implements PDFBodyObjectsWriter
 {
 
     private static final Logger LOG = LoggerFactory.getLogger(AsyncPDFBodyObjectsWriter.class);
+    // max number of tasks executed before giving the thread back to a shared executor
+    private static final int DRAIN_BATCH_SIZE = 512;
 
-    private ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory()
-    {
-        @Override
-        public Thread newThread(Runnable target)
-        {
-            return new Thread(null, target, "pdf-writer-thread", 0);
-        }
-    });
+    private ExecutorService ownExecutor;
+    private final Executor executor;
+    private final BlockingQueue<Runnable> queue;
+    private final AtomicBoolean draining = new AtomicBoolean(false);
     private AtomicReference<IOException> executionException = new AtomicReference<>();
     private IndirectObjectsWriter writer;
+    private int maxQueueDepth = 0;
+    private long stallNanos = 0;
 
     AsyncPDFBodyObjectsWriter(IndirectObjectsWriter writer)
+    {
+        this(writer, AsyncBodyWriteExecutor.get().orElse(null),
+                Integer.getInteger(SAMBox.ASYNC_WRITE_QUEUE_SIZE_PROPERTY, Integer.MAX_VALUE));
+    }
+
+    /**
+     * @param writer
+     * @param executor executor used to write the objects, if null a single thread executor is created and shutdown on
+     * close
+     * @param queueSize max number of objects waiting to be written
+     */
+    AsyncPDFBodyObjectsWriter(IndirectObjectsWriter writer, Executor executor, int queueSize)
     {
         requireNotNullArg(writer, "Cannot write to a null writer");
+        requireArg(queueSize > 0, "Queue size must be positive");
         this.writer = writer;
+        if (nonNull(executor))
+        {
+            this.executor = executor;
+        }
+        else
+        {
+            this.ownExecutor = Executors.newSingleThreadExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable target)
+                {
+                    return new Thread(null, target, "pdf-writer-thread", 0);
+                }
+            });
+            this.executor = ownExecutor;
+        }
+        if (queueSize == Integer.MAX_VALUE)
+        {
+            this.queue = new LinkedBlockingQueue<>();
+        }
+        else
+        {
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
     }
 
     @Override
     public void writeObject(IndirectCOSObjectReference ref) throws IOException
     {
         assertCanSubmitAsyncTask();
-        executor.execute(() -> {
+        enqueue(() -> {
             try
             {
                 if (executionException.get() == null)
@@ -81,12 +133,96 @@ class AsyncPDFBodyObjectsWriter implements PDFBodyObjectsWriter
         });
     }
 
+    private void enqueue(Runnable task) throws IOException
+    {
+        if (!queue.offer(task))
+        {
+            long start = System.nanoTime();
+            try
+            {
+                queue.put(task);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            finally
+            {
+                stallNanos += System.nanoTime() - start;
+            }
+        }
+        maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() throws IOException
+    {
+        if (draining.compareAndSet(false, true))
+        {
+            try
+            {
+                executor.execute(this::drain);
+            }
+            catch (RejectedExecutionException e)
+            {
+                draining.set(false);
+                throw new IOException("Unable to submit the writing task", e);
+            }
+        }
+    }
+
+    private void drain()
+    {
+        for (int i = 0; i < DRAIN_BATCH_SIZE; i++)
+        {
+            Runnable task = queue.poll();
+            if (task == null)
+            {
+                draining.set(false);
+                // something might have been queued after the poll and before we stopped draining
+                if (queue.isEmpty() || !draining.compareAndSet(false, true))
+                {
+                    return;
+                }
+            }
+            else
+            {
+                task.run();
+            }
+        }
+        try
+        {
+            // we give other tasks a chance to run
+            executor.execute(this::drain);
+        }
+        catch (RejectedExecutionException e)
+        {
+            executionException.compareAndSet(null,
+                    new IOException("Unable to submit the writing task", e));
+            Runnable task;
+            while ((task = queue.poll()) != null)
+            {
+                if (task instanceof Future)
+                {
+                    // someone might be waiting for it
+                    ((Future<?>) task).cancel(false);
+                }
+            }
+            draining.set(false);
+        }
+    }
+
     private void assertCanSubmitAsyncTask() throws IOException
     {
         IOException previous = executionException.get();
         if (previous != null)
         {
-            executor.shutdownNow();
+            queue.clear();
+            if (nonNull(ownExecutor))
+            {
+                ownExecutor.shutdownNow();
+            }
             throw previous;
         }
     }
@@ -95,32 +231,60 @@ class AsyncPDFBodyObjectsWriter implements PDFBodyObjectsWriter
     public void onWriteCompletion() throws IOException
     {
         assertCanSubmitAsyncTask();
+        FutureTask<Void> completion = new FutureTask<>(() -> {
+            IOException previous = executionException.get();
+            if (previous != null)
+            {
+                throw previous;
+            }
+            return null;
+        });
+        enqueue(completion);
         try
         {
-            executor.submit(() -> {
-                IOException previous = executionException.get();
-                if (previous != null)
-                {
-                    throw previous;
-                }
-                LOG.debug("Written document body");
-                return null;
-            }).get();
+            completion.get();
+            LOG.debug(
+                    "Written document body, max queue depth {}, waited {}ms for room in the queue",
+                    maxQueueDepth, TimeUnit.NANOSECONDS.toMillis(stallNanos));
         }
         catch (InterruptedException e)
         {
+            Thread.currentThread().interrupt();
             throw new IOException(e);
         }
         catch (ExecutionException e)
         {
             throw new IOException(e.getCause());
         }
+        catch (CancellationException e)
+        {
+            throw executionException.get();
+        }
 
     }
 
+    /**
+     * @return the max number of objects that have been waiting to be written
+     */
+    int maxQueueDepth()
+    {
+        return maxQueueDepth;
+    }
+
+    /**
+     * @return the time in nanoseconds spent waiting for room in the queue
+     */
+    long stallNanos()
+    {
+        return stallNanos;
+    }
+
     @Override
     public void close()
     {
-        executor.shutdown();
+        if (nonNull(ownExecutor))
+        {
+            ownExecutor.shutdown();
+        }
     }
 }
@@ -16,6 +16,7 @@
  */
 package org.sejda.sambox.output;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -39,6 +40,7 @@ import org.sejda.sambox.cos.IndirectCOSObjectReference;
  */
 public class ContentStreamWriter extends DefaultCOSWriter
 {
+    private static final int BULK_WRITE_THRESHOLD = 1024;
 
     public ContentStreamWriter(CountingWritableByteChannel channel)
     {
@@ -99,6 +101,35 @@ public class ContentStreamWriter extends DefaultCOSWriter
         writer().write(byteArray);
     }
 
+    /**
+     * Writes {@code length} bytes of the given array, starting from {@code offset}, without copying them.
+     * 
+     * @param byteArray
+     * @param offset
+     * @param length
+     * @throws IOException
+     */
+    public void writeContent(byte[] byteArray, int offset, int length) throws IOException
+    {
+        if (offset == 0 && length == byteArray.length)
+        {
+            writer().write(byteArray);
+        }
+        else if (length > BULK_WRITE_THRESHOLD)
+        {
+            // the writer has no ranged write, it flushes and then copies the stream to the channel in bulk
+            writer().write(new ByteArrayInputStream(byteArray, offset, length));
+        }
+        else
+        {
+            // short slices (ex. operands) are buffered, not worth a flush
+            for (int i = offset; i < offset + length; i++)
+            {
+                writer().write(byteArray[i]);
+            }
+        }
+    }
+
     public void writeEOL() throws IOException
     {
         writer().writeEOL();
@@ -117,7 +117,7 @@ public class IncrementablePDDocumentWriter implements Closeable
     private void writeBody(IncrementablePDDocument document) throws IOException
     {
         try (PDFBodyWriter bodyWriter = new IncrementalPDFBodyWriter(context,
-                objectStreamWriter(objectsWriter())))
+                compressionWriter(objectStreamWriter(objectsWriter()))))
         {
             LOG.debug("Writing body using " + bodyWriter.objectsWriter.getClass());
             bodyWriter.write(document);
@@ -143,6 +143,15 @@ public class IncrementablePDDocumentWriter implements Closeable
         return wrapped;
     }
 
+    private PDFBodyObjectsWriter compressionWriter(PDFBodyObjectsWriter wrapped)
+    {
+        if (context.hasWriteOption(WriteOption.PARALLEL_COMPRESS_STREAMS))
+        {
+            return new ParallelCompressionPDFBodyObjectsWriter(wrapped);
+        }
+        return wrapped;
+    }
+
     private void writeXref(IncrementablePDDocument document) throws IOException
     {
         if (context.hasWriteOption(WriteOption.XREF_STREAM)
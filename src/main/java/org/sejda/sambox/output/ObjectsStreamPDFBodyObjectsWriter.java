@@ -16,15 +16,24 @@
  */
 package org.sejda.sambox.output;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
 import static org.sejda.sambox.cos.DirectCOSObject.asDirectObject;
 import static org.sejda.sambox.util.CharUtils.ASCII_SPACE;
+import static org.sejda.sambox.util.ConcurrentUtils.await;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.zip.DeflaterInputStream;
 
 import org.sejda.commons.FastByteArrayOutputStream;
@@ -37,13 +46,16 @@ import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.cos.DisposableCOSObject;
 import org.sejda.sambox.cos.IndirectCOSObjectReference;
 import org.sejda.sambox.cos.NonStorableInObjectStreams;
+import org.sejda.sambox.util.ScratchBuffer;
 import org.sejda.sambox.xref.CompressedXrefEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Implementation of a PDFBodyObjectsWriter where objects are written to an ObjectsStream and later the ObjectsStream is
- * written as COSStream using the delegate {@link PDFBodyObjectsWriter}
+ * written as COSStream using the delegate {@link PDFBodyObjectsWriter}. When writing with
+ * {@link WriteOption#PARALLEL_COMPRESS_STREAMS}, full ObjectsStreams are compressed using the
+ * {@link StreamsCompressionExecutor} while the next ones are filled and they are handed to the delegate in the order they have been created.
  * 
  * @author Andrea Vacondio
  */
@@ -55,6 +67,10 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
     private PDFWriteContext context;
     private PDFBodyObjectsWriter delegate;
     private ObjectsStream currentStream;
+    private final Queue<IndirectCOSObjectReference> pending = new LinkedList<>();
+    private Executor compressor;
+    private int maxCompressing;
+    private int compressing = 0;
 
     public ObjectsStreamPDFBodyObjectsWriter(PDFWriteContext context, PDFBodyObjectsWriter delegate)
     {
@@ -62,6 +78,11 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
         requireNotNullArg(delegate, "Delegate writer cannot be null");
         this.context = context;
         this.delegate = delegate;
+        if (context.hasWriteOption(WriteOption.PARALLEL_COMPRESS_STREAMS))
+        {
+            this.compressor = StreamsCompressionExecutor.get();
+            this.maxCompressing = StreamsCompressionExecutor.compressionWorkers() * 2;
+        }
         currentStream = new ObjectsStream(context);
         context.createIndirectReferenceFor(currentStream);
     }
@@ -72,7 +93,7 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
         if (ref instanceof NonStorableInObjectStreams
                 || ref.getCOSObject().getCOSObject() instanceof COSStream)
         {
-            delegate.writeObject(ref);
+            writeToDelegate(ref);
         }
         else
         {
@@ -100,9 +121,52 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
         IndirectCOSObjectReference length = context
                 .createNonStorableInObjectStreamIndirectReference();
         currentStream.setItem(COSName.LENGTH, length);
-        delegate.writeObject(ref);
+        if (nonNull(compressor))
+        {
+            currentStream.compress(compressor);
+            compressing++;
+        }
+        writeToDelegate(ref);
         LOG.trace("Writing object stream length {}", length);
-        delegate.writeObject(length);
+        writeToDelegate(length);
+    }
+
+    /**
+     * Writes the given ref using the delegate. When compressing in parallel, refs are queued and written in order once
+     * the ObjectsStreams ahead of them are compressed.
+     */
+    private void writeToDelegate(IndirectCOSObjectReference ref) throws IOException
+    {
+        if (isNull(compressor))
+        {
+            delegate.writeObject(ref);
+        }
+        else
+        {
+            pending.add(ref);
+            while (nonNull(pending.peek())
+                    && (compressing > maxCompressing || isReady(pending.peek())))
+            {
+                writeNextPending();
+            }
+        }
+    }
+
+    private static boolean isReady(IndirectCOSObjectReference ref)
+    {
+        return !(ref.getCOSObject() instanceof ObjectsStream)
+                || ((ObjectsStream) ref.getCOSObject()).isCompressed();
+    }
+
+    private void writeNextPending() throws IOException
+    {
+        IndirectCOSObjectReference ref = pending.poll();
+        if (ref.getCOSObject() instanceof ObjectsStream)
+        {
+            ((ObjectsStream) ref.getCOSObject()).awaitCompression();
+            compressing--;
+        }
+        delegate.writeObject(ref);
     }
 
     @Override
@@ -112,6 +176,10 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
         {
             doWriteObjectsStream();
         }
+        while (!pending.isEmpty())
+        {
+            writeNextPending();
+        }
         // complete writing
         delegate.onWriteCompletion();
     }
@@ -119,6 +187,9 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
     @Override
     public void close() throws IOException
     {
+        // pending compressions complete and are released
+        pending.forEach(IndirectCOSObjectReference::releaseCOSObject);
+        pending.clear();
         IOUtils.close(delegate);
         currentStream = null;
     }
@@ -127,9 +198,11 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
     {
         private int counter;
         private FastByteArrayOutputStream header = new FastByteArrayOutputStream();
-        private FastByteArrayOutputStream data = new FastByteArrayOutputStream();
+        private ScratchBuffer data = new ScratchBuffer();
         private DefaultCOSWriter dataWriter;
         private InputStream filtered;
+        private ScratchBuffer compressed;
+        private Future<?> compression;
 
         public ObjectsStream(PDFWriteContext context)
         {
@@ -172,7 +245,9 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
 
         boolean isFull()
         {
-            return counter >= Integer.getInteger(SAMBox.OBJECTS_STREAM_SIZE_PROPERTY, 100);
+            return counter >= Integer.getInteger(SAMBox.OBJECTS_STREAM_SIZE_PROPERTY, 100)
+                    || dataWriter.writer().offset() >= Long
+                            .getLong(SAMBox.OBJECTS_STREAM_MAX_BYTES_PROPERTY, Long.MAX_VALUE);
         }
 
         @Override
@@ -181,30 +256,108 @@ public class ObjectsStreamPDFBodyObjectsWriter implements PDFBodyObjectsWriter
             return this.filtered;
         }
 
-        void prepareForWriting()
+        void prepareForWriting() throws IOException
         {
             IOUtils.closeQuietly(dataWriter);
+            data.close();
             setItem(COSName.N, asDirectObject(COSInteger.get(counter)));
             setItem(COSName.FIRST, asDirectObject(COSInteger.get(header.size())));
             setItem(COSName.FILTER, asDirectObject(COSName.FLATE_DECODE));
             this.filtered = new DeflaterInputStream(
-                    new SequenceInputStream(new ByteArrayInputStream(header.toByteArray()),
-                            new ByteArrayInputStream(data.toByteArray())));
+                    new SequenceInputStream(header.getInputStream(), data.asInputStream()));
             this.header = null;
-            this.data = null;
+        }
+
+        /**
+         * Compresses the stream data using the given executor, once completed the stream is written using the
+         * compressed data. It has to be called after {@link #prepareForWriting()}.
+         * 
+         * @param executor
+         */
+        void compress(Executor executor)
+        {
+            InputStream toCompress = this.filtered;
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                ScratchBuffer buffer = new ScratchBuffer();
+                try (InputStream in = toCompress)
+                {
+                    IOUtils.copy(in, buffer);
+                    buffer.close();
+                }
+                catch (IOException e)
+                {
+                    buffer.release();
+                    throw e;
+                }
+                releaseData();
+                this.compressed = buffer;
+                return null;
+            });
+            this.compression = task;
+            executor.execute(task);
+        }
+
+        boolean isCompressed()
+        {
+            return nonNull(compression) && compression.isDone();
+        }
+
+        void awaitCompression() throws IOException
+        {
+            await(compression);
+            this.filtered = compressed.asInputStream();
         }
 
         @Override
         public void close() throws IOException
         {
+            releaseCompressed();
             IOUtils.closeQuietly(filtered);
+            releaseData();
             super.close();
         }
 
         @Override
         public void releaseCOSObject()
         {
+            releaseCompressed();
+            IOUtils.closeQuietly(filtered);
             this.filtered = null;
+            releaseData();
+        }
+
+        private void releaseData()
+        {
+            if (data != null)
+            {
+                data.release();
+                data = null;
+            }
+        }
+
+        private void releaseCompressed()
+        {
+            if (nonNull(compression) && !compression.isDone())
+            {
+                // still compressing, we can only wait
+                try
+                {
+                    compression.get();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                catch (ExecutionException | CancellationException e)
+                {
+                    // nothing to release
+                }
+            }
+            if (compressed != null)
+            {
+                compressed.release();
+                compressed = null;
+            }
         }
     }
 }
@@ -90,7 +90,7 @@ public class PDDocumentWriter implements Closeable
     private void writeBody(COSDocument document) throws IOException
     {
         try (PDFBodyWriter bodyWriter = new PDFBodyWriter(context,
-                objectStreamWriter(objectsWriter())))
+                compressionWriter(objectStreamWriter(objectsWriter()))))
         {
             LOG.debug("Writing body using " + bodyWriter.objectsWriter.getClass());
             bodyWriter.write(document);
@@ -115,6 +115,15 @@ public class PDDocumentWriter implements Closeable
         return wrapped;
     }
 
+    private PDFBodyObjectsWriter compressionWriter(PDFBodyObjectsWriter wrapped)
+    {
+        if (context.hasWriteOption(WriteOption.PARALLEL_COMPRESS_STREAMS))
+        {
+            return new ParallelCompressionPDFBodyObjectsWriter(wrapped);
+        }
+        return wrapped;
+    }
+
     private void writeXref(PDDocument document) throws IOException
     {
         if (context.hasWriteOption(WriteOption.XREF_STREAM)
@@ -163,7 +163,8 @@ class PDFBodyWriter implements COSVisitor, Closeable
     public void visit(COSStream value) throws IOException
     {
         value.removeItem(COSName.LENGTH);
-        if (context.hasWriteOption(WriteOption.COMPRESS_STREAMS))
+        if (context.hasWriteOption(WriteOption.COMPRESS_STREAMS)
+                || context.hasWriteOption(WriteOption.PARALLEL_COMPRESS_STREAMS))
         {
             value.addCompression();
         }
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.output;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.sejda.commons.util.RequireUtils.requireArg;
+import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
+import static org.sejda.sambox.util.ConcurrentUtils.await;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.sejda.commons.util.IOUtils;
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.IndirectCOSObjectReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link PDFBodyObjectsWriter} that encodes streams using the {@link StreamsCompressionExecutor} before handing them to
+ * the wrapped writer. Objects are handed to the wrapped writer in the same order they are received, waiting for the stream encoding
+ * to complete when necessary, so the output is the same as the one obtained without this writer. Up to a given number
+ * of streams are encoded ahead of the writing, see {@link SAMBox#STREAMS_COMPRESSION_WORKERS_PROPERTY}.
+ * 
+ * @author Andrea Vacondio
+ */
+class ParallelCompressionPDFBodyObjectsWriter implements PDFBodyObjectsWriter
+{
+    private static final Logger LOG = LoggerFactory
+            .getLogger(ParallelCompressionPDFBodyObjectsWriter.class);
+
+    private final Queue<PendingObject> pending = new LinkedList<>();
+    private final Executor executor;
+    private final PDFBodyObjectsWriter wrapped;
+    private final int maxInFlight;
+    private int inFlight = 0;
+
+    ParallelCompressionPDFBodyObjectsWriter(PDFBodyObjectsWriter wrapped)
+    {
+        this(wrapped, StreamsCompressionExecutor.get(),
+                StreamsCompressionExecutor.compressionWorkers());
+    }
+
+    /**
+     * @param wrapped
+     * @param executor executor running the compression tasks
+     * @param workers number of threads expected to compress, used to limit the streams encoded ahead of the writing
+     */
+    ParallelCompressionPDFBodyObjectsWriter(PDFBodyObjectsWriter wrapped, Executor executor,
+            int workers)
+    {
+        requireNotNullArg(wrapped, "Wrapped writer cannot be null");
+        requireNotNullArg(executor, "Executor cannot be null");
+        requireArg(workers > 0, "Number of workers must be positive");
+        this.wrapped = wrapped;
+        // we keep the workers busy while the first stream in line is written
+        this.maxInFlight = workers * 2;
+        this.executor = executor;
+    }
+
+    @Override
+    public void writeObject(IndirectCOSObjectReference ref) throws IOException
+    {
+        Future<?> encoding = null;
+        COSBase object = ref.getCOSObject().getCOSObject();
+        if (object instanceof COSStream)
+        {
+            COSStream stream = (COSStream) object;
+            // encoding happens when the filtered length is requested for the first time
+            FutureTask<Long> task = new FutureTask<>(stream::getFilteredLength);
+            executor.execute(task);
+            encoding = task;
+            inFlight++;
+        }
+        pending.add(new PendingObject(ref, encoding));
+        while (nonNull(pending.peek()) && (inFlight > maxInFlight || pending.peek().isReady()))
+        {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException
+    {
+        PendingObject next = pending.poll();
+        if (nonNull(next.encoding))
+        {
+            inFlight--;
+            await(next.encoding);
+        }
+        wrapped.writeObject(next.ref);
+    }
+
+    @Override
+    public void onWriteCompletion() throws IOException
+    {
+        while (!pending.isEmpty())
+        {
+            writeNext();
+        }
+        LOG.debug("Compressed streams written");
+        wrapped.onWriteCompletion();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        // the executor is shared, we only cancel what's not started yet
+        pending.stream().filter(p -> nonNull(p.encoding)).forEach(p -> p.encoding.cancel(false));
+        pending.clear();
+        IOUtils.close(wrapped);
+    }
+
+    private static class PendingObject
+    {
+        private final IndirectCOSObjectReference ref;
+        private final Future<?> encoding;
+
+        PendingObject(IndirectCOSObjectReference ref, Future<?> encoding)
+        {
+            this.ref = ref;
+            this.encoding = encoding;
+        }
+
+        boolean isReady()
+        {
+            return isNull(encoding) || encoding.isDone();
+        }
+    }
+}
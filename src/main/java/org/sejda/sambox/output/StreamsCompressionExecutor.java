@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.output;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sejda.sambox.SAMBox;
+
+/**
+ * Holds the {@link Executor} used to compress streams and objects streams of documents written with
+ * {@link WriteOption#PARALLEL_COMPRESS_STREAMS}. Unless a different one is set, this is an application wide pool of
+ * daemon threads shared by every document written, sized with {@link SAMBox#STREAMS_COMPRESSION_WORKERS_PROPERTY} and
+ * created the first time it's needed. This way writing many documents concurrently doesn't multiply the number of
+ * threads.
+ * <p>
+ * The executor shouldn't be the same one running the tasks that write the documents or the one set in
+ * {@link AsyncBodyWriteExecutor}, unless it can create new threads when needed (Ex. a virtual threads executor), since
+ * writing a document waits for the compression tasks to complete.
+ * </p>
+ * 
+ * @author Andrea Vacondio
+ */
+public final class StreamsCompressionExecutor
+{
+    private static volatile Executor executor;
+
+    private StreamsCompressionExecutor()
+    {
+        // hide
+    }
+
+    /**
+     * Sets the executor to use for documents written from now on
+     * 
+     * @param executor the executor or null to go back to the default shared pool
+     */
+    public static void set(Executor executor)
+    {
+        StreamsCompressionExecutor.executor = executor;
+    }
+
+    /**
+     * @return the executor to use
+     */
+    public static Executor get()
+    {
+        Executor current = executor;
+        if (current == null)
+        {
+            return DefaultPool.EXECUTOR;
+        }
+        return current;
+    }
+
+    /**
+     * @return the number of compression threads configured with {@link SAMBox#STREAMS_COMPRESSION_WORKERS_PROPERTY}
+     */
+    static int compressionWorkers()
+    {
+        return Integer.getInteger(SAMBox.STREAMS_COMPRESSION_WORKERS_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    private static class DefaultPool
+    {
+        static final Executor EXECUTOR = newPool(compressionWorkers());
+
+        private static Executor newPool(int workers)
+        {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), target -> {
+                        Thread thread = new Thread(null, target,
+                                "pdf-compression-thread-" + counter.incrementAndGet(), 0);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // threads go away when no document is being written
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+}
@@ -38,5 +38,12 @@ public enum WriteOption
     /**
      * Adds a Flate filter to the streams if not already there
      */
-    COMPRESS_STREAMS;
+    COMPRESS_STREAMS,
+    /**
+     * Same as {@link #COMPRESS_STREAMS} but streams are compressed on a pool of threads ahead of being written. The
+     * written document is the same as the one written using {@link #COMPRESS_STREAMS}.
+     * 
+     * @see org.sejda.sambox.SAMBox#STREAMS_COMPRESSION_WORKERS_PROPERTY
+     */
+    PARALLEL_COMPRESS_STREAMS;
 }
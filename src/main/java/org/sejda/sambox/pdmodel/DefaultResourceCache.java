@@ -17,35 +17,40 @@
 
 package org.sejda.sambox.pdmodel;
 
+import java.awt.image.BufferedImage;
 import java.lang.ref.SoftReference;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
 import org.sejda.sambox.pdmodel.documentinterchange.markedcontent.PDPropertyList;
 import org.sejda.sambox.pdmodel.font.PDFont;
 import org.sejda.sambox.pdmodel.graphics.PDXObject;
 import org.sejda.sambox.pdmodel.graphics.color.PDColorSpace;
+import org.sejda.sambox.pdmodel.graphics.image.DecodedImageCache;
 import org.sejda.sambox.pdmodel.graphics.pattern.PDAbstractPattern;
 import org.sejda.sambox.pdmodel.graphics.shading.PDShading;
 import org.sejda.sambox.pdmodel.graphics.state.PDExtendedGraphicsState;
 
 /**
  * A resource cached based on SoftReference, retains resources until memory pressure causes them to be garbage
- * collected.
+ * collected. Decoded images are softly referenced by a memory bounded {@link DecodedImageCache}. It can be used by
+ * multiple threads.
  *
  * @author John Hewson
  */
 public class DefaultResourceCache implements ResourceCache
 {
-    private final Map<COSObjectKey, SoftReference<PDFont>> fonts = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDColorSpace>> colorSpaces = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDXObject>> xobjects = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDExtendedGraphicsState>> extGStates = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDShading>> shadings = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDAbstractPattern>> patterns = new HashMap<>();
-    private final Map<COSObjectKey, SoftReference<PDPropertyList>> properties = new HashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDFont>> fonts = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDColorSpace>> colorSpaces = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDXObject>> xobjects = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDExtendedGraphicsState>> extGStates = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDShading>> shadings = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDAbstractPattern>> patterns = new ConcurrentHashMap<>();
+    private final Map<COSObjectKey, SoftReference<PDPropertyList>> properties = new ConcurrentHashMap<>();
+    private final DecodedImageCache decodedImages = new DecodedImageCache();
 
     @Override
     public PDFont getFont(COSObjectKey key)
@@ -56,7 +61,10 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObjectKey key, PDFont font)
     {
-        fonts.put(key, new SoftReference<>(font));
+        if (key != null)
+        {
+            fonts.put(key, new SoftReference<>(font));
+        }
     }
 
     @Override
@@ -68,7 +76,10 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObjectKey key, PDColorSpace colorSpace)
     {
-        colorSpaces.put(key, new SoftReference<>(colorSpace));
+        if (key != null)
+        {
+            colorSpaces.put(key, new SoftReference<>(colorSpace));
+        }
     }
 
     @Override
@@ -80,7 +91,10 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObjectKey key, PDExtendedGraphicsState extGState)
     {
-        extGStates.put(key, new SoftReference<>(extGState));
+        if (key != null)
+        {
+            extGStates.put(key, new SoftReference<>(extGState));
+        }
     }
 
     @Override
@@ -92,7 +106,10 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObjectKey key, PDShading shading)
     {
-        shadings.put(key, new SoftReference<>(shading));
+        if (key != null)
+        {
+            shadings.put(key, new SoftReference<>(shading));
+        }
     }
 
     @Override
@@ -104,7 +121,10 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObjectKey key, PDAbstractPattern pattern)
     {
-        patterns.put(key, new SoftReference<>(pattern));
+        if (key != null)
+        {
+            patterns.put(key, new SoftReference<>(pattern));
+        }
     }
 
     @Override
@@ -116,7 +136,10 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObjectKey key, PDPropertyList propertyList)
     {
-        properties.put(key, new SoftReference<>(propertyList));
+        if (key != null)
+        {
+            properties.put(key, new SoftReference<>(propertyList));
+        }
     }
 
     @Override
@@ -128,7 +151,30 @@ public class DefaultResourceCache implements ResourceCache
     @Override
     public void put(COSObjectKey key, PDXObject xobject)
     {
-        xobjects.put(key, new SoftReference<>(xobject));
+        if (key != null)
+        {
+            xobjects.put(key, new SoftReference<>(xobject));
+        }
+    }
+
+    @Override
+    public BufferedImage getDecodedImage(IndirectCOSObjectIdentifier xobject, int subsampling)
+    {
+        if (xobject != null)
+        {
+            return decodedImages.get(xobject, subsampling);
+        }
+        return null;
+    }
+
+    @Override
+    public void putDecodedImage(IndirectCOSObjectIdentifier xobject, int subsampling,
+            BufferedImage image)
+    {
+        if (xobject != null)
+        {
+            decodedImages.put(xobject, subsampling, image);
+        }
     }
 
     @Override
@@ -141,5 +187,6 @@ public class DefaultResourceCache implements ResourceCache
         properties.clear();
         shadings.clear();
         xobjects.clear();
+        decodedImages.clear();
     }
 }
@@ -1448,7 +1448,7 @@ abstract class PDAbstractContentStream implements Closeable
         }
         else
         {
-            writer.writeContent(formatBuffer);
+            writer.writeContent(formatBuffer, 0, byteCount);
         }
         writer.writeSpace();
     }
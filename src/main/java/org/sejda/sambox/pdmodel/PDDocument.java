@@ -35,10 +35,10 @@ import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.Calendar;
-import java.util.HashSet;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.fontbox.ttf.TrueTypeFont;
 import org.sejda.commons.util.IOUtils;
@@ -112,8 +112,8 @@ public class PDDocument implements Closeable
     private OnBeforeWrite onBeforeWrite = () -> LOG.trace("About to write document");
     private ResourceCache resourceCache = new DefaultResourceCache();
 
-    // fonts to subset before saving
-    private final Set<Subsettable> fontsToSubset = new HashSet<>();
+    // fonts to subset before saving, concurrent since appearances can be generated concurrently
+    private final Set<Subsettable> fontsToSubset = ConcurrentHashMap.newKeySet();
 
     public PDDocument()
     {
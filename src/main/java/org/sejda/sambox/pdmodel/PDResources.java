@@ -16,14 +16,18 @@
  */
 package org.sejda.sambox.pdmodel;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
 
 import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
@@ -58,7 +62,10 @@ public final class PDResources implements COSObjectable
 
     // PDFBOX-3442 cache fonts that are not indirect objects, as these aren't cached in ResourceCache
     // and this would result in huge memory footprint in text extraction
-    private final Map<COSName, SoftReference<PDFont>> directFontCache = new HashMap<>();
+    private final Map<COSName, SoftReference<PDFont>> directFontCache = new ConcurrentHashMap<>();
+
+    // reverse index of the resources by kind, so that adding many resources doesn't scan the whole dictionary every time
+    private final Map<COSName, ResourceNames> names = new HashMap<>();
 
     /**
      * Constructor for embedding.
@@ -126,7 +133,7 @@ public final class PDResources implements COSObjectable
                 return cached;
             }
         }
-        else if (key == null)
+        else if (key == null && name != null)
         {
             SoftReference<PDFont> ref = directFontCache.get(name);
             if (ref != null)
@@ -150,7 +157,7 @@ public final class PDResources implements COSObjectable
         {
             cache.put(key, font);
         }
-        else if (key == null)
+        else if (key == null && name != null)
         {
             directFontCache.put(name, new SoftReference<>(font));
         }
@@ -422,7 +429,12 @@ public final class PDResources implements COSObjectable
         return xobject;
     }
 
-    private boolean isAllowedCache(PDXObject xobject)
+    /**
+     * @param xobject
+     * @return true if the given XObject, or its decoded image, can be cached in the document wide
+     * {@link ResourceCache}, that is if it doesn't depend on these resources
+     */
+    public boolean isAllowedCache(PDXObject xobject)
     {
         if (xobject instanceof PDImageXObject)
         {
@@ -667,36 +679,38 @@ public final class PDResources implements COSObjectable
      */
     private COSName add(COSName kind, String prefix, COSObjectable object)
     {
-        // return the existing key if the item exists already
         COSDictionary dict = resources.getDictionaryObject(kind, COSDictionary.class);
-        return Optional.ofNullable(dict).map(d -> d.getKeyForValue(object.getCOSObject()))
-                .orElseGet(() -> {
-                    COSName name = createKey(kind, prefix);
-                    put(kind, name, object);
-                    return name;
-                });
+        if (dict == null)
+        {
+            dict = new COSDictionary();
+            resources.setItem(kind, dict);
+        }
+        // return the existing key if the item exists already
+        ResourceNames kindNames = names(kind, dict);
+        COSBase value = object.getCOSObject();
+        COSName name = kindNames.nameOf(value);
+        if (isNull(name))
+        {
+            name = kindNames.nextName(prefix);
+            dict.setItem(name, object);
+            kindNames.added(name, value);
+        }
+        return name;
     }
 
     /**
-     * Returns a unique key for a new resource.
+     * @return the names of the resources of the given kind, rebuilt if the dictionary changed without going through
+     * this instance
      */
-    private COSName createKey(COSName kind, String prefix)
+    private ResourceNames names(COSName kind, COSDictionary dict)
     {
-        COSDictionary dict = resources.getDictionaryObject(kind, COSDictionary.class);
-        if (dict == null)
+        ResourceNames kindNames = names.get(kind);
+        if (isNull(kindNames) || !kindNames.isInSync(dict))
         {
-            return COSName.getPDFName(prefix + 1);
+            kindNames = new ResourceNames(dict);
+            names.put(kind, kindNames);
         }
-
-        // find a unique key
-        String key;
-        int n = dict.keySet().size();
-        do
-        {
-            ++n;
-            key = prefix + n;
-        } while (dict.containsKey(key));
-        return COSName.getPDFName(key);
+        return kindNames;
     }
 
     /**
@@ -710,7 +724,92 @@ public final class PDResources implements COSObjectable
             dict = new COSDictionary();
             resources.setItem(kind, dict);
         }
-        dict.setItem(name, object);
+        ResourceNames kindNames = names.get(kind);
+        if (nonNull(kindNames) && kindNames.isInSync(dict) && isNull(dict.getItem(name))
+                && nonNull(object))
+        {
+            dict.setItem(name, object);
+            kindNames.added(name, object.getCOSObject());
+        }
+        else
+        {
+            // replacing or removing a resource, names will be rebuilt
+            dict.setItem(name, object);
+            names.remove(kind);
+        }
+    }
+
+    /**
+     * Identity based reverse index of the resources of a given kind with a counter to create new names. It's in sync
+     * with the dictionary as long as resources are only added through the owning {@link PDResources}.
+     */
+    private static final class ResourceNames
+    {
+        private final COSDictionary dict;
+        private final Map<COSBase, COSName> byValue = new IdentityHashMap<>();
+        private int size;
+        private int counter;
+
+        ResourceNames(COSDictionary dict)
+        {
+            this.dict = dict;
+            index();
+        }
+
+        private void index()
+        {
+            byValue.clear();
+            for (Map.Entry<COSName, COSBase> entry : dict.entrySet())
+            {
+                if (nonNull(entry.getValue()))
+                {
+                    byValue.putIfAbsent(entry.getValue().getCOSObject(), entry.getKey());
+                }
+            }
+            size = dict.size();
+            counter = size;
+        }
+
+        boolean isInSync(COSDictionary current)
+        {
+            return dict == current && size == current.size();
+        }
+
+        COSName nameOf(COSBase value)
+        {
+            COSName name = byValue.get(value);
+            if (nonNull(name))
+            {
+                COSBase current = dict.getItem(name);
+                if (isNull(current) || current.getCOSObject() != value)
+                {
+                    // replaced in the dictionary without going through the owning resources
+                    index();
+                    return byValue.get(value);
+                }
+            }
+            return name;
+        }
+
+        /**
+         * @return a unique key for a new resource
+         */
+        COSName nextName(String prefix)
+        {
+            String key;
+            do
+            {
+                ++counter;
+                key = prefix + counter;
+            } while (dict.containsKey(key));
+            return COSName.getPDFName(key);
+        }
+
+        void added(COSName name, COSBase value)
+        {
+            byValue.putIfAbsent(value, name);
+            size = dict.size();
+        }
     }
 
     /**
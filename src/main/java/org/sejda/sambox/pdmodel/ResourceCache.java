@@ -17,9 +17,11 @@
 
 package org.sejda.sambox.pdmodel;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 
 import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
 import org.sejda.sambox.pdmodel.documentinterchange.markedcontent.PDPropertyList;
 import org.sejda.sambox.pdmodel.font.PDFont;
 import org.sejda.sambox.pdmodel.graphics.PDXObject;
@@ -105,6 +107,24 @@ public interface ResourceCache
      */
     void put(COSObjectKey key, PDXObject xobject) throws IOException;
 
+    /**
+     * Returns the decoded image of the image XObject with the given identifier and subsampling, if it is in the cache.
+     * The image is shared by everyone drawing the XObject and must be treated as read only.
+     */
+    default BufferedImage getDecodedImage(IndirectCOSObjectIdentifier xobject, int subsampling)
+    {
+        return null;
+    }
+
+    /**
+     * Puts the given decoded image of the image XObject with the given identifier and subsampling in the cache.
+     */
+    default void putDecodedImage(IndirectCOSObjectIdentifier xobject, int subsampling,
+            BufferedImage image)
+    {
+        // nothing by default
+    }
+
     /**
      * Clears the cache
      */
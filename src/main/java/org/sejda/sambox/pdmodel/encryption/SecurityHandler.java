@@ -17,30 +17,24 @@
 
 package org.sejda.sambox.pdmodel.encryption;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 
-import javax.crypto.BadPaddingException;
-import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import javax.crypto.SecretKey;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
-
-import org.bouncycastle.crypto.engines.AESFastEngine;
+import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.engines.RC4Engine;
 import org.bouncycastle.crypto.io.CipherInputStream;
 import org.bouncycastle.crypto.modes.CBCBlockCipher;
 import org.bouncycastle.crypto.paddings.PaddedBufferedBlockCipher;
@@ -48,12 +42,14 @@ import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.sejda.commons.FastByteArrayOutputStream;
 import org.sejda.commons.util.IOUtils;
+import org.sejda.io.SeekableSource;
 import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.cos.COSString;
+import org.sejda.sambox.cos.StreamDecryptor;
 import org.sejda.sambox.pdmodel.PDDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,8 +76,17 @@ public abstract class SecurityHandler
     /** The encryption key that will used to encrypt / decrypt. */
     private byte[] encryptionKey;
 
-    /** The RC4 implementation used for cryptographic functions. */
-    private final RC4Cipher rc4 = new RC4Cipher();
+    /** The RC4 implementation used for cryptographic functions, one per thread since it's stateful. */
+    private final ThreadLocal<RC4Cipher> rc4 = ThreadLocal.withInitial(RC4Cipher::new);
+
+    /** Per thread AES cipher used to decrypt strings and in memory streams. */
+    private final ThreadLocal<AESDecipher> aes = ThreadLocal.withInitial(AESDecipher::new);
+
+    /** Per thread MD5 digest used to derive objects keys. */
+    private final ThreadLocal<MessageDigest> md5 = ThreadLocal.withInitial(MessageDigests::getMD5);
+
+    /** Per thread key of the last decrypted object, strings of the same object share it. */
+    private final ThreadLocal<ObjectKey> lastObjectKey = new ThreadLocal<>();
 
     /** indicates if the Metadata have to be decrypted of not. */
     private boolean decryptMetadata;
@@ -195,6 +200,19 @@ public abstract class SecurityHandler
      * @return the calculated key.
      */
     private byte[] calcFinalKey(long objectNumber, long genNumber)
+    {
+        ObjectKey last = lastObjectKey.get();
+        if (last != null && last.objectNumber == objectNumber && last.genNumber == genNumber
+                && last.useAES == useAES && last.encryptionKey == encryptionKey)
+        {
+            return last.finalKey;
+        }
+        byte[] finalKey = doCalcFinalKey(objectNumber, genNumber);
+        lastObjectKey.set(new ObjectKey(objectNumber, genNumber, useAES, encryptionKey, finalKey));
+        return finalKey;
+    }
+
+    private byte[] doCalcFinalKey(long objectNumber, long genNumber)
     {
         byte[] newKey = new byte[encryptionKey.length + 5];
         System.arraycopy(encryptionKey, 0, newKey, 0, encryptionKey.length);
@@ -208,7 +226,8 @@ public abstract class SecurityHandler
         newKey[newKey.length - 2] = (byte) (genNumber & 0xff);
         newKey[newKey.length - 1] = (byte) (genNumber >> 8 & 0xff);
         // step 3
-        MessageDigest md = MessageDigests.getMD5();
+        MessageDigest md = md5.get();
+        md.reset();
         md.update(newKey);
         if (useAES)
         {
@@ -234,8 +253,9 @@ public abstract class SecurityHandler
     protected void decryptDataRC4(byte[] finalKey, InputStream input, OutputStream output)
             throws IOException
     {
-        rc4.setKey(finalKey);
-        rc4.write(input, output);
+        RC4Cipher cipher = rc4.get();
+        cipher.setKey(finalKey);
+        cipher.write(input, output);
     }
 
     /**
@@ -250,8 +270,9 @@ public abstract class SecurityHandler
     protected void decryptDataRC4(byte[] finalKey, byte[] input, OutputStream output)
             throws IOException
     {
-        rc4.setKey(finalKey);
-        rc4.write(input, output);
+        RC4Cipher cipher = rc4.get();
+        cipher.setKey(finalKey);
+        cipher.write(input, output);
     }
 
     /**
@@ -279,30 +300,7 @@ public abstract class SecurityHandler
                     + " bytes read instead of " + iv.length);
         }
 
-        try
-        {
-            Cipher decryptCipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-
-            SecretKey aesKey = new SecretKeySpec(finalKey, "AES");
-            IvParameterSpec ips = new IvParameterSpec(iv);
-            decryptCipher.init(Cipher.DECRYPT_MODE, aesKey, ips);
-            byte[] buffer = new byte[256];
-            int n;
-            while ((n = data.read(buffer)) != -1)
-            {
-                byte[] update = decryptCipher.update(buffer, 0, n);
-                if (update != null)
-                {
-                    output.write(update);
-                }
-            }
-            output.write(decryptCipher.doFinal());
-        }
-        catch (InvalidKeyException | InvalidAlgorithmParameterException | IllegalBlockSizeException
-                | BadPaddingException | NoSuchAlgorithmException | NoSuchPaddingException e)
-        {
-            throw new IOException(e);
-        }
+        aes.get().decrypt(finalKey, iv, data, output);
     }
 
     /**
@@ -329,13 +327,7 @@ public abstract class SecurityHandler
             throw new IOException("AES initialization vector not fully read: only " + ivSize
                     + " bytes read instead of " + iv.length);
         }
-        PaddedBufferedBlockCipher cipher = new PaddedBufferedBlockCipher(
-                new CBCBlockCipher(new AESFastEngine()));
-        cipher.init(false, new ParametersWithIV(new KeyParameter(encryptionKey), iv));
-        try (CipherInputStream cis = new CipherInputStream(data, cipher))
-        {
-            IOUtils.copy(cis, output);
-        }
+        aes.get().decrypt(encryptionKey, iv, data, output);
     }
 
     /**
@@ -421,12 +413,284 @@ public abstract class SecurityHandler
                 }
             }
             decryptDictionary(stream, objNum, genNum);
-            byte[] encrypted = IOUtils.toByteArray(stream.getFilteredStream());
-            ByteArrayInputStream encryptedStream = new ByteArrayInputStream(encrypted);
-            try (OutputStream output = stream.createFilteredStream())
+            if (stream.hasSourceData())
+            {
+                // decrypted on demand
+                stream.setDecryptor(decryptorFor(objNum, genNum));
+            }
+            else
+            {
+                byte[] encrypted = IOUtils.toByteArray(stream.getFilteredStream());
+                ByteArrayInputStream encryptedStream = new ByteArrayInputStream(encrypted);
+                try (OutputStream output = stream.createFilteredStream())
+                {
+                    decryptData(objNum, genNum, encryptedStream, output);
+                }
+            }
+        }
+    }
+
+    /**
+     * Key derived for an object with the document key
+     */
+    private static class ObjectKey
+    {
+        private final long objectNumber;
+        private final long genNumber;
+        private final boolean useAES;
+        private final byte[] encryptionKey;
+        private final byte[] finalKey;
+
+        ObjectKey(long objectNumber, long genNumber, boolean useAES, byte[] encryptionKey,
+                byte[] finalKey)
+        {
+            this.objectNumber = objectNumber;
+            this.genNumber = genNumber;
+            this.useAES = useAES;
+            this.encryptionKey = encryptionKey;
+            this.finalKey = finalKey;
+        }
+    }
+
+    /**
+     * AES/CBC/PKCS5 decryption reusing the same cipher and, when the key doesn't change, the same key schedule
+     */
+    private static class AESDecipher
+    {
+        private final PaddedBufferedBlockCipher cipher = new PaddedBufferedBlockCipher(
+                new CBCBlockCipher(new AESEngine()));
+        private final byte[] buffer = new byte[4096];
+        private byte[] out = new byte[0];
+        private byte[] key;
+
+        void decrypt(byte[] key, byte[] iv, InputStream data, OutputStream output)
+                throws IOException
+        {
+            if (Arrays.equals(this.key, key))
+            {
+                // a null key parameter tells the CBC mode to keep the current key
+                cipher.init(false, new ParametersWithIV(null, iv));
+            }
+            else
+            {
+                this.key = null;
+                cipher.init(false, new ParametersWithIV(new KeyParameter(key), iv));
+                this.key = key;
+            }
+            try
+            {
+                boolean empty = true;
+                int n;
+                while ((n = data.read(buffer)) != -1)
+                {
+                    empty &= n == 0;
+                    ensureCapacity(cipher.getUpdateOutputSize(n));
+                    output.write(out, 0, cipher.processBytes(buffer, 0, n, out, 0));
+                }
+                if (!empty)
+                {
+                    ensureCapacity(cipher.getOutputSize(0));
+                    output.write(out, 0, cipher.doFinal(out, 0));
+                }
+            }
+            catch (InvalidCipherTextException | DataLengthException | IllegalStateException e)
+            {
+                cipher.reset();
+                throw new IOException(e);
+            }
+        }
+
+        private void ensureCapacity(int size)
+        {
+            if (out.length < size)
+            {
+                out = new byte[size];
+            }
+        }
+    }
+
+    private StreamDecryptor decryptorFor(long objNum, long genNum)
+    {
+        if (useAES && encryptionKey.length == 32)
+        {
+            return new AESStreamDecryptor(encryptionKey);
+        }
+        byte[] finalKey = calcFinalKey(objNum, genNum);
+        if (useAES)
+        {
+            return new AESStreamDecryptor(finalKey);
+        }
+        return new RC4StreamDecryptor(finalKey);
+    }
+
+    /**
+     * Buffered decrypted stream where {@link #available()} returns zero only at the end of the stream, since filters
+     * rely on it
+     */
+    private static class DecryptedInputStream extends BufferedInputStream
+    {
+        DecryptedInputStream(InputStream decrypted)
+        {
+            super(decrypted);
+        }
+
+        @Override
+        public synchronized int available() throws IOException
+        {
+            int available = super.available();
+            if (available == 0)
             {
-                decryptData(objNum, genNum, encryptedStream, output);
+                mark(1);
+                if (read() == -1)
+                {
+                    return 0;
+                }
+                reset();
+                available = super.available();
+            }
+            return available;
+        }
+    }
+
+    /**
+     * Decrypts RC4 encrypted streams
+     */
+    private static class RC4StreamDecryptor implements StreamDecryptor
+    {
+        private final byte[] key;
+
+        RC4StreamDecryptor(byte[] key)
+        {
+            this.key = key;
+        }
+
+        @Override
+        public InputStream decrypt(InputStream encrypted)
+        {
+            RC4Engine cipher = new RC4Engine();
+            cipher.init(false, new KeyParameter(key));
+            return new DecryptedInputStream(new CipherInputStream(encrypted, cipher));
+        }
+
+        @Override
+        public long decryptedLength(SeekableSource encrypted)
+        {
+            return encrypted.size();
+        }
+
+        @Override
+        public boolean isEncryptedWith(String cipher, byte[] key)
+        {
+            return "RC4".equals(cipher) && Arrays.equals(this.key, key);
+        }
+    }
+
+    /**
+     * Decrypts AES encrypted streams where the first 16 bytes are the initialization vector
+     */
+    private static class AESStreamDecryptor implements StreamDecryptor
+    {
+        private static final int BLOCK_SIZE = 16;
+        private final byte[] key;
+
+        AESStreamDecryptor(byte[] key)
+        {
+            this.key = key;
+        }
+
+        @Override
+        public InputStream decrypt(InputStream encrypted) throws IOException
+        {
+            byte[] iv = new byte[BLOCK_SIZE];
+            int ivSize = readFully(encrypted, iv);
+            if (ivSize == 0)
+            {
+                return encrypted;
+            }
+            if (ivSize != iv.length)
+            {
+                IOUtils.closeQuietly(encrypted);
+                throw new IOException("AES initialization vector not fully read: only " + ivSize
+                        + " bytes read instead of " + iv.length);
+            }
+            PushbackInputStream data = new PushbackInputStream(encrypted);
+            int next = data.read();
+            if (next == -1)
+            {
+                // nothing after the initialization vector
+                return data;
+            }
+            data.unread(next);
+            PaddedBufferedBlockCipher cipher = new PaddedBufferedBlockCipher(
+                    new CBCBlockCipher(new AESEngine()));
+            cipher.init(false, new ParametersWithIV(new KeyParameter(key), iv));
+            return new DecryptedInputStream(new CipherInputStream(data, cipher));
+        }
+
+        @Override
+        public long decryptedLength(SeekableSource encrypted) throws IOException
+        {
+            long size = encrypted.size();
+            if (size <= BLOCK_SIZE)
+            {
+                return 0;
+            }
+            if ((size % BLOCK_SIZE) != 0)
+            {
+                // something is wrong, we let the decryption figure it out
+                return countDecrypted(encrypted);
+            }
+            // only the last block has to be decrypted to know the padding length
+            byte[] blocks = new byte[BLOCK_SIZE * 2];
+            encrypted.position(size - blocks.length);
+            if (readFully(encrypted.asInputStream(), blocks) != blocks.length)
+            {
+                return countDecrypted(encrypted);
+            }
+            AESEngine engine = new AESEngine();
+            engine.init(false, new KeyParameter(key));
+            byte[] last = new byte[BLOCK_SIZE];
+            engine.processBlock(blocks, BLOCK_SIZE, last, 0);
+            int padding = (last[BLOCK_SIZE - 1] ^ blocks[BLOCK_SIZE - 1]) & 0xFF;
+            if (padding < 1 || padding > BLOCK_SIZE)
+            {
+                return countDecrypted(encrypted);
+            }
+            return size - BLOCK_SIZE - padding;
+        }
+
+        @Override
+        public boolean isEncryptedWith(String cipher, byte[] key)
+        {
+            return "AES".equals(cipher) && Arrays.equals(this.key, key);
+        }
+
+        private static int readFully(InputStream in, byte[] buffer) throws IOException
+        {
+            int total = 0;
+            int read;
+            while (total < buffer.length
+                    && (read = in.read(buffer, total, buffer.length - total)) != -1)
+            {
+                total += read;
+            }
+            return total;
+        }
+
+        private long countDecrypted(SeekableSource encrypted) throws IOException
+        {
+            encrypted.position(0);
+            long count = 0;
+            try (InputStream decrypted = decrypt(encrypted.asInputStream()))
+            {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = decrypted.read(buffer)) != -1)
+                {
+                    count += read;
+                }
             }
+            return count;
         }
     }
 
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.font;
+
+import static java.util.Objects.nonNull;
+
+import java.util.Arrays;
+
+/**
+ * Widths of a CID font indexed by CID. CIDs are grouped in blocks of consecutive values and only the blocks actually
+ * containing widths are allocated, this way lookups don't box and the memory used is proportional to the ranges defined
+ * in the /W array. CIDs outside the 0-65535 range are ignored.
+ *
+ * @author Andrea Vacondio
+ */
+final class CIDWidths
+{
+    private static final int BLOCK_BITS = 8;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    static final int MAX_CID = 0xFFFF;
+
+    private final float[][] blocks = new float[(MAX_CID >> BLOCK_BITS) + 1][];
+
+    /**
+     * Sets the width for the given CID, replacing any previous value
+     *
+     * @param cid
+     * @param width
+     */
+    void put(int cid, float width)
+    {
+        if (cid >= 0 && cid <= MAX_CID)
+        {
+            float[] block = blocks[cid >> BLOCK_BITS];
+            if (block == null)
+            {
+                block = new float[BLOCK_SIZE];
+                // NaN marks the CIDs without a width
+                Arrays.fill(block, Float.NaN);
+                blocks[cid >> BLOCK_BITS] = block;
+            }
+            block[cid & BLOCK_MASK] = width;
+        }
+    }
+
+    /**
+     * @param cid
+     * @param defaultWidth
+     * @return the width for the given CID or the given default if there's no width for it
+     */
+    float get(int cid, float defaultWidth)
+    {
+        if (cid >= 0 && cid <= MAX_CID)
+        {
+            float[] block = blocks[cid >> BLOCK_BITS];
+            if (nonNull(block) && !Float.isNaN(block[cid & BLOCK_MASK]))
+            {
+                return block[cid & BLOCK_MASK];
+            }
+        }
+        return defaultWidth;
+    }
+
+    /**
+     * @param cid
+     * @return true if there's a width for the given CID
+     */
+    boolean contains(int cid)
+    {
+        return !Float.isNaN(get(cid, Float.NaN));
+    }
+
+    /**
+     * @return the average of the positive widths or NaN if there are none
+     */
+    float averagePositiveWidth()
+    {
+        float total = 0;
+        int count = 0;
+        for (float[] block : blocks)
+        {
+            if (nonNull(block))
+            {
+                for (float width : block)
+                {
+                    if (width > 0)
+                    {
+                        total += width;
+                        count++;
+                    }
+                }
+            }
+        }
+        return total / count;
+    }
+}
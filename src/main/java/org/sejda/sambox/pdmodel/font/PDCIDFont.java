@@ -46,7 +46,7 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
 {
     protected final PDType0Font parent;
 
-    private Map<Integer, Float> widths;
+    private final CIDWidths widths = new CIDWidths();
     private float defaultWidth;
     private float averageWidth;
 
@@ -72,7 +72,6 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
 
     private void readWidths()
     {
-        widths = new HashMap<>();
         COSArray wArray = dict.getDictionaryObject(COSName.W, COSArray.class);
         if (nonNull(wArray))
         {
@@ -86,7 +85,7 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
                 {
                     COSArray array = (COSArray) next;
                     int startRange = firstCode.intValue();
-                    int arraySize = array.size();
+                    int arraySize = Math.min(array.size(), CIDWidths.MAX_CID + 1);
                     for (int i = 0; i < arraySize; i++)
                     {
                         COSNumber width = (COSNumber) array.getObject(i);
@@ -97,8 +96,8 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
                 {
                     COSNumber secondCode = (COSNumber) next;
                     COSNumber rangeWidth = (COSNumber) wArray.getObject(counter++);
-                    int startRange = firstCode.intValue();
-                    int endRange = secondCode.intValue();
+                    int startRange = Math.max(firstCode.intValue(), 0);
+                    int endRange = Math.min(secondCode.intValue(), CIDWidths.MAX_CID);
                     float width = rangeWidth.floatValue();
                     for (int i = startRange; i <= endRange; i++)
                     {
@@ -244,10 +243,10 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
 
     private float getWidthForCID(int cid)
     {
-        Float width = widths.get(cid);
-        if (width == null)
+        float width = widths.get(cid, Float.NaN);
+        if (Float.isNaN(width))
         {
-            width = getDefaultWidth();
+            return getDefaultWidth();
         }
         return width;
     }
@@ -255,7 +254,7 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
     @Override
     public boolean hasExplicitWidth(int code) throws IOException
     {
-        return widths.get(codeToCID(code)) != null;
+        return widths.contains(codeToCID(code));
     }
 
     @Override
@@ -302,20 +301,7 @@ public abstract class PDCIDFont implements COSObjectable, PDFontLike, PDVectorFo
     {
         if (averageWidth == 0)
         {
-            float totalWidths = 0.0f;
-            int characterCount = 0;
-            if (widths != null)
-            {
-                for (Float width : widths.values())
-                {
-                    if (width > 0)
-                    {
-                        totalWidths += width;
-                        ++characterCount;
-                    }
-                }
-            }
-            averageWidth = totalWidths / characterCount;
+            averageWidth = widths.averagePositiveWidth();
             if (averageWidth <= 0 || Float.isNaN(averageWidth))
             {
                 averageWidth = getDefaultWidth();
@@ -22,9 +22,9 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Point2D;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.fontbox.FontBoxFont;
 import org.apache.fontbox.cff.CFFCIDFont;
@@ -53,7 +53,7 @@ public class PDCIDFontType0 extends PDCIDFont
     private final CFFCIDFont cidFont; // Top DICT that uses CIDFont operators
     private final FontBoxFont t1Font; // Top DICT that does not use CIDFont operators
 
-    private final Map<Integer, Float> glyphHeights = new HashMap<>();
+    private final Map<Integer, Float> glyphHeights = new ConcurrentHashMap<>();
     private final boolean isEmbedded;
     private final boolean isDamaged;
     private boolean isOriginalEmbeddedMissing = false;
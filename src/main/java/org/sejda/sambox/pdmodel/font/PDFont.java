@@ -21,8 +21,8 @@ import static java.util.Objects.nonNull;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,7 +32,6 @@ import org.apache.fontbox.cmap.CMap;
 import org.sejda.commons.FastByteArrayOutputStream;
 import org.sejda.commons.util.IOUtils;
 import org.sejda.sambox.cos.COSArray;
-import org.sejda.sambox.cos.COSArrayList;
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
@@ -60,9 +59,12 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
     private final FontMetrics afmStandard14; // AFM for standard 14 fonts
 
     private PDFontDescriptor fontDescriptor;
-    private List<Float> widths;
+    private volatile float[] widths;
     private float avgFontWidth;
     private float fontWidthOfSpace = -1f;
+    // widths of single byte codes, NaN until computed. Writes of floats are atomic so, when the font is used
+    // concurrently, the worst case is a width computed twice. Other codes go to the map
+    private final float[] codeToWidth = newCodeToWidth();
     private final Map<Integer, Float> codeToWidthMap;
 
     PDFont()
@@ -72,7 +74,14 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
         toUnicodeCMap = null;
         fontDescriptor = null;
         afmStandard14 = null;
-        codeToWidthMap = new HashMap<>();
+        codeToWidthMap = new ConcurrentHashMap<>();
+    }
+
+    private static float[] newCodeToWidth()
+    {
+        float[] codeToWidth = new float[256];
+        Arrays.fill(codeToWidth, Float.NaN);
+        return codeToWidth;
     }
 
     /**
@@ -101,7 +110,7 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
     protected PDFont(COSDictionary fontDictionary) throws IOException
     {
         dict = fontDictionary;
-        codeToWidthMap = new HashMap<>();
+        codeToWidthMap = new ConcurrentHashMap<>();
 
         // standard 14 fonts use an AFM
         afmStandard14 = Standard14Fonts.getAFM(getName()); // may be null (it usually is)
@@ -242,11 +251,27 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
     @Override
     public float getWidth(int code) throws IOException
     {
-        Float width = codeToWidthMap.get(code);
-        if (width != null)
+        if (code >= 0 && code < codeToWidth.length)
         {
+            float width = codeToWidth[code];
+            if (Float.isNaN(width))
+            {
+                width = computeWidth(code);
+                codeToWidth[code] = width;
+            }
             return width;
         }
+        Float width = codeToWidthMap.get(code);
+        if (width == null)
+        {
+            width = computeWidth(code);
+            codeToWidthMap.put(code, width);
+        }
+        return width;
+    }
+
+    private float computeWidth(int code) throws IOException
+    {
 
         // Acrobat overrides the widths in the font program on the conforming reader's system with
         // the widths specified in the font dictionary." (Adobe Supplement to the ISO 32000)
@@ -260,41 +285,29 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
         {
             int firstChar = dict.getInt(COSName.FIRST_CHAR, -1);
             int lastChar = dict.getInt(COSName.LAST_CHAR, -1);
-            int siz = getWidths().size();
+            float[] widths = getWidthsArray();
             int idx = code - firstChar;
-            if (siz > 0 && code >= firstChar && code <= lastChar && idx < siz)
+            if (widths.length > 0 && code >= firstChar && code <= lastChar && idx < widths.length)
             {
-                width = getWidths().get(idx);
-                if (width == null)
-                {
-                    width = 0f;
-                }
-                codeToWidthMap.put(code, width);
-                return width;
+                return widths[idx];
             }
 
             PDFontDescriptor fd = getFontDescriptor();
             if (fd != null)
             {
                 // get entry from /MissingWidth entry
-                width = fd.getMissingWidth();
-                codeToWidthMap.put(code, width);
-                return width;
+                return fd.getMissingWidth();
             }
         }
 
         // standard 14 font widths are specified by an AFM
         if (isStandard14())
         {
-            width = getStandard14Width(code);
-            codeToWidthMap.put(code, width);
-            return width;
+            return getStandard14Width(code);
         }
 
         // if there's nothing to override with, then obviously we fall back to the font
-        width = getWidthFromFont(code);
-        codeToWidthMap.put(code, width);
-        return width;
+        return getWidthFromFont(code);
     }
 
     /**
@@ -438,17 +451,12 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
         {
             float totalWidth = 0.0f;
             float characterCount = 0.0f;
-            COSArray widths = (COSArray) dict.getDictionaryObject(COSName.WIDTHS);
-            if (widths != null)
+            for (float width : getWidthsArray())
             {
-                for (int i = 0; i < widths.size(); i++)
+                if (width > 0)
                 {
-                    COSNumber fontWidth = (COSNumber) widths.getObject(i);
-                    if (fontWidth.floatValue() > 0)
-                    {
-                        totalWidth += fontWidth.floatValue();
-                        characterCount += 1;
-                    }
+                    totalWidth += width;
+                    characterCount += 1;
                 }
             }
 
@@ -536,23 +544,58 @@ public abstract class PDFont implements COSObjectable, PDFontLike, Subsettable
     }
 
     /**
-     * The widths of the characters. This will be null for the standard 14 fonts.
+     * The widths of the characters as defined in the /Widths array, non numeric values are returned as 0. This will be
+     * empty for the standard 14 fonts.
      *
-     * @return The widths of the characters.
+     * @return The widths of the characters as an unmodifiable list.
      */
     protected final List<Float> getWidths()
     {
+        float[] widths = getWidthsArray();
+        return new AbstractList<Float>()
+        {
+            @Override
+            public Float get(int index)
+            {
+                return widths[index];
+            }
+
+            @Override
+            public int size()
+            {
+                return widths.length;
+            }
+        };
+    }
+
+    /**
+     * Same as {@link #getWidths()} but without boxing. The returned array is shared and must not be modified.
+     *
+     * @return The widths of the characters.
+     */
+    final float[] getWidthsArray()
+    {
+        float[] widths = this.widths;
         if (widths == null)
         {
-            COSArray array = (COSArray) dict.getDictionaryObject(COSName.WIDTHS);
+            COSArray array = dict.getDictionaryObject(COSName.WIDTHS, COSArray.class);
             if (array != null)
             {
-                widths = COSArrayList.convertFloatCOSArrayToList(array);
+                widths = new float[array.size()];
+                for (int i = 0; i < widths.length; i++)
+                {
+                    COSBase width = array.getObject(i);
+                    if (width instanceof COSNumber)
+                    {
+                        widths[i] = ((COSNumber) width).floatValue();
+                    }
+                }
             }
             else
             {
-                widths = Collections.emptyList();
+                widths = new float[0];
             }
+            this.widths = widths;
         }
         return widths;
     }
@@ -25,9 +25,9 @@ import java.awt.geom.GeneralPath;
 import java.awt.geom.Point2D;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.fontbox.EncodedFont;
 import org.apache.fontbox.FontBoxFont;
@@ -55,7 +55,7 @@ public class PDType1CFont extends PDSimpleFont
 {
     private static final Logger LOG = LoggerFactory.getLogger(PDType1CFont.class);
 
-    private final Map<String, Float> glyphHeights = new HashMap<>();
+    private final Map<String, Float> glyphHeights = new ConcurrentHashMap<>();
     private Float avgWidth = null;
     private Matrix fontMatrix;
     private final AffineTransform fontMatrixTransform;
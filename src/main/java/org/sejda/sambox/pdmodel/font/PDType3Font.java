@@ -139,9 +139,10 @@ public class PDType3Font extends PDSimpleFont
     {
         int firstChar = dict.getInt(COSName.FIRST_CHAR, -1);
         int lastChar = dict.getInt(COSName.LAST_CHAR, -1);
-        if (!getWidths().isEmpty() && code >= firstChar && code <= lastChar)
+        float[] widths = getWidthsArray();
+        if (code >= firstChar && code <= lastChar && code - firstChar < widths.length)
         {
-            return ofNullable(getWidths().get(code - firstChar)).orElse(0f);
+            return widths[code - firstChar];
         }
         PDFontDescriptor fd = getFontDescriptor();
         if (nonNull(fd))
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.graphics.image;
+
+import static java.util.Objects.nonNull;
+import static org.sejda.commons.util.RequireUtils.requireArg;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
+
+/**
+ * A memory bounded cache of decoded and color converted images of image XObjects, so that an image drawn on many
+ * pages, like a logo or a letterhead background, is decoded once. Images are cached by XObject and subsampling and
+ * every image has an estimated weight in bytes, when the total weight exceeds the given maximum the least recently
+ * used images are evicted. Images heavier than the maximum are not cached. Images are softly referenced so they are
+ * retained until memory pressure causes them to be garbage collected, the same way other cached resources are. It can
+ * be used by multiple threads.
+ * <p>
+ * Cached images are shared by every caller drawing the same XObject and must be treated as read only.
+ * </p>
+ *
+ * @author Andrea Vacondio
+ */
+public final class DecodedImageCache
+{
+    private static final long DEFAULT_MAX_WEIGHT = 64 * 1024 * 1024;
+
+    private final long maxWeight;
+    private final LinkedHashMap<ImageKey, WeightedImage> images = new LinkedHashMap<>(16, 0.75f,
+            true);
+    private long weight = 0;
+
+    /**
+     * Creates a cache bounded to the size configured with the {@link SAMBox#DECODED_IMAGE_CACHE_MAX_BYTES_PROPERTY}
+     * system property
+     */
+    public DecodedImageCache()
+    {
+        this(Long.getLong(SAMBox.DECODED_IMAGE_CACHE_MAX_BYTES_PROPERTY, DEFAULT_MAX_WEIGHT));
+    }
+
+    /**
+     * @param maxWeight max estimated weight in bytes of the cached images
+     */
+    public DecodedImageCache(long maxWeight)
+    {
+        requireArg(maxWeight > 0, "Max weight must be positive");
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * @param xobject identifier of the image XObject
+     * @param subsampling the subsampling the image was decoded with, 1 for no subsampling
+     * @return the cached image, shared and to be treated as read only, or null
+     */
+    public synchronized BufferedImage get(IndirectCOSObjectIdentifier xobject, int subsampling)
+    {
+        ImageKey key = new ImageKey(xobject, subsampling);
+        WeightedImage cached = images.get(key);
+        if (nonNull(cached))
+        {
+            BufferedImage image = cached.image.get();
+            if (nonNull(image))
+            {
+                return image;
+            }
+            // garbage collected
+            images.remove(key);
+            weight -= cached.weight;
+        }
+        return null;
+    }
+
+    /**
+     * Puts the given image in the cache, evicting the least recently used images if needed
+     * 
+     * @param xobject identifier of the image XObject
+     * @param subsampling the subsampling the image was decoded with, 1 for no subsampling
+     * @param image the image, once cached it is shared with whoever gets it from the cache
+     */
+    public synchronized void put(IndirectCOSObjectIdentifier xobject, int subsampling,
+            BufferedImage image)
+    {
+        WeightedImage stored = new WeightedImage(image);
+        if (stored.weight > maxWeight)
+        {
+            return;
+        }
+        WeightedImage previous = images.put(new ImageKey(xobject, subsampling), stored);
+        if (nonNull(previous))
+        {
+            weight -= previous.weight;
+        }
+        weight += stored.weight;
+        Iterator<WeightedImage> iterator = images.values().iterator();
+        while (weight > maxWeight && iterator.hasNext())
+        {
+            WeightedImage eldest = iterator.next();
+            if (eldest != stored)
+            {
+                iterator.remove();
+                weight -= eldest.weight;
+            }
+        }
+    }
+
+    /**
+     * Removes all the cached images
+     */
+    public synchronized void clear()
+    {
+        images.clear();
+        weight = 0;
+    }
+
+    /**
+     * @return the estimated weight in bytes of the cached images, including the ones garbage collected but not evicted
+     * yet
+     */
+    public synchronized long weight()
+    {
+        return weight;
+    }
+
+    static long weightOf(BufferedImage image)
+    {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks()
+                * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    private static class ImageKey
+    {
+        private final IndirectCOSObjectIdentifier xobject;
+        private final int subsampling;
+
+        ImageKey(IndirectCOSObjectIdentifier xobject, int subsampling)
+        {
+            this.xobject = xobject;
+            this.subsampling = subsampling;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(xobject, subsampling);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof ImageKey))
+            {
+                return false;
+            }
+            ImageKey other = (ImageKey) obj;
+            return subsampling == other.subsampling && xobject.equals(other.xobject);
+        }
+    }
+
+    private static class WeightedImage
+    {
+        private final SoftReference<BufferedImage> image;
+        private final long weight;
+
+        WeightedImage(BufferedImage image)
+        {
+            this.image = new SoftReference<>(image);
+            this.weight = weightOf(image);
+        }
+    }
+}
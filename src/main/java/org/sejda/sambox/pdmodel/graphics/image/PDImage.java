@@ -17,6 +17,7 @@
 package org.sejda.sambox.pdmodel.graphics.image;
 
 import java.awt.Paint;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
@@ -42,6 +43,20 @@ public interface PDImage extends COSObjectable
      */
     BufferedImage getImage() throws IOException;
 
+    /**
+     * Returns the content of the given region of this image as an AWT buffered image with an (A)RGB color space,
+     * taking one every subsampling pixels horizontally and vertically. Only the part of the image data needed for the
+     * region is decoded and converted, this is useful when only a part of a big image is visible or when it's drawn
+     * at a lower resolution.
+     * 
+     * @param region the region of the image, in image pixels, or null for the whole image
+     * @param subsampling the subsampling stride, 1 to take every pixel
+     * @return content of the region of this image as a buffered image, its size is the size of the region divided by
+     * the subsampling, rounded up
+     * @throws IOException
+     */
+    BufferedImage getImage(Rectangle region, int subsampling) throws IOException;
+
     /**
      * Returns an ARGB image filled with the given paint and using this image as a mask.
      * 
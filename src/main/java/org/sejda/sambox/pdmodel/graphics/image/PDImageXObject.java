@@ -16,12 +16,14 @@
  */
 package org.sejda.sambox.pdmodel.graphics.image;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
 import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
 
 import java.awt.Graphics2D;
 import java.awt.Paint;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.awt.image.WritableRaster;
@@ -42,8 +44,10 @@ import org.sejda.sambox.cos.COSArray;
 import org.sejda.sambox.cos.COSBase;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
 import org.sejda.sambox.filter.DecodeResult;
 import org.sejda.sambox.pdmodel.PDResources;
+import org.sejda.sambox.pdmodel.ResourceCache;
 import org.sejda.sambox.pdmodel.common.PDMetadata;
 import org.sejda.sambox.pdmodel.common.PDStream;
 import org.sejda.sambox.pdmodel.graphics.PDXObject;
@@ -66,6 +70,7 @@ public final class PDImageXObject extends PDXObject implements PDImage
     private static final Logger LOG = LoggerFactory.getLogger(PDImageXObject.class);
 
     private SoftReference<BufferedImage> cachedImage;
+    private int cachedImageSubsampling = 1;
     private PDColorSpace colorSpace;
     private PDResources resources; // current resource dictionary (has color spaces)
 
@@ -256,29 +261,63 @@ public final class PDImageXObject extends PDXObject implements PDImage
     }
 
     /**
-     * {@inheritDoc} The returned images are cached for the lifetime of this XObject.
+     * {@inheritDoc} The returned images are cached for the lifetime of this XObject and, if this XObject is an
+     * indirect object that doesn't depend on the current resources, in the document {@link ResourceCache} so that
+     * other pages drawing the same XObject don't need to decode it again. Cached images are shared and must be treated
+     * as read only.
      */
     @Override
     public BufferedImage getImage() throws IOException
     {
-        if (cachedImage != null)
+        return getImage(null, 1);
+    }
+
+    /**
+     * {@inheritDoc} Images of the whole XObject are cached the same way as {@link #getImage()} does, images of a
+     * region are not cached.
+     */
+    @Override
+    public BufferedImage getImage(Rectangle region, int subsampling) throws IOException
+    {
+        if (nonNull(region) && region.contains(0, 0, getWidth(), getHeight()))
+        {
+            region = null;
+        }
+        ResourceCache resourceCache = null;
+        IndirectCOSObjectIdentifier id = getCOSObject().id();
+        if (isNull(region))
         {
-            BufferedImage cached = cachedImage.get();
-            if (cached != null)
+            if (cachedImage != null && cachedImageSubsampling == subsampling)
+            {
+                BufferedImage cached = cachedImage.get();
+                if (cached != null)
+                {
+                    return cached;
+                }
+            }
+            resourceCache = ofNullable(resources).filter(r -> r.isAllowedCache(this))
+                    .map(PDResources::getResourceCache).orElse(null);
+            if (nonNull(resourceCache) && nonNull(id))
             {
-                return cached;
+                BufferedImage cached = resourceCache.getDecodedImage(id, subsampling);
+                if (cached != null)
+                {
+                    cache(cached, subsampling);
+                    return cached;
+                }
             }
         }
 
         // get image as RGB
-        BufferedImage image = SampledImageReader.getRGBImage(this, getColorKeyMask());
+        BufferedImage image = SampledImageReader.getRGBImage(this, region, subsampling,
+                getColorKeyMask());
 
         // soft mask (overrides explicit mask)
         PDImageXObject softMask = getSoftMask();
         if (softMask != null)
         {
             float[] matte = extractMatte(softMask);
-            image = applyMask(image, softMask.getOpaqueImage(), true, matte);
+            image = applyMask(image, maskImage(softMask, region, subsampling), true, matte);
         }
         else
         {
@@ -286,14 +325,57 @@ public final class PDImageXObject extends PDXObject implements PDImage
             PDImageXObject mask = getMask();
             if (mask != null && mask.isStencil())
             {
-                image = applyMask(image, mask.getOpaqueImage(), false, null);
+                image = applyMask(image, maskImage(mask, region, subsampling), false, null);
             }
         }
 
-        cachedImage = new SoftReference<>(image);
+        if (isNull(region))
+        {
+            cache(image, subsampling);
+            if (nonNull(resourceCache) && nonNull(id))
+            {
+                resourceCache.putDecodedImage(id, subsampling, image);
+            }
+        }
         return image;
     }
 
+    private void cache(BufferedImage image, int subsampling)
+    {
+        cachedImage = new SoftReference<>(image);
+        cachedImageSubsampling = subsampling;
+    }
+
+    /**
+     * @return the image of the given mask for the given region of this image. Masks can have a different size than
+     * the image, in that case the region is scaled to the mask size and {@link #applyMask} scales the result.
+     */
+    private BufferedImage maskImage(PDImageXObject mask, Rectangle region, int subsampling)
+            throws IOException
+    {
+        if (isNull(region) && subsampling == 1)
+        {
+            return mask.getOpaqueImage();
+        }
+        if (mask.getWidth() == getWidth() && mask.getHeight() == getHeight())
+        {
+            return SampledImageReader.getRGBImage(mask, region, subsampling, null);
+        }
+        double scaleX = mask.getWidth() / (double) getWidth();
+        double scaleY = mask.getHeight() / (double) getHeight();
+        Rectangle maskRegion = null;
+        if (nonNull(region))
+        {
+            int x = (int) Math.floor(region.x * scaleX);
+            int y = (int) Math.floor(region.y * scaleY);
+            maskRegion = new Rectangle(x, y,
+                    Math.max(1, (int) Math.ceil(region.getMaxX() * scaleX) - x),
+                    Math.max(1, (int) Math.ceil(region.getMaxY() * scaleY) - y));
+        }
+        return SampledImageReader.getRGBImage(mask, maskRegion,
+                Math.max(1, (int) (subsampling * Math.min(scaleX, scaleY))), null);
+    }
+
     private float[] extractMatte(PDImageXObject softMask) throws IOException
     {
         float[] matte = ofNullable(
@@ -17,6 +17,7 @@
 package org.sejda.sambox.pdmodel.graphics.image;
 
 import java.awt.Paint;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -319,6 +320,12 @@ public final class PDInlineImage implements PDImage
         return SampledImageReader.getRGBImage(this, null);
     }
 
+    @Override
+    public BufferedImage getImage(Rectangle region, int subsampling) throws IOException
+    {
+        return SampledImageReader.getRGBImage(this, region, subsampling, null);
+    }
+
     @Override
     public BufferedImage getStencilImage(Paint paint) throws IOException
     {
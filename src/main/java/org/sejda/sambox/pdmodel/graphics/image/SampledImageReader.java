@@ -16,9 +16,12 @@
  */
 package org.sejda.sambox.pdmodel.graphics.image;
 
+import static org.sejda.commons.util.RequireUtils.requireArg;
+
 import java.awt.Graphics2D;
 import java.awt.Paint;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
@@ -142,7 +145,27 @@ final class SampledImageReader
      */
     public static BufferedImage getRGBImage(PDImage pdImage, COSArray colorKey) throws IOException
     {
+        return getRGBImage(pdImage, null, 1, colorKey);
+    }
 
+    /**
+     * Returns the content of the given region of the given image as an AWT buffered image with an RGB color space,
+     * taking one every subsampling pixels horizontally and vertically. Only the rows up to the last one of the region
+     * are read and only the pixels of the region are converted. If a color key mask is provided then an ARGB image is
+     * returned instead. This method never returns null.
+     * 
+     * @param pdImage the image to read
+     * @param region the region of the image to read, in image pixels, or null to read the whole image
+     * @param subsampling the subsampling stride, 1 to read every pixel
+     * @param colorKey an optional color key mask
+     * @return content of the region of this image as an RGB buffered image, its size is the size of the region
+     * divided by the subsampling, rounded up
+     * @throws IOException if the image cannot be read
+     */
+    public static BufferedImage getRGBImage(PDImage pdImage, Rectangle region, int subsampling,
+            COSArray colorKey) throws IOException
+    {
+        requireArg(subsampling > 0, "Subsampling must be positive");
         if (pdImage.isEmpty())
         {
             throw new IOException("Image stream is empty");
@@ -160,11 +183,17 @@ final class SampledImageReader
         {
             throw new IOException("image width and height must be positive");
         }
+        Rectangle clipped = new Rectangle(width, height);
+        if (region != null)
+        {
+            clipped = clipped.intersection(region);
+        }
+        requireArg(!clipped.isEmpty(), "Image region must intersect the image");
         try
         {
             if (bitsPerComponent == 1 && colorKey == null && numComponents == 1)
             {
-                return from1Bit(pdImage);
+                return from1Bit(pdImage, clipped, subsampling);
             }
 
             //
@@ -173,15 +202,20 @@ final class SampledImageReader
             // in depth to 8bpc as they will be drawn to TYPE_INT_RGB images anyway. All code
             // in PDColorSpace#toRGBImage expects an 8-bit range, i.e. 0-255.
             //
-            WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, width, height,
+            WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE,
+                    scaledSize(clipped.width, subsampling), scaledSize(clipped.height, subsampling),
                     numComponents, new Point(0, 0));
             final float[] defaultDecode = pdImage.getColorSpace().getDefaultDecode(8);
             if (bitsPerComponent == 8 && Arrays.equals(decode, defaultDecode) && colorKey == null)
             {
                 // convert image, faster path for non-decoded, non-colormasked 8-bit images
-                return from8bit(pdImage, raster);
+                if (clipped.width == width && clipped.height == height && subsampling == 1)
+                {
+                    return from8bit(pdImage, raster);
+                }
+                return from8bit(pdImage, raster, clipped, subsampling);
             }
-            return fromAny(pdImage, raster, colorKey);
+            return fromAny(pdImage, raster, colorKey, clipped, subsampling);
         }
         catch (NegativeArraySizeException ex)
         {
@@ -189,11 +223,18 @@ final class SampledImageReader
         }
     }
 
-    private static BufferedImage from1Bit(PDImage pdImage) throws IOException
+    private static int scaledSize(int size, int subsampling)
+    {
+        return (size + subsampling - 1) / subsampling;
+    }
+
+    private static BufferedImage from1Bit(PDImage pdImage, Rectangle clipped, int subsampling)
+            throws IOException
     {
         final PDColorSpace colorSpace = pdImage.getColorSpace();
         final int width = pdImage.getWidth();
-        final int height = pdImage.getHeight();
+        final int outputWidth = scaledSize(clipped.width, subsampling);
+        final int outputHeight = scaledSize(clipped.height, subsampling);
         final float[] decode = getDecodeArray(pdImage);
         BufferedImage bim = null;
         WritableRaster raster;
@@ -203,12 +244,12 @@ final class SampledImageReader
             // TYPE_BYTE_GRAY and not TYPE_BYTE_BINARY because this one is handled
             // without conversion to RGB by Graphics.drawImage
             // this reduces the memory footprint, only one byte per pixel instead of three.
-            bim = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+            bim = new BufferedImage(outputWidth, outputHeight, BufferedImage.TYPE_BYTE_GRAY);
             raster = bim.getRaster();
         }
         else
         {
-            raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, width, height, 1,
+            raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, outputWidth, outputHeight, 1,
                     new Point(0, 0));
         }
         output = ((DataBufferByte) raster.getDataBuffer()).getData();
@@ -239,24 +280,17 @@ final class SampledImageReader
             }
             byte[] buff = new byte[rowLen];
             int idx = 0;
-            for (int y = 0; y < height; y++)
+            // rows after the region are not read
+            for (int y = 0; y < clipped.y + clipped.height; y++)
             {
-                int x = 0;
-                int readLen = iis.read(buff);
-                for (int r = 0; r < rowLen && r < readLen; r++)
+                int readLen = readRow(iis, buff);
+                if (y >= clipped.y && (y - clipped.y) % subsampling == 0)
                 {
-                    int value = buff[r];
-                    int mask = 128;
-                    for (int i = 0; i < 8; i++)
+                    for (int x = clipped.x; x < clipped.x + clipped.width
+                            && (x >> 3) < readLen; x += subsampling)
                     {
-                        int bit = value & mask;
-                        mask >>= 1;
+                        int bit = buff[x >> 3] & (128 >> (x & 7));
                         output[idx++] = bit == 0 ? value0 : value1;
-                        x++;
-                        if (x == width)
-                        {
-                            break;
-                        }
                     }
                 }
                 if (readLen != rowLen)
@@ -276,6 +310,26 @@ final class SampledImageReader
         }
     }
 
+    /**
+     * Reads a row of the image, the buffer is filled unless the end of stream is reached
+     * 
+     * @return the number of bytes read
+     */
+    private static int readRow(InputStream stream, byte[] row) throws IOException
+    {
+        int read = 0;
+        while (read < row.length)
+        {
+            int count = stream.read(row, read, row.length - read);
+            if (count < 0)
+            {
+                break;
+            }
+            read += count;
+        }
+        return read;
+    }
+
     // faster, 8-bit non-decoded, non-colormasked image conversion
     private static BufferedImage from8bit(PDImage pdImage, WritableRaster raster) throws IOException
     {
@@ -316,14 +370,59 @@ final class SampledImageReader
         return pdImage.getColorSpace().toRGBImage(raster);
     }
 
+    // 8-bit non-decoded, non-colormasked image conversion of a region, reading the decoded stream row by row
+    private static BufferedImage from8bit(PDImage pdImage, WritableRaster raster,
+            Rectangle clipped, int subsampling) throws IOException
+    {
+        byte[][] banks = ((DataBufferByte) raster.getDataBuffer()).getBankData();
+        final int numComponents = pdImage.getColorSpace().getNumberOfComponents();
+        byte[] row = new byte[pdImage.getWidth() * numComponents];
+        int idx = 0;
+        try (InputStream stream = pdImage.createInputStream())
+        {
+            // rows after the region are not read
+            for (int y = 0; y < clipped.y + clipped.height; y++)
+            {
+                int readLen = readRow(stream, row);
+                if (readLen != row.length)
+                {
+                    LOG.warn("premature EOF, image will be incomplete");
+                    // same as the full image conversion, missing samples are set to -1
+                    Arrays.fill(row, readLen, row.length, (byte) -1);
+                }
+                if (y >= clipped.y && (y - clipped.y) % subsampling == 0)
+                {
+                    for (int x = clipped.x; x < clipped.x + clipped.width; x += subsampling)
+                    {
+                        for (int c = 0; c < numComponents; c++)
+                        {
+                            banks[c][idx] = row[x * numComponents + c];
+                        }
+                        idx++;
+                    }
+                }
+                if (readLen != row.length)
+                {
+                    for (int c = 0; c < numComponents; c++)
+                    {
+                        Arrays.fill(banks[c], idx, banks[c].length, (byte) -1);
+                    }
+                    break;
+                }
+            }
+        }
+
+        // use the color space to convert the image to RGB
+        return pdImage.getColorSpace().toRGBImage(raster);
+    }
+
     // slower, general-purpose image conversion from any image format
-    private static BufferedImage fromAny(PDImage pdImage, WritableRaster raster, COSArray colorKey)
-            throws IOException
+    private static BufferedImage fromAny(PDImage pdImage, WritableRaster raster, COSArray colorKey,
+            Rectangle clipped, int subsampling) throws IOException
     {
         final PDColorSpace colorSpace = pdImage.getColorSpace();
         final int numComponents = colorSpace.getNumberOfComponents();
         final int width = pdImage.getWidth();
-        final int height = pdImage.getHeight();
         final int bitsPerComponent = pdImage.getBitsPerComponent();
         final float[] decode = getDecodeArray(pdImage);
 
@@ -338,7 +437,8 @@ final class SampledImageReader
             if (colorKey != null)
             {
                 colorKeyRanges = colorKey.toFloatArray();
-                colorKeyMask = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+                colorKeyMask = new BufferedImage(raster.getWidth(), raster.getHeight(),
+                        BufferedImage.TYPE_BYTE_GRAY);
             }
 
             // calculate row padding
@@ -347,12 +447,21 @@ final class SampledImageReader
             {
                 padding = 8 - (width * numComponents * bitsPerComponent % 8);
             }
+            final int rowLen = (width * numComponents * bitsPerComponent + padding) / 8;
 
             // read stream
             byte[] srcColorValues = new byte[numComponents];
             byte[] alpha = new byte[1];
-            for (int y = 0; y < height; y++)
+            // rows after the region are not read
+            for (int y = 0; y < clipped.y + clipped.height; y++)
             {
+                if (y < clipped.y || (y - clipped.y) % subsampling != 0)
+                {
+                    // rows are padded to the nearest byte
+                    iis.skipBytes(rowLen);
+                    continue;
+                }
+                int outputY = (y - clipped.y) / subsampling;
                 for (int x = 0; x < width; x++)
                 {
                     boolean isMasked = true;
@@ -391,13 +500,18 @@ final class SampledImageReader
                             srcColorValues[c] = (byte) outputByte;
                         }
                     }
-                    raster.setDataElements(x, y, srcColorValues);
-
-                    // set alpha channel in color key mask, if any
-                    if (colorKeyMask != null)
+                    if (x >= clipped.x && x < clipped.x + clipped.width
+                            && (x - clipped.x) % subsampling == 0)
                     {
-                        alpha[0] = (byte) (isMasked ? 255 : 0);
-                        colorKeyMask.getRaster().setDataElements(x, y, alpha);
+                        int outputX = (x - clipped.x) / subsampling;
+                        raster.setDataElements(outputX, outputY, srcColorValues);
+
+                        // set alpha channel in color key mask, if any
+                        if (colorKeyMask != null)
+                        {
+                            alpha[0] = (byte) (isMasked ? 255 : 0);
+                            colorKeyMask.getRaster().setDataElements(outputX, outputY, alpha);
+                        }
                     }
                 }
 
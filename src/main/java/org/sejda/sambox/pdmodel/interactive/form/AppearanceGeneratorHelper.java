@@ -18,6 +18,7 @@ package org.sejda.sambox.pdmodel.interactive.form;
 
 import static java.util.Arrays.asList;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
 import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
 import static org.sejda.io.CountingWritableByteChannel.from;
@@ -27,8 +28,10 @@ import java.awt.geom.Point2D;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.sejda.sambox.contentstream.operator.Operator;
 import org.sejda.sambox.cos.COSName;
@@ -65,9 +68,11 @@ public class AppearanceGeneratorHelper
     private static final Operator EMC = Operator.getOperator("EMC");
 
     private final PDVariableText field;
+    private final DefaultAppearances defaultAppearances;
 
     private PDDefaultAppearanceString defaultAppearance;
     private String value;
+    private final List<WidgetAppearance> prepared = new ArrayList<>();
 
     /**
      * The highlight color
@@ -100,12 +105,30 @@ public class AppearanceGeneratorHelper
      * @throws IOException
      */
     public AppearanceGeneratorHelper(PDVariableText field) throws IOException
+    {
+        this(field, new DefaultAppearances());
+    }
+
+    /**
+     * Constructs a COSAppearance from the given field using the given cache of parsed default appearance strings.
+     *
+     * @param field the field which you wish to control the appearance of
+     * @param defaultAppearances
+     * @throws IOException
+     */
+    AppearanceGeneratorHelper(PDVariableText field, DefaultAppearances defaultAppearances)
+            throws IOException
     {
         this.field = field;
-        validateAndEnsureAcroFormResources();
+        this.defaultAppearances = defaultAppearances;
+        if (validateAndEnsureAcroFormResources())
+        {
+            // fonts in the DR changed, cached default appearances might be resolved differently now
+            defaultAppearances.clear();
+        }
         try
         {
-            this.defaultAppearance = field.getDefaultAppearanceString();
+            this.defaultAppearance = field.getDefaultAppearanceString(defaultAppearances);
         }
         catch (IOException ex)
         {
@@ -118,16 +141,19 @@ public class AppearanceGeneratorHelper
 
     /*
      * Adobe Reader/Acrobat are adding resources which are at the field/widget level to the AcroForm level.
+     * 
+     * @return true if any font has been added to the AcroForm resources
      */
-    private void validateAndEnsureAcroFormResources()
+    private boolean validateAndEnsureAcroFormResources()
     {
         // add font resources which might be available at the field
         // level but are not at the AcroForm level to the AcroForm
         // to match Adobe Reader/Acrobat behavior
         if (field.getAcroForm().getDefaultResources() == null)
         {
-            return;
+            return false;
         }
+        boolean added = false;
 
         PDResources acroFormResources = field.getAcroForm().getDefaultResources();
 
@@ -160,9 +186,11 @@ public class AppearanceGeneratorHelper
                 for (COSName key : missingFonts.keySet())
                 {
                     acroFormResources.put(key, missingFonts.get(key));
+                    added = true;
                 }
             }
         }
+        return added;
     }
 
     /**
@@ -173,6 +201,20 @@ public class AppearanceGeneratorHelper
      */
     public void setAppearanceValue(String apValue) throws IOException
     {
+        prepareAppearanceValue(apValue);
+        writeAppearances();
+    }
+
+    /**
+     * Sets the value the appearance should represent and prepares the appearance streams of the widgets, creating them
+     * and copying the needed resources. The content of the streams is not generated, see {@link #writeAppearances()}.
+     *
+     * @param apValue the String value which the appearance should represent
+     * @throws IOException If there is an error preparing the streams.
+     */
+    void prepareAppearanceValue(String apValue) throws IOException
+    {
+        prepared.clear();
         value = apValue;
         
         if(field instanceof PDTextField)
@@ -198,11 +240,11 @@ public class AppearanceGeneratorHelper
         {
             // some fields have the /Da at the widget level if the
             // widgets differ in layout.
-            PDDefaultAppearanceString acroFormAppearance = defaultAppearance;
+            PDDefaultAppearanceString widgetAppearance = defaultAppearance;
 
             if (widget.getCOSObject().getDictionaryObject(COSName.DA) != null)
             {
-                defaultAppearance = getWidgetDefaultAppearanceString(widget);
+                widgetAppearance = getWidgetDefaultAppearanceString(widget);
             }
 
             PDRectangle rect = widget.getRectangle();
@@ -247,18 +289,81 @@ public class AppearanceGeneratorHelper
                  * characteristics entry (the widget dictionaries MK entry). In addition if there is no content yet also
                  * create the apperance stream from the entries.
                  */
-                if (widget.getAppearanceCharacteristics() != null
-                        || appearanceStream.getContentStream().getLength() == 0)
+                boolean initialize = widget.getAppearanceCharacteristics() != null
+                        || appearanceStream.getContentStream().getLength() == 0;
+
+                // copy any needed resources from the document’s DR dictionary into
+                // the stream’s Resources dictionary
+                widgetAppearance.copyNeededResourcesTo(appearanceStream);
+
+                // field's defined appearance font has priority
+                // callers might have determined that the default font does not support rendering the field's value
+                // so the font was substituted to another one, which has better unicode support
+                // see PDVariableText.setAppearanceOverrideFont()
+                PDFont font = ofNullable(field.getAppearanceOverrideFont())
+                        .orElseGet(() -> defaultAppearance.getFont());
+                if (isNull(font))
+                {
+                    font = widgetAppearance.getFont();
+                }
+                if (nonNull(font))
                 {
-                    initializeAppearanceContent(widget, appearanceStream);
+                    // so that writing the content doesn't modify the resources
+                    appearanceStream.getResources().add(font);
                 }
-                setAppearanceContent(widget, appearanceStream);
+                prepared.add(new WidgetAppearance(widget, appearanceStream, widgetAppearance, font,
+                        initialize));
+            }
+        }
+    }
+
+    /**
+     * Generates the content of the appearance streams prepared by {@link #prepareAppearanceValue(String)}. Fields and
+     * resources are not modified, only the content of the streams.
+     *
+     * @throws IOException If there is an error writing the streams.
+     */
+    void writeAppearances() throws IOException
+    {
+        for (WidgetAppearance appearance : prepared)
+        {
+            if (appearance.initialize)
+            {
+                initializeAppearanceContent(appearance.widget, appearance.stream);
             }
-            // restore the field level appearance;
-            defaultAppearance = acroFormAppearance;
+            setAppearanceContent(appearance);
         }
     }
 
+    /**
+     * @return the fonts used by the prepared appearances
+     */
+    Set<PDFont> fonts()
+    {
+        Set<PDFont> fonts = new LinkedHashSet<>();
+        for (WidgetAppearance appearance : prepared)
+        {
+            if (nonNull(appearance.font))
+            {
+                fonts.add(appearance.font);
+            }
+        }
+        return fonts;
+    }
+
+    /**
+     * @return the prepared appearance streams
+     */
+    List<PDAppearanceStream> appearanceStreams()
+    {
+        List<PDAppearanceStream> streams = new ArrayList<>(prepared.size());
+        for (WidgetAppearance appearance : prepared)
+        {
+            streams.add(appearance.stream);
+        }
+        return streams;
+    }
+
     private static boolean isValidAppearanceStream(PDAppearanceEntry appearance)
     {
         if (isNull(appearance) || !appearance.isStream())
@@ -305,7 +410,7 @@ public class AppearanceGeneratorHelper
         PDResources dr = field.getAcroForm().getDefaultResources();
         try
         {
-            return new PDDefaultAppearanceString(da, dr);
+            return defaultAppearances.get(da, dr);
         }
         catch (IOException ex)
         {
@@ -401,20 +506,15 @@ public class AppearanceGeneratorHelper
     /**
      * Constructs and sets new contents for given appearance stream.
      */
-    private void setAppearanceContent(PDAnnotationWidget widget,
-            PDAppearanceStream appearanceStream) throws IOException
+    private void setAppearanceContent(WidgetAppearance appearance) throws IOException
     {
-        // first copy any needed resources from the document’s DR dictionary into
-        // the stream’s Resources dictionary
-        defaultAppearance.copyNeededResourcesTo(appearanceStream);
-
-        // then replace the existing contents of the appearance stream from /Tx BMC
+        // replace the existing contents of the appearance stream from /Tx BMC
         // to the matching EMC
         try (ContentStreamWriter writer = new ContentStreamWriter(
-                from(appearanceStream.getCOSObject().createUnfilteredStream())))
+                from(appearance.stream.getCOSObject().createUnfilteredStream())))
         {
 
-            List<Object> tokens = tokenize(appearanceStream);
+            List<Object> tokens = tokenize(appearance.stream);
             int bmcIndex = tokens.indexOf(BMC);
             if (bmcIndex == -1)
             {
@@ -429,7 +529,7 @@ public class AppearanceGeneratorHelper
             }
 
             // insert field contents
-            insertGeneratedAppearance(widget, appearanceStream, writer);
+            insertGeneratedAppearance(appearance, writer);
 
             int emcIndex = tokens.indexOf(EMC);
             if (emcIndex == -1)
@@ -448,9 +548,12 @@ public class AppearanceGeneratorHelper
     /**
      * Generate and insert text content and clipping around it.
      */
-    private void insertGeneratedAppearance(PDAnnotationWidget widget,
-            PDAppearanceStream appearanceStream, ContentStreamWriter writer) throws IOException
+    private void insertGeneratedAppearance(WidgetAppearance appearance, ContentStreamWriter writer)
+            throws IOException
     {
+        PDAnnotationWidget widget = appearance.widget;
+        PDAppearanceStream appearanceStream = appearance.stream;
+        PDDefaultAppearanceString defaultAppearance = appearance.defaultAppearance;
         PDPageContentStream contents = new PDPageContentStream(field.getAcroForm().getDocument(),
                 appearanceStream, writer);
 
@@ -474,13 +577,8 @@ public class AppearanceGeneratorHelper
                 clipRect.getHeight());
         contents.clip();
 
-        // get the font
-        // field's defined appearance font has priority
-        // callers might have determined that the default font does not support rendering the field's value
-        // so the font was substituted to another one, which has better unicode support
-        // see PDVariableText.setAppearanceOverrideFont()
-        PDFont font = ofNullable(field.getAppearanceFont())
-                .orElseGet(() -> defaultAppearance.getFont());
+        // get the font resolved when the appearance was prepared
+        PDFont font = appearance.font;
 
         requireNotNullArg(font, "font is null, check whether /DA entry is incomplete or incorrect");
         if (font.getName().contains("+"))
@@ -914,4 +1012,26 @@ public class AppearanceGeneratorHelper
         return new PDRectangle(box.getLowerLeftX() + padding, box.getLowerLeftY() + padding,
                 box.getWidth() - 2 * padding, box.getHeight() - 2 * padding);
     }
+
+    /**
+     * The appearance stream of a widget prepared to be written
+     */
+    private static final class WidgetAppearance
+    {
+        private final PDAnnotationWidget widget;
+        private final PDAppearanceStream stream;
+        private final PDDefaultAppearanceString defaultAppearance;
+        private final PDFont font;
+        private final boolean initialize;
+
+        WidgetAppearance(PDAnnotationWidget widget, PDAppearanceStream stream,
+                PDDefaultAppearanceString defaultAppearance, PDFont font, boolean initialize)
+        {
+            this.widget = widget;
+            this.stream = stream;
+            this.defaultAppearance = defaultAppearance;
+            this.font = font;
+            this.initialize = initialize;
+        }
+    }
 }
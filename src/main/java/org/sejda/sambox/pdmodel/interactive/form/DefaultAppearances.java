@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.interactive.form;
+
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sejda.sambox.cos.COSString;
+import org.sejda.sambox.pdmodel.PDResources;
+
+/**
+ * Cache of parsed default appearance strings (/DA) to be used while generating the appearances of many fields, so that
+ * fields with the same /DA share the parsed string and the resolved font.
+ *
+ * @author Andrea Vacondio
+ */
+final class DefaultAppearances
+{
+    private final Map<String, PDDefaultAppearanceString> cache = new HashMap<>();
+
+    /**
+     * @param defaultAppearance the DA entry
+     * @param defaultResources the DR entry, it's expected to be the same for every call until the cache is cleared
+     * @return the parsed default appearance string
+     * @throws IOException If the DA could not be parsed
+     */
+    PDDefaultAppearanceString get(COSString defaultAppearance, PDResources defaultResources)
+            throws IOException
+    {
+        String key = null;
+        if (nonNull(defaultAppearance))
+        {
+            key = new String(defaultAppearance.getBytes(), StandardCharsets.ISO_8859_1);
+        }
+        PDDefaultAppearanceString parsed = cache.get(key);
+        if (parsed == null)
+        {
+            parsed = new PDDefaultAppearanceString(defaultAppearance, defaultResources);
+            cache.put(key, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Clears the cache, it has to be called when the default resources change
+     */
+    void clear()
+    {
+        cache.clear();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.interactive.form;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the fields of a form by fully qualified name and by partial name. Fields are kept in pre-order, the same
+ * order of {@link PDFieldTree#stream()}, so that when more fields have the same name the first one is the one a visit
+ * of the tree would find first.
+ *
+ * @author Andrea Vacondio
+ */
+final class FieldsIndex
+{
+    private final Map<String, List<PDField>> byFullyQualifiedName = new HashMap<>();
+    private final Map<String, List<PDField>> byPartialName = new HashMap<>();
+
+    /**
+     * @param form
+     * @return an index of all the fields of the given form
+     */
+    static FieldsIndex of(PDAcroForm form)
+    {
+        FieldsIndex index = new FieldsIndex();
+        for (PDField field : form.getFields())
+        {
+            index.add(field);
+        }
+        return index;
+    }
+
+    /**
+     * Adds the given field and all its descendants to the index
+     */
+    void add(PDField field)
+    {
+        add(field, nameOf(field.getParent()));
+    }
+
+    private void add(PDField field, String parentName)
+    {
+        String name = qualified(parentName, field.getPartialName());
+        put(byFullyQualifiedName, name, field);
+        put(byPartialName, field.getPartialName(), field);
+        if (field instanceof PDNonTerminalField)
+        {
+            for (PDField kid : ((PDNonTerminalField) field).getChildren())
+            {
+                add(kid, name);
+            }
+        }
+    }
+
+    /**
+     * Removes the given field and all its descendants from the index
+     */
+    void remove(PDField field)
+    {
+        remove(field, nameOf(field.getParent()));
+    }
+
+    private void remove(PDField field, String parentName)
+    {
+        String name = qualified(parentName, field.getPartialName());
+        delete(byFullyQualifiedName, name, field);
+        delete(byPartialName, field.getPartialName(), field);
+        if (field instanceof PDNonTerminalField)
+        {
+            for (PDField kid : ((PDNonTerminalField) field).getChildren())
+            {
+                remove(kid, name);
+            }
+        }
+    }
+
+    /**
+     * @return the first field with the given fully qualified name or null
+     */
+    PDField byFullyQualifiedName(String name)
+    {
+        List<PDField> fields = byFullyQualifiedName.get(name);
+        if (nonNull(fields))
+        {
+            return fields.get(0);
+        }
+        return null;
+    }
+
+    /**
+     * @return the fields with the given partial name, in pre-order
+     */
+    List<PDField> byPartialName(String name)
+    {
+        return Collections.unmodifiableList(
+                byPartialName.getOrDefault(name, Collections.emptyList()));
+    }
+
+    private static String nameOf(PDField field)
+    {
+        if (nonNull(field))
+        {
+            return field.getFullyQualifiedName();
+        }
+        return null;
+    }
+
+    // same as PDField#getFullyQualifiedName but without walking up the parents
+    private static String qualified(String parentName, String partialName)
+    {
+        if (isNull(parentName))
+        {
+            return partialName;
+        }
+        if (isNull(partialName))
+        {
+            return parentName;
+        }
+        return parentName + "." + partialName;
+    }
+
+    private static void put(Map<String, List<PDField>> map, String name, PDField field)
+    {
+        if (nonNull(name))
+        {
+            map.computeIfAbsent(name, k -> new ArrayList<>(1)).add(field);
+        }
+    }
+
+    private static void delete(Map<String, List<PDField>> map, String name, PDField field)
+    {
+        List<PDField> fields = map.get(name);
+        if (nonNull(fields))
+        {
+            fields.removeIf(f -> f.getCOSObject() == field.getCOSObject());
+            if (fields.isEmpty())
+            {
+                map.remove(name);
+            }
+        }
+    }
+}
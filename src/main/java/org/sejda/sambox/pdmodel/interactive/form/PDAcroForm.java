@@ -19,15 +19,25 @@ package org.sejda.sambox.pdmodel.interactive.form;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
+import static org.sejda.commons.util.RequireUtils.requireArg;
+import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
+import static org.sejda.sambox.util.ConcurrentUtils.await;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.stream.Collectors;
 
 import org.sejda.sambox.cos.COSArray;
@@ -43,6 +53,7 @@ import org.sejda.sambox.pdmodel.PDPageContentStream.AppendMode;
 import org.sejda.sambox.pdmodel.PDResources;
 import org.sejda.sambox.pdmodel.common.PDDictionaryWrapper;
 import org.sejda.sambox.pdmodel.common.PDRectangle;
+import org.sejda.sambox.pdmodel.font.PDFont;
 import org.sejda.sambox.pdmodel.font.PDType1Font;
 import org.sejda.sambox.pdmodel.graphics.PDXObject;
 import org.sejda.sambox.pdmodel.graphics.form.PDFormXObject;
@@ -66,6 +77,9 @@ public final class PDAcroForm extends PDDictionaryWrapper
     private static final int FLAG_APPEND_ONLY = 1 << 1;
 
     private final PDDocument document;
+    private boolean cacheFields = false;
+    private FieldsIndex fieldsIndex;
+    private boolean filling = false;
 
     /**
      * @param doc The document that this form is part of.
@@ -323,13 +337,12 @@ public final class PDAcroForm extends PDDictionaryWrapper
      */
     public void refreshAppearances() throws IOException
     {
+        List<PDField> fields = new ArrayList<>();
         for (PDField field : getFieldTree())
         {
-            if (field instanceof PDTerminalField)
-            {
-                ((PDTerminalField) field).constructAppearances();
-            }
+            fields.add(field);
         }
+        refreshAppearances(fields);
     }
 
     /**
@@ -339,13 +352,147 @@ public final class PDAcroForm extends PDDictionaryWrapper
      */
     public void refreshAppearances(List<PDField> fields) throws IOException
     {
+        refreshAppearances(fields, Runnable::run);
+    }
+
+    /**
+     * Refreshes the appearance streams and appearance dictionaries for the widget annotations of the specified fields,
+     * generating the content of the appearance streams concurrently using the given executor.
+     * <p>
+     * Fields and resources are updated on the calling thread, default appearance strings (/DA) are parsed once for all
+     * the fields sharing them and only the content of the appearance streams is generated by the executor. Fields using
+     * the same font are processed by the same task, since fonts are not thread safe, so the more fonts the form uses the
+     * more the work can be spread. Fields using more than one font or sharing appearance streams with other fields are
+     * processed on the calling thread once the executor tasks are done.
+     * </p>
+     *
+     * @param fields
+     * @param executor the executor generating the content of the appearance streams
+     * @throws IOException
+     */
+    public void refreshAppearances(List<PDField> fields, Executor executor) throws IOException
+    {
+        requireNotNullArg(executor, "Executor cannot be null");
+        DefaultAppearances defaultAppearances = new DefaultAppearances();
+        Map<PDFont, List<AppearanceGeneratorHelper>> byFont = new LinkedHashMap<>();
+        List<AppearanceGeneratorHelper> remaining = new ArrayList<>();
+        Set<COSBase> streams = Collections.newSetFromMap(new IdentityHashMap<>());
         for (PDField field : fields)
         {
-            if (field instanceof PDTerminalField)
+            if (field instanceof PDVariableText)
+            {
+                AppearanceGeneratorHelper helper = ((PDVariableText) field)
+                        .prepareAppearances(defaultAppearances);
+                boolean shared = false;
+                for (PDAppearanceStream stream : helper.appearanceStreams())
+                {
+                    shared |= !streams.add(stream.getCOSObject());
+                }
+                Set<PDFont> fonts = helper.fonts();
+                if (fonts.size() == 1 && !shared)
+                {
+                    byFont.computeIfAbsent(fonts.iterator().next(), k -> new ArrayList<>())
+                            .add(helper);
+                }
+                else
+                {
+                    remaining.add(helper);
+                }
+            }
+            else if (field instanceof PDTerminalField)
             {
                 ((PDTerminalField) field).constructAppearances();
             }
         }
+        List<Future<Void>> pending = new ArrayList<>(byFont.size());
+        try
+        {
+            for (List<AppearanceGeneratorHelper> helpers : byFont.values())
+            {
+                FutureTask<Void> task = new FutureTask<>(() -> {
+                    for (AppearanceGeneratorHelper helper : helpers)
+                    {
+                        helper.writeAppearances();
+                    }
+                    return null;
+                });
+                pending.add(task);
+                executor.execute(task);
+            }
+            for (Future<Void> task : pending)
+            {
+                await(task);
+            }
+        }
+        finally
+        {
+            pending.forEach(f -> f.cancel(true));
+        }
+        for (AppearanceGeneratorHelper helper : remaining)
+        {
+            helper.writeAppearances();
+        }
+    }
+
+    /**
+     * Fills the form setting the given values to the fields with the given fully qualified names. Values are set first,
+     * without generating appearances, then the appearances of all the filled fields are generated at once as
+     * {@link #refreshAppearances(List, Executor)} does.
+     *
+     * @param values the values by fully qualified name of the field
+     * @param executor the executor generating the content of the appearance streams
+     * @throws IOException if a value couldn't be set or the appearances couldn't be generated
+     * @throws IllegalArgumentException if there is no field with one of the given names
+     */
+    public void fill(Map<String, String> values, Executor executor) throws IOException
+    {
+        requireNotNullArg(values, "Values cannot be null");
+        FieldsIndex index = cacheFields ? fieldsIndex() : FieldsIndex.of(this);
+        Map<PDField, String> fields = new LinkedHashMap<>();
+        for (Map.Entry<String, String> value : values.entrySet())
+        {
+            PDField field = index.byFullyQualifiedName(value.getKey());
+            requireArg(nonNull(field), "Unable to find field " + value.getKey());
+            fields.put(field, value.getValue());
+        }
+        Map<COSDictionary, PDField> terminals = new LinkedHashMap<>();
+        filling = true;
+        try
+        {
+            for (Map.Entry<PDField, String> field : fields.entrySet())
+            {
+                field.getKey().setValue(field.getValue());
+                addTerminals(field.getKey(), terminals);
+            }
+        }
+        finally
+        {
+            filling = false;
+        }
+        refreshAppearances(new ArrayList<>(terminals.values()), executor);
+    }
+
+    private static void addTerminals(PDField field, Map<COSDictionary, PDField> terminals)
+    {
+        if (field instanceof PDNonTerminalField)
+        {
+            for (PDField kid : ((PDNonTerminalField) field).getChildren())
+            {
+                addTerminals(kid, terminals);
+            }
+        }
+        else
+        {
+            terminals.putIfAbsent(field.getCOSObject(), field);
+        }
+    }
+
+    /**
+     * @return true while the form is being filled with {@link #fill(Map, Executor)}
+     */
+    boolean isFilling()
+    {
+        return filling;
     }
 
     /**
@@ -392,6 +539,10 @@ public final class PDAcroForm extends PDDictionaryWrapper
         for (PDField field : toAdd)
         {
             fields.add(field);
+            if (nonNull(fieldsIndex))
+            {
+                fieldsIndex.add(field);
+            }
         }
         getCOSObject().setItem(COSName.FIELDS, fields);
     }
@@ -409,6 +560,10 @@ public final class PDAcroForm extends PDDictionaryWrapper
             int removeIdx = fields.indexOfObject(remove.getCOSObject());
             if (removeIdx >= 0)
             {
+                if (nonNull(fieldsIndex))
+                {
+                    fieldsIndex.remove(remove);
+                }
                 return fields.remove(removeIdx);
             }
         }
@@ -423,6 +578,7 @@ public final class PDAcroForm extends PDDictionaryWrapper
     public void setFields(List<PDField> fields)
     {
         getCOSObject().setItem(COSName.FIELDS, COSArrayList.converterToCOSArray(fields));
+        fieldsIndex = null;
     }
 
     /**
@@ -442,7 +598,7 @@ public final class PDAcroForm extends PDDictionaryWrapper
     }
 
     /**
-     * This will get a field by name, possibly using the cache if setCache is true.
+     * This will get a field by name, possibly using the cache if {@link #setCacheFields(boolean)} is true.
      *
      * @param fullyQualifiedName The name of the field to get.
      * @return The field with that name of null if one was not found.
@@ -453,12 +609,78 @@ public final class PDAcroForm extends PDDictionaryWrapper
         {
             return null;
         }
-
+        if (cacheFields)
+        {
+            return fieldsIndex().byFullyQualifiedName(fullyQualifiedName);
+        }
         return getFieldTree().stream()
                 .filter(f -> f != null && fullyQualifiedName.equals(f.getFullyQualifiedName()))
                 .findFirst().orElse(null);
     }
 
+    /**
+     * Gets the fields with the given partial name, possibly using the cache if {@link #setCacheFields(boolean)} is
+     * true. Partial names are not unique, fields are returned in the same order of {@link PDFieldTree#stream()}.
+     *
+     * @param partialName
+     * @return the fields with the given partial name or an empty list if none is found.
+     */
+    public List<PDField> getFieldsByPartialName(String partialName)
+    {
+        if (partialName == null)
+        {
+            return new ArrayList<>();
+        }
+        if (cacheFields)
+        {
+            return new ArrayList<>(fieldsIndex().byPartialName(partialName));
+        }
+        return getFieldTree().stream().filter(f -> partialName.equals(f.getPartialName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Enables or disables an index of the fields by fully qualified name and by partial name, used by
+     * {@link #getField(String)} and {@link #getFieldsByPartialName(String)}. The index is lazily built on the first
+     * lookup, it's kept up to date by {@link #addFields(Collection)}, {@link #removeField(PDField)} and
+     * {@link #setFields(List)} and discarded when the tree changes through {@link PDNonTerminalField} or
+     * {@link PDField#setPartialName(String)}. Changes made directly to the underlying COS objects are not tracked,
+     * calling this method again discards the index so that it's built again on the next lookup.
+     *
+     * @param cacheFields true to enable the index
+     */
+    public void setCacheFields(boolean cacheFields)
+    {
+        this.cacheFields = cacheFields;
+        this.fieldsIndex = null;
+    }
+
+    /**
+     * @return true if fields lookups use an index
+     * @see #setCacheFields(boolean)
+     */
+    public boolean isCachingFields()
+    {
+        return cacheFields;
+    }
+
+    private FieldsIndex fieldsIndex()
+    {
+        if (isNull(fieldsIndex))
+        {
+            fieldsIndex = FieldsIndex.of(this);
+        }
+        return fieldsIndex;
+    }
+
+    /**
+     * Discards the fields index, if any, because the fields tree has changed
+     */
+    void fieldsTreeChanged()
+    {
+        fieldsIndex = null;
+    }
+
     /**
      * @return the DA element of the dictionary object or null if nothing is defined
      */
@@ -479,7 +479,4 @@ public abstract class PDChoice extends PDVariableText
         Collections.sort(indices);
         setSelectedOptionsIndex(indices);
     }
-
-    @Override
-    abstract void constructAppearances() throws IOException;
 }
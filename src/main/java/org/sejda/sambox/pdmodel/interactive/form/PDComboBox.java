@@ -16,7 +16,6 @@
  */
 package org.sejda.sambox.pdmodel.interactive.form;
 
-import java.io.IOException;
 import java.util.List;
 
 import org.sejda.sambox.cos.COSDictionary;
@@ -76,19 +75,14 @@ public final class PDComboBox extends PDChoice
     }
 
     @Override
-    void constructAppearances() throws IOException
+    String getAppearanceValue()
     {
-        AppearanceGeneratorHelper apHelper;
-        apHelper = new AppearanceGeneratorHelper(this);
         List<String> values = getValue();
 
         if (!values.isEmpty())
         {
-            apHelper.setAppearanceValue(values.get(0));
-        }
-        else
-        {
-            apHelper.setAppearanceValue("");
+            return values.get(0);
         }
+        return "";
     }
 }
@@ -16,6 +16,7 @@
  */
 package org.sejda.sambox.pdmodel.interactive.form;
 
+import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
 
 import java.io.IOException;
@@ -291,6 +292,15 @@ public abstract class PDField extends PDDictionaryWrapper
     public void setPartialName(String name)
     {
         getCOSObject().setString(COSName.T, name);
+        fieldsTreeChanged();
+    }
+
+    void fieldsTreeChanged()
+    {
+        if (nonNull(acroForm))
+        {
+            acroForm.fieldsTreeChanged();
+        }
     }
 
     /**
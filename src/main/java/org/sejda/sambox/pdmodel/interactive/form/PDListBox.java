@@ -16,8 +16,6 @@
  */
 package org.sejda.sambox.pdmodel.interactive.form;
 
-import java.io.IOException;
-
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
 
@@ -78,10 +76,8 @@ public final class PDListBox extends PDChoice
     }
 
     @Override
-    void constructAppearances() throws IOException
+    String getAppearanceValue()
     {
-        AppearanceGeneratorHelper apHelper;
-        apHelper = new AppearanceGeneratorHelper(this);
-        apHelper.setAppearanceValue("");
+        return "";
     }
 }
@@ -124,6 +124,7 @@ public class PDNonTerminalField extends PDField
     public void setChildren(List<PDField> children)
     {
         getCOSObject().setItem(COSName.KIDS, COSArrayList.converterToCOSArray(children));
+        fieldsTreeChanged();
     }
 
     /**
@@ -143,6 +144,7 @@ public class PDNonTerminalField extends PDField
             kids.add(field);
             field.getCOSObject().setItem(COSName.PARENT, this);
             getCOSObject().setItem(COSName.KIDS, kids);
+            fieldsTreeChanged();
         }
     }
 
@@ -160,6 +162,7 @@ public class PDNonTerminalField extends PDField
             int removeIdx = kids.indexOfObject(field.getCOSObject());
             if (removeIdx >= 0)
             {
+                fieldsTreeChanged();
                 return kids.remove(removeIdx);
             }
         }
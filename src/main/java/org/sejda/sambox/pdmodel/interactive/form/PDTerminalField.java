@@ -163,13 +163,19 @@ public abstract class PDTerminalField extends PDField
     }
 
     /**
-     * Applies a value change to the field. Generates appearances if required and raises events.
+     * Applies a value change to the field. Generates appearances if required and raises events. Appearances are not
+     * generated while the form is being filled with
+     * {@link PDAcroForm#fill(java.util.Map, java.util.concurrent.Executor)}, they are generated for all the fields at
+     * the end.
      * 
      * @throws IOException if the appearance couldn't be generated
      */
     public final void applyChange() throws IOException
     {
-        constructAppearances();
+        if (isNull(getAcroForm()) || !getAcroForm().isFilling())
+        {
+            constructAppearances();
+        }
         // if we supported JavaScript we would raise a field changed event here
     }
 
@@ -257,10 +257,8 @@ public final class PDTextField extends PDVariableText
     }
     
     @Override
-    void constructAppearances() throws IOException
+    String getAppearanceValue()
     {
-        AppearanceGeneratorHelper apHelper;
-        apHelper = new AppearanceGeneratorHelper(this);
-        apHelper.setAppearanceValue(getValue());
+        return getValue();
     }
 }
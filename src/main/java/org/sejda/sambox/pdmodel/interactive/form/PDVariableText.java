@@ -93,12 +93,23 @@ public abstract class PDVariableText extends PDTerminalField
      * @return the DA element of the dictionary object
      */
     PDDefaultAppearanceString getDefaultAppearanceString() throws IOException
+    {
+        return getDefaultAppearanceString(new DefaultAppearances());
+    }
+
+    /**
+     * @param defaultAppearances cache of the already parsed default appearances
+     * @return the DA element of the dictionary object
+     * @see #getDefaultAppearanceString()
+     */
+    PDDefaultAppearanceString getDefaultAppearanceString(DefaultAppearances defaultAppearances)
+            throws IOException
     {
         try
         {
             COSString da = DefaultAppearanceHelper.getDefaultAppearance(this);
             PDResources dr = getAcroForm().getDefaultResources();
-            return new PDDefaultAppearanceString(da, dr);
+            return defaultAppearances.get(da, dr);
         }
         catch (IOException ex)
         {
@@ -253,6 +264,33 @@ public abstract class PDVariableText extends PDTerminalField
         return "";
     }
 
+    @Override
+    void constructAppearances() throws IOException
+    {
+        new AppearanceGeneratorHelper(this).setAppearanceValue(getAppearanceValue());
+    }
+
+    /**
+     * Prepares the appearances of the widgets, without generating the content of the appearance streams.
+     *
+     * @param defaultAppearances cache of the already parsed default appearances
+     * @return the helper to use to generate the content of the appearance streams
+     * @throws IOException if the appearances couldn't be prepared
+     */
+    AppearanceGeneratorHelper prepareAppearances(DefaultAppearances defaultAppearances)
+            throws IOException
+    {
+        AppearanceGeneratorHelper apHelper = new AppearanceGeneratorHelper(this,
+                defaultAppearances);
+        apHelper.prepareAppearanceValue(getAppearanceValue());
+        return apHelper;
+    }
+
+    /**
+     * @return the value the appearances of the widgets should represent
+     */
+    abstract String getAppearanceValue();
+
     public PDFont getAppearanceFont()
     {
         try
@@ -18,10 +18,9 @@ package org.sejda.sambox.rendering;
 
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.sejda.sambox.pdmodel.font.PDCIDFontType0;
+import org.sejda.sambox.rendering.GlyphCache.FontGlyphs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,7 +33,7 @@ final class CIDType0Glyph2D implements Glyph2D
 {
     private static final Logger LOG = LoggerFactory.getLogger(CIDType0Glyph2D.class);
 
-    private final Map<Integer, GeneralPath> cache = new HashMap<Integer, GeneralPath>();
+    private final FontGlyphs cache;
     private final PDCIDFontType0 font;
     private final String fontName;
 
@@ -42,10 +41,12 @@ final class CIDType0Glyph2D implements Glyph2D
      * Constructor.
      *
      * @param font Type 0 CIDFont
+     * @param cache where glyph outlines are cached
      */
-    CIDType0Glyph2D(PDCIDFontType0 font) // todo: what about PDCIDFontType2?
+    CIDType0Glyph2D(PDCIDFontType0 font, FontGlyphs cache) // todo: what about PDCIDFontType2?
     {
         this.font = font;
+        this.cache = cache;
         fontName = font.getBaseFont();
     }
 
@@ -81,6 +82,6 @@ final class CIDType0Glyph2D implements Glyph2D
     @Override
     public void dispose()
     {
-        cache.clear();
+        cache.dispose();
     }
 }
@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.rendering;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.sejda.commons.util.RequireUtils.requireArg;
+
+import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
+import org.sejda.sambox.pdmodel.font.PDFont;
+
+/**
+ * A memory bounded cache of glyph outlines that can be shared by pages rendered one after the other or concurrently.
+ * Outlines are cached by font and glyph and every outline has an estimated weight in bytes, when the total weight
+ * exceeds the given maximum the least recently used outlines are evicted.
+ * <p>
+ * Only fonts that are indirect objects of a parsed document are cached here, since they are identified by their
+ * object key and document, outlines of any other font are cached by the {@link PageDrawer} drawing the page. By
+ * default every {@link PDFRenderer} has a cache of its own, the same cache can be set on multiple renderers, even of
+ * different documents, see {@link #shared()}.
+ * </p>
+ *
+ * @author Andrea Vacondio
+ */
+public final class GlyphCache
+{
+    private static final long DEFAULT_MAX_WEIGHT = 32 * 1024 * 1024;
+    // outlines are split in segments with a lock each so concurrent rendering doesn't contend on a single lock
+    private static final int SEGMENTS = 16;
+    // estimated weight of a cached entry other than the outline points and types
+    private static final int ENTRY_WEIGHT = 128;
+
+    private static volatile GlyphCache shared;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * Creates a cache bounded to the size configured with the {@link SAMBox#GLYPH_CACHE_MAX_BYTES_PROPERTY} system
+     * property
+     */
+    public GlyphCache()
+    {
+        this(Long.getLong(SAMBox.GLYPH_CACHE_MAX_BYTES_PROPERTY, DEFAULT_MAX_WEIGHT));
+    }
+
+    /**
+     * @param maxWeight max estimated weight in bytes of the cached outlines
+     */
+    public GlyphCache(long maxWeight)
+    {
+        requireArg(maxWeight > 0, "Max weight must be positive");
+        for (int i = 0; i < SEGMENTS; i++)
+        {
+            segments[i] = new Segment(Math.max(1, maxWeight / SEGMENTS));
+        }
+    }
+
+    /**
+     * @return a process wide cache, lazily created using the {@link SAMBox#GLYPH_CACHE_MAX_BYTES_PROPERTY} system
+     * property. Documents are told apart by the id of their source, for files this is the path, so the cache should
+     * be cleared if a file is replaced by a different one while the cache is in use.
+     */
+    public static GlyphCache shared()
+    {
+        if (isNull(shared))
+        {
+            synchronized (GlyphCache.class)
+            {
+                if (isNull(shared))
+                {
+                    shared = new GlyphCache();
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * @param font
+     * @return the outlines of the given font, backed by this cache if the font can be cached here or by a map private
+     * to the caller otherwise
+     */
+    FontGlyphs glyphsOf(PDFont font)
+    {
+        IndirectCOSObjectIdentifier id = font.getCOSObject().id();
+        if (nonNull(id))
+        {
+            return new SharedFontGlyphs(id);
+        }
+        return new LocalFontGlyphs();
+    }
+
+    /**
+     * Removes all the cached outlines
+     */
+    public void clear()
+    {
+        for (Segment segment : segments)
+        {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return the estimated weight in bytes of the cached outlines
+     */
+    public long weight()
+    {
+        long weight = 0;
+        for (Segment segment : segments)
+        {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    private Segment segmentFor(GlyphKey key)
+    {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    static long weightOf(GeneralPath path)
+    {
+        long weight = ENTRY_WEIGHT;
+        float[] coords = new float[6];
+        for (PathIterator iterator = path.getPathIterator(null); !iterator.isDone(); iterator
+                .next())
+        {
+            switch (iterator.currentSegment(coords))
+            {
+            case PathIterator.SEG_MOVETO:
+            case PathIterator.SEG_LINETO:
+                weight += 9;
+                break;
+            case PathIterator.SEG_QUADTO:
+                weight += 17;
+                break;
+            case PathIterator.SEG_CUBICTO:
+                weight += 25;
+                break;
+            default:
+                weight += 1;
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Outlines of a single font, by glyph. The glyph is whatever int the caller uses to identify a glyph of the font,
+     * a character code or a glyph id.
+     */
+    interface FontGlyphs
+    {
+        GeneralPath get(int glyph);
+
+        void put(int glyph, GeneralPath path);
+
+        /**
+         * Called when the caller doesn't need the outlines anymore
+         */
+        void dispose();
+    }
+
+    private class SharedFontGlyphs implements FontGlyphs
+    {
+        private final IndirectCOSObjectIdentifier font;
+
+        SharedFontGlyphs(IndirectCOSObjectIdentifier font)
+        {
+            this.font = font;
+        }
+
+        @Override
+        public GeneralPath get(int glyph)
+        {
+            GlyphKey key = new GlyphKey(font, glyph);
+            return segmentFor(key).get(key);
+        }
+
+        @Override
+        public void put(int glyph, GeneralPath path)
+        {
+            GlyphKey key = new GlyphKey(font, glyph);
+            segmentFor(key).put(key, new WeightedPath(path));
+        }
+
+        @Override
+        public void dispose()
+        {
+            // outlines are shared with other pages
+        }
+    }
+
+    private static class LocalFontGlyphs implements FontGlyphs
+    {
+        private final Map<Integer, GeneralPath> glyphs = new HashMap<>();
+
+        @Override
+        public GeneralPath get(int glyph)
+        {
+            return glyphs.get(glyph);
+        }
+
+        @Override
+        public void put(int glyph, GeneralPath path)
+        {
+            glyphs.put(glyph, path);
+        }
+
+        @Override
+        public void dispose()
+        {
+            glyphs.clear();
+        }
+    }
+
+    private static class GlyphKey
+    {
+        private final IndirectCOSObjectIdentifier font;
+        private final int glyph;
+
+        GlyphKey(IndirectCOSObjectIdentifier font, int glyph)
+        {
+            this.font = font;
+            this.glyph = glyph;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(font, glyph);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof GlyphKey))
+            {
+                return false;
+            }
+            GlyphKey other = (GlyphKey) obj;
+            return glyph == other.glyph && font.equals(other.font);
+        }
+    }
+
+    private static class WeightedPath
+    {
+        private final GeneralPath path;
+        private final long weight;
+
+        WeightedPath(GeneralPath path)
+        {
+            this.path = path;
+            this.weight = weightOf(path);
+        }
+    }
+
+    private static class Segment
+    {
+        private final long maxWeight;
+        private final LinkedHashMap<GlyphKey, WeightedPath> paths = new LinkedHashMap<>(16, 0.75f,
+                true);
+        private long weight = 0;
+
+        Segment(long maxWeight)
+        {
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized GeneralPath get(GlyphKey key)
+        {
+            WeightedPath cached = paths.get(key);
+            if (nonNull(cached))
+            {
+                return cached.path;
+            }
+            return null;
+        }
+
+        synchronized void put(GlyphKey key, WeightedPath stored)
+        {
+            WeightedPath previous = paths.put(key, stored);
+            if (nonNull(previous))
+            {
+                weight -= previous.weight;
+            }
+            weight += stored.weight;
+            Iterator<WeightedPath> iterator = paths.values().iterator();
+            while (weight > maxWeight && iterator.hasNext())
+            {
+                WeightedPath eldest = iterator.next();
+                if (eldest != stored)
+                {
+                    iterator.remove();
+                    weight -= eldest.weight;
+                }
+            }
+        }
+
+        synchronized void clear()
+        {
+            paths.clear();
+            weight = 0;
+        }
+
+        synchronized long weight()
+        {
+            return weight;
+        }
+    }
+}
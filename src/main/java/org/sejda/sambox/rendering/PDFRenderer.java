@@ -16,15 +16,26 @@
  */
 package org.sejda.sambox.rendering;
 
+import static java.util.Optional.ofNullable;
+import static org.sejda.commons.util.RequireUtils.requireArg;
+import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
+import static org.sejda.sambox.util.ConcurrentUtils.executeInOrder;
+
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.DisplayMode;
 import java.awt.Graphics2D;
 import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsDevice;
+import java.awt.Point;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
 
+import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.pdmodel.PDDocument;
 import org.sejda.sambox.pdmodel.PDPage;
@@ -65,7 +76,15 @@ public class PDFRenderer
 
     private RenderingHints renderingHints = null;
 
-    private BufferedImage pageImage;
+    private GlyphCache glyphCache = new GlyphCache();
+
+    // pages can be rendered concurrently, each thread has its own image being rendered
+    private final ThreadLocal<BufferedImage> pageImage = new ThreadLocal<>();
+    // position of the image being rendered in the whole page image, when rendering tiles
+    private final ThreadLocal<Point> pageImageOffset = new ThreadLocal<>();
+
+    // pixels rendered around each tile and then discarded
+    private static final int TILES_MARGIN = 2;
 
     /**
      * Creates a new PDFRenderer.
@@ -165,6 +184,26 @@ public class PDFRenderer
         this.renderingHints = renderingHints;
     }
 
+    /**
+     * @return the cache of glyph outlines used by this renderer
+     */
+    public GlyphCache getGlyphCache()
+    {
+        return glyphCache;
+    }
+
+    /**
+     * Sets the cache of glyph outlines used by this renderer. By default every renderer has a cache of its own, this
+     * allows to share a cache between renderers, for instance the process wide {@link GlyphCache#shared()}.
+     *
+     * @param glyphCache
+     */
+    public void setGlyphCache(GlyphCache glyphCache)
+    {
+        requireNotNullArg(glyphCache, "Glyph cache cannot be null");
+        this.glyphCache = glyphCache;
+    }
+
     /**
      * Returns the given page as an RGB image at 72 DPI
      * 
@@ -247,25 +286,152 @@ public class PDFRenderer
     public BufferedImage renderImage(int pageIndex, float scale, ImageType imageType,
             RenderDestination destination) throws IOException
     {
+        return renderImage(document.getPage(pageIndex), scale, imageType, destination);
+    }
+
+    /**
+     * Renders the pages in the given range concurrently using the given executor and delivers the images to the
+     * consumer in page order, each one as soon as it and the ones before it are rendered. The consumer is called by the
+     * calling thread, that blocks until all the pages have been delivered. Pages are rendered ahead of the consumer by
+     * at most twice the number of available processors.
+     * <p>
+     * Pages share the document and its resources. To avoid objects parsing being a bottleneck, the document should be
+     * loaded with concurrent objects resolution enabled (see {@link SAMBox#CONCURRENT_OBJECTS_RESOLUTION_PROPERTY}).
+     * Subclasses providing a custom {@link PageDrawer} must make sure it can be created concurrently.
+     * </p>
+     *
+     * @param fromPageIndex the zero-based index of the first page to render, inclusive
+     * @param toPageIndex the zero-based index of the last page to render, exclusive
+     * @param dpi the DPI (dots per inch) to render at
+     * @param imageType the type of image to render
+     * @param executor the executor rendering the pages
+     * @param consumer the consumer of the rendered pages
+     * @throws IOException if a page cannot be rendered or the consumer fails, pages not delivered yet are cancelled
+     */
+    public void renderPages(int fromPageIndex, int toPageIndex, float dpi, ImageType imageType,
+            Executor executor, RenderedPageConsumer consumer) throws IOException
+    {
+        requireArg(fromPageIndex >= 0 && fromPageIndex <= toPageIndex
+                && toPageIndex <= document.getNumberOfPages(), "Invalid pages range");
+        requireNotNullArg(executor, "Executor cannot be null");
+        requireNotNullArg(consumer, "Consumer cannot be null");
+        RenderDestination destination = ofNullable(defaultDestination)
+                .orElse(RenderDestination.EXPORT);
+        executeInOrder(IntStream.range(fromPageIndex, toPageIndex).mapToObj(i -> {
+            PDPage page = document.getPage(i);
+            return (Callable<BufferedImage>) () -> renderImage(page, dpi / 72f, imageType,
+                    destination);
+        }).iterator(), executor, (i, image) -> consumer.accept(fromPageIndex + i, image));
+    }
+
+    /**
+     * Renders the given page in tiles of the given size, possibly concurrently using the given executor, and delivers
+     * the tiles to the consumer row by row, left to right, each one as soon as it and the ones before it are rendered.
+     * The consumer is called by the calling thread, that blocks until all the tiles have been delivered. Every tile is
+     * rendered drawing the whole page clipped to the tile, so peak memory depends on the tile size and not on the page
+     * size or DPI. Tiles are rendered ahead of the consumer by at most twice the number of available processors. Tiles
+     * in the last column and row can be smaller than the given size, together tiles cover the image that
+     * {@link #renderImageWithDPI(int, float, ImageType)} would return, see {@link #getImageSizeWithDPI(int, float)}.
+     *
+     * @param pageIndex the zero-based index of the page to be rendered
+     * @param dpi the DPI (dots per inch) to render at
+     * @param imageType the type of image to render
+     * @param tileWidth the width in pixels of the tiles
+     * @param tileHeight the height in pixels of the tiles, tiles as wide as the page can be used to render in bands
+     * @param executor the executor rendering the tiles, {@code Runnable::run} renders on the calling thread
+     * @param consumer the consumer of the rendered tiles
+     * @throws IOException if a tile cannot be rendered or the consumer fails, tiles not delivered yet are cancelled
+     */
+    public void renderTiles(int pageIndex, float dpi, ImageType imageType, int tileWidth,
+            int tileHeight, Executor executor, RenderedTileConsumer consumer) throws IOException
+    {
+        requireArg(tileWidth > 0 && tileHeight > 0, "Tiles size must be positive");
+        requireNotNullArg(executor, "Executor cannot be null");
+        requireNotNullArg(consumer, "Consumer cannot be null");
+        RenderDestination destination = ofNullable(defaultDestination)
+                .orElse(RenderDestination.EXPORT);
         PDPage page = document.getPage(pageIndex);
+        float scale = dpi / 72f;
+        Dimension size = imageSize(page, scale);
+        int columns = (size.width + tileWidth - 1) / tileWidth;
+        int rows = (size.height + tileHeight - 1) / tileHeight;
+        executeInOrder(IntStream.range(0, columns * rows).mapToObj(i -> {
+            int x = (i % columns) * tileWidth;
+            int y = (i / columns) * tileHeight;
+            return (Callable<BufferedImage>) () -> renderTile(page, scale, imageType, destination,
+                    size, x, y, Math.min(tileWidth, size.width - x),
+                    Math.min(tileHeight, size.height - y));
+        }).iterator(), executor, (i, tile) -> consumer.accept((i % columns) * tileWidth,
+                (i / columns) * tileHeight, tile));
+    }
 
-        PDRectangle cropbBox = page.getCropBox();
-        float widthPt = cropbBox.getWidth();
-        float heightPt = cropbBox.getHeight();
+    /**
+     * @param pageIndex the zero-based index of the page
+     * @param dpi the DPI (dots per inch)
+     * @return the size in pixels of the image of the given page rendered at the given DPI
+     */
+    public Dimension getImageSizeWithDPI(int pageIndex, float dpi)
+    {
+        return imageSize(document.getPage(pageIndex), dpi / 72f);
+    }
 
+    private static Dimension imageSize(PDPage page, float scale)
+    {
+        PDRectangle cropbBox = page.getCropBox();
         // PDFBOX-4306 avoid single blank pixel line on the right or on the bottom
-        int widthPx = (int) Math.max(Math.floor(widthPt * scale), 1);
-        int heightPx = (int) Math.max(Math.floor(heightPt * scale), 1);
+        int widthPx = (int) Math.max(Math.floor(cropbBox.getWidth() * scale), 1);
+        int heightPx = (int) Math.max(Math.floor(cropbBox.getHeight() * scale), 1);
+        int rotationAngle = page.getRotation();
+        // swap width and height
+        if (rotationAngle == 90 || rotationAngle == 270)
+        {
+            return new Dimension(heightPx, widthPx);
+        }
+        return new Dimension(widthPx, heightPx);
+    }
 
+    private BufferedImage renderImage(PDPage page, float scale, ImageType imageType,
+            RenderDestination destination) throws IOException
+    {
+        Dimension size = imageSize(page, scale);
         // PDFBOX-4518 the maximum size (w*h) of a buffered image is limited to Integer.MAX_VALUE
-        if ((long) widthPx * (long) heightPx > Integer.MAX_VALUE)
+        if ((long) size.width * (long) size.height > Integer.MAX_VALUE)
         {
+            PDRectangle cropbBox = page.getCropBox();
             throw new IOException("Maximum size of image exceeded (w * h * scale) = "//
-                    + widthPt + " * " + heightPt + " * " + scale + " > " + Integer.MAX_VALUE);
+                    + cropbBox.getWidth() + " * " + cropbBox.getHeight() + " * " + scale + " > "
+                    + Integer.MAX_VALUE);
         }
+        return renderRegion(page, scale, imageType, destination, size, 0, 0, size.width,
+                size.height);
+    }
 
-        int rotationAngle = page.getRotation();
+    /**
+     * Renders the tile of the page image with the given position and size. Rasterizers don't necessarily compute the
+     * antialiasing of shapes crossing the image edges as they do for interior pixels (JDK 8 ones don't), so the tile is
+     * rendered with a margin and cropped, making its edges interior pixels as they are in the page image.
+     */
+    private BufferedImage renderTile(PDPage page, float scale, ImageType imageType,
+            RenderDestination destination, Dimension size, int x, int y, int width, int height)
+            throws IOException
+    {
+        int left = Math.max(0, x - TILES_MARGIN);
+        int top = Math.max(0, y - TILES_MARGIN);
+        BufferedImage image = renderRegion(page, scale, imageType, destination, size, left, top,
+                Math.min(size.width, x + width + TILES_MARGIN) - left,
+                Math.min(size.height, y + height + TILES_MARGIN) - top);
+        BufferedImage tile = new BufferedImage(width, height, image.getType());
+        image.getSubimage(x - left, y - top, width, height).copyData(tile.getRaster());
+        return tile;
+    }
 
+    /**
+     * Renders the region of the page image of the given size with the given position and size
+     */
+    private BufferedImage renderRegion(PDPage page, float scale, ImageType imageType,
+            RenderDestination destination, Dimension size, int x, int y, int width, int height)
+            throws IOException
+    {
         int bimType = imageType.toBufferedImageType();
         if (imageType != ImageType.ARGB && hasBlendMode(page))
         {
@@ -276,17 +442,9 @@ public class PDFRenderer
             bimType = BufferedImage.TYPE_INT_ARGB;
         }
 
-        // swap width and height
-        BufferedImage image;
-        if (rotationAngle == 90 || rotationAngle == 270)
-        {
-            image = new BufferedImage(heightPx, widthPx, bimType);
-        }
-        else
-        {
-            image = new BufferedImage(widthPx, heightPx, bimType);
-        }
-        pageImage = image;
+        BufferedImage image = new BufferedImage(width, height, bimType);
+        pageImage.set(image);
+        pageImageOffset.set(new Point(x, size.height - y - height));
 
         // use a transparent background if the image type supports alpha
         Graphics2D g = image.createGraphics();
@@ -300,6 +458,7 @@ public class PDFRenderer
         }
         g.clearRect(0, 0, image.getWidth(), image.getHeight());
 
+        g.translate(-x, -y);
         transform(g, page, scale, scale);
 
         // the end-user may provide a custom PageDrawer
@@ -307,8 +466,16 @@ public class PDFRenderer
                 ? createDefaultRenderingHints(g) : renderingHints;
         PageDrawerParameters parameters = new PageDrawerParameters(this, page, subsamplingAllowed,
                 destination, actualRenderingHints);
-        PageDrawer drawer = createPageDrawer(parameters);
-        drawer.drawPage(g, page.getCropBox());
+        try
+        {
+            PageDrawer drawer = createPageDrawer(parameters);
+            drawer.drawPage(g, page.getCropBox());
+        }
+        finally
+        {
+            pageImage.remove();
+            pageImageOffset.remove();
+        }
 
         g.dispose();
 
@@ -531,6 +698,46 @@ public class PDFRenderer
      */
     BufferedImage getPageImage()
     {
-        return pageImage;
+        return pageImage.get();
+    }
+
+    /**
+     * Returns the position of the lower left corner of the image returned by {@link #getPageImage()} in the whole page
+     * image, in pixels from the lower left corner of the page image. It's not (0, 0) when rendering tiles.
+     */
+    Point getPageImageOffset()
+    {
+        return ofNullable(pageImageOffset.get()).orElseGet(() -> new Point(0, 0));
+    }
+
+    /**
+     * Consumer of the tiles rendered by {@link PDFRenderer#renderTiles(int, float, ImageType, int, int, Executor,
+     * RenderedTileConsumer)}
+     */
+    @FunctionalInterface
+    public interface RenderedTileConsumer
+    {
+        /**
+         * @param x the horizontal position in pixels of the tile in the page image
+         * @param y the vertical position in pixels of the tile in the page image
+         * @param tile the rendered tile
+         * @throws IOException
+         */
+        void accept(int x, int y, BufferedImage tile) throws IOException;
+    }
+
+    /**
+     * Consumer of the pages rendered by {@link PDFRenderer#renderPages(int, int, float, ImageType, Executor,
+     * RenderedPageConsumer)}
+     */
+    @FunctionalInterface
+    public interface RenderedPageConsumer
+    {
+        /**
+         * @param pageIndex the zero-based index of the rendered page
+         * @param image the rendered page image
+         * @throws IOException
+         */
+        void accept(int pageIndex, BufferedImage image) throws IOException;
     }
 }
@@ -33,6 +33,7 @@ import java.awt.color.ColorSpace;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.geom.GeneralPath;
+import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -124,6 +125,12 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     // the graphics device to draw to, xform is the initial transform of the device (i.e. DPI)
     private Graphics2D graphics;
     private AffineTransform xform;
+    // bounds of the image the graphics draws to, null if unknown. Not asked to the graphics device configuration
+    // because JDK 8 shares it between images of the same type, returning the bounds of a different image
+    private Rectangle deviceBounds;
+    // area of the page visible in the page image, null if unknown. Transparency groups are sized to fit it, so that
+    // when rendering tiles their images are bounded by the tile rather than the page
+    private Area visibleArea;
 
     // the page box to draw (usually the crop box but may be another)
     private PDRectangle pageSize;
@@ -147,6 +154,8 @@ public class PageDrawer extends PDFGraphicsStreamEngine
 
     // glyph cache
     private final Map<PDFont, Glyph2D> fontGlyph2D = new HashMap<>();
+    // glyph outlines, possibly shared with other pages
+    private final GlyphCache glyphCache;
 
     private final TilingPaintFactory tilingPaintFactory = new TilingPaintFactory(this);
 
@@ -156,6 +165,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
 
     private final RenderDestination destination;
     private final RenderingHints renderingHints;
+    private final boolean subsamplingAllowed;
 
     static final int JAVA_VERSION = PageDrawer.getJavaVersion();
 
@@ -185,6 +195,8 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         this.renderer = parameters.getRenderer();
         this.destination = parameters.getDestination();
         this.renderingHints = parameters.getRenderingHints();
+        this.subsamplingAllowed = parameters.isSubsamplingAllowed();
+        this.glyphCache = renderer.getGlyphCache();
     }
 
     /**
@@ -254,6 +266,8 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         graphics = (Graphics2D) g;
         xform = graphics.getTransform();
         this.pageSize = pageSize;
+        BufferedImage pageImage = renderer.getPageImage();
+        deviceBounds = pageImage != null ? pageImage.getRaster().getBounds() : null;
 
         setRenderingHints();
 
@@ -262,6 +276,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
 
         // adjust for non-(0,0) crop box
         graphics.translate(-pageSize.getLowerLeftX(), -pageSize.getLowerLeftY());
+        visibleArea = visibleArea();
 
         processPage(getPage());
 
@@ -273,6 +288,29 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         graphics = null;
     }
 
+    /**
+     * @return the area of the page, in the current user space, covered by the device bounds plus a pixel margin or
+     * null if the device bounds are unknown
+     */
+    private Area visibleArea()
+    {
+        if (deviceBounds != null)
+        {
+            Rectangle bounds = new Rectangle(deviceBounds);
+            bounds.grow(1, 1);
+            try
+            {
+                return new Area(
+                        graphics.getTransform().createInverse().createTransformedShape(bounds));
+            }
+            catch (NoninvertibleTransformException e)
+            {
+                LOG.debug("Unable to find the visible area of the page", e);
+            }
+        }
+        return null;
+    }
+
     /**
      * Draws the pattern stream to the requested context.
      *
@@ -288,6 +326,10 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     {
         Graphics2D savedGraphics = graphics;
         graphics = g;
+        Rectangle savedDeviceBounds = deviceBounds;
+        deviceBounds = null;
+        Area savedVisibleArea = visibleArea;
+        visibleArea = null;
 
         GeneralPath savedLinePath = linePath;
         linePath = new GeneralPath();
@@ -307,6 +349,8 @@ public class PageDrawer extends PDFGraphicsStreamEngine
 
         flipTG = savedFlipTG;
         graphics = savedGraphics;
+        deviceBounds = savedDeviceBounds;
+        visibleArea = savedVisibleArea;
         linePath = savedLinePath;
         lastClip = savedLastClip;
         initialClip = savedInitialClip;
@@ -548,30 +592,30 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         if (font instanceof PDTrueTypeFont)
         {
             PDTrueTypeFont ttfFont = (PDTrueTypeFont) font;
-            glyph2D = new TTFGlyph2D(ttfFont); // TTF is never null
+            glyph2D = new TTFGlyph2D(ttfFont, glyphCache.glyphsOf(font)); // TTF is never null
         }
         else if (font instanceof PDType1Font)
         {
             PDType1Font pdType1Font = (PDType1Font) font;
-            glyph2D = new Type1Glyph2D(pdType1Font); // T1 is never null
+            glyph2D = new Type1Glyph2D(pdType1Font, glyphCache.glyphsOf(font)); // T1 is never null
         }
         else if (font instanceof PDType1CFont)
         {
             PDType1CFont type1CFont = (PDType1CFont) font;
-            glyph2D = new Type1Glyph2D(type1CFont);
+            glyph2D = new Type1Glyph2D(type1CFont, glyphCache.glyphsOf(font));
         }
         else if (font instanceof PDType0Font)
         {
             PDType0Font type0Font = (PDType0Font) font;
             if (type0Font.getDescendantFont() instanceof PDCIDFontType2)
             {
-                glyph2D = new TTFGlyph2D(type0Font); // TTF is never null
+                glyph2D = new TTFGlyph2D(type0Font, glyphCache.glyphsOf(font)); // TTF is never null
             }
             else if (type0Font.getDescendantFont() instanceof PDCIDFontType0)
             {
                 // a Type0 CIDFont contains CFF font
                 PDCIDFontType0 cidType0Font = (PDCIDFontType0) type0Font.getDescendantFont();
-                glyph2D = new CIDType0Glyph2D(cidType0Font); // todo: could be null (need incorporate fallback)
+                glyph2D = new CIDType0Glyph2D(cidType0Font, glyphCache.glyphsOf(font)); // todo: could be null (need incorporate fallback)
             }
         }
         else
@@ -1119,8 +1163,15 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
         else
         {
-            // draw the image
-            drawBufferedImage(pdImage.getImage(), at);
+            if (subsamplingAllowed)
+            {
+                drawVisibleImageRegion(pdImage, at);
+            }
+            else
+            {
+                // draw the image
+                drawBufferedImage(pdImage.getImage(), at);
+            }
         }
 
         if (!pdImage.getInterpolate())
@@ -1131,6 +1182,69 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         }
     }
 
+    /**
+     * Draws only the region of the image that is visible through the current clip and the device bounds, decoded with
+     * a subsampling matching the device resolution
+     */
+    private void drawVisibleImageRegion(PDImage pdImage, AffineTransform at) throws IOException
+    {
+        setClip();
+        int width = pdImage.getWidth();
+        int height = pdImage.getHeight();
+        // image pixels to device space
+        AffineTransform imageToDevice = new AffineTransform(graphics.getTransform());
+        imageToDevice.concatenate(at);
+        imageToDevice.scale(1.0 / width, -1.0 / height);
+        imageToDevice.translate(0, -height);
+
+        Rectangle region = new Rectangle(width, height);
+        // when the bounds of the device are unknown the whole image is assumed to be on it
+        Area visible = new Area(deviceBounds != null ? deviceBounds
+                : imageToDevice.createTransformedShape(region));
+        Shape clip = graphics.getClip();
+        if (clip != null)
+        {
+            visible.intersect(new Area(graphics.getTransform().createTransformedShape(clip)));
+        }
+        if (visible.isEmpty())
+        {
+            return;
+        }
+        try
+        {
+            Rectangle2D visibleBounds = imageToDevice.createInverse()
+                    .createTransformedShape(visible).getBounds2D();
+            // a margin so that interpolation at the region edges uses the same neighbours
+            int x = (int) Math.floor(visibleBounds.getMinX()) - 2;
+            int y = (int) Math.floor(visibleBounds.getMinY()) - 2;
+            region = region.intersection(new Rectangle(x, y,
+                    (int) Math.ceil(visibleBounds.getMaxX()) + 2 - x,
+                    (int) Math.ceil(visibleBounds.getMaxY()) + 2 - y));
+        }
+        catch (NoninvertibleTransformException e)
+        {
+            LOG.debug("Unable to find the visible region of the image", e);
+        }
+        if (region.isEmpty())
+        {
+            return;
+        }
+
+        // one image pixel every subsampling pixels is enough when the image is drawn at a lower resolution
+        double devicePixels = Math.abs(imageToDevice.getDeterminant());
+        int subsampling = (int) Math.floor(Math.sqrt(1 / devicePixels));
+        subsampling = Math.max(1, Math.min(subsampling, 8));
+        subsampling = Math.min(subsampling, Math.min(region.width, region.height));
+
+        BufferedImage image = pdImage.getImage(region, subsampling);
+        // maps the unit square to the region of the image
+        AffineTransform regionTransform = new AffineTransform(at);
+        regionTransform.translate((double) region.x / width,
+                1 - (double) (region.y + region.height) / height);
+        regionTransform.scale((double) region.width / width, (double) region.height / height);
+        drawBufferedImage(image, regionTransform);
+    }
+
     private void drawBufferedImage(BufferedImage image, AffineTransform at) throws IOException
     {
         graphics.setComposite(getGraphicsState().getNonStrokingJavaComposite());
@@ -1484,6 +1598,33 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             Matrix m = new Matrix(xform);
             scaleX = Math.abs(m.getScalingFactorX());
             scaleY = Math.abs(m.getScalingFactorY());
+            AffineTransform dpiTransform = AffineTransform.getScaleInstance(scaleX, scaleY);
+            Rectangle2D bounds = dpiTransform.createTransformedShape(clipRect).getBounds2D();
+
+            int left = (int) Math.floor(bounds.getMinX());
+            int bottom = (int) Math.floor(bounds.getMinY());
+            int right = (int) Math.floor(bounds.getMaxX()) + 1;
+            int top = (int) Math.floor(bounds.getMaxY()) + 1;
+            if (visibleArea != null && !clipRect.isEmpty())
+            {
+                // only the visible part is rendered, when rendering tiles this bounds the image to the tile. The
+                // image is cropped by whole pixels so its pixels are the same as the ones of the whole group image
+                Rectangle2D visible = dpiTransform
+                        .createTransformedShape(visibleArea.getBounds2D()).getBounds2D();
+                int cropLeft = Math.max(0, (int) Math.floor(visible.getMinX()) - left);
+                int cropBottom = Math.max(0, (int) Math.floor(visible.getMinY()) - bottom);
+                int cropRight = Math.max(0, right - (int) Math.floor(visible.getMaxX()) - 1);
+                int cropTop = Math.max(0, top - (int) Math.floor(visible.getMaxY()) - 1);
+                clipRect = new Rectangle2D.Double(clipRect.getX() + cropLeft / scaleX,
+                        clipRect.getY() + cropBottom / scaleY,
+                        clipRect.getWidth() - (cropLeft + cropRight) / scaleX,
+                        clipRect.getHeight() - (cropBottom + cropTop) / scaleY);
+                bounds = bounds.createIntersection(visible);
+                left += cropLeft;
+                bottom += cropBottom;
+                right -= cropRight;
+                top -= cropTop;
+            }
             if (clipRect.isEmpty())
             {
                 image = null;
@@ -1499,14 +1640,10 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             this.bbox = new PDRectangle((float) clipRect.getX(), (float) clipRect.getY(),
                     (float) clipRect.getWidth(), (float) clipRect.getHeight());
 
-            AffineTransform dpiTransform = AffineTransform.getScaleInstance(scaleX, scaleY);
-            Rectangle2D bounds = dpiTransform.createTransformedShape(clip.getBounds2D())
-                    .getBounds2D();
-
-            minX = (int) Math.floor(bounds.getMinX());
-            minY = (int) Math.floor(bounds.getMinY());
-            maxX = (int) Math.floor(bounds.getMaxX()) + 1;
-            maxY = (int) Math.floor(bounds.getMaxY()) + 1;
+            minX = left;
+            minY = bottom;
+            maxX = right;
+            maxY = top;
 
             width = maxX - minX;
             height = maxY - minY;
@@ -1533,8 +1670,11 @@ public class PageDrawer extends PDFGraphicsStreamEngine
                     // Use the current page as the parent group.
                     backdropImage = renderer.getPageImage();
                     needsBackdrop = backdropImage != null;
-                    backdropX = minX;
-                    backdropY = (backdropImage != null) ? (backdropImage.getHeight() - maxY) : 0;
+                    // the page image may be a tile of the whole page image
+                    Point offset = renderer.getPageImageOffset();
+                    backdropX = minX - offset.x;
+                    backdropY = (backdropImage != null)
+                            ? (backdropImage.getHeight() - (maxY - offset.y)) : 0;
                 }
                 else
                 {
@@ -1587,6 +1727,8 @@ public class PageDrawer extends PDFGraphicsStreamEngine
             g.translate(-clipRect.getX(), -clipRect.getY());
 
             graphics = g;
+            Rectangle savedDeviceBounds = deviceBounds;
+            deviceBounds = image.getRaster().getBounds();
             setRenderingHints();
             try
             {
@@ -1610,6 +1752,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
                 lastClip = savedLastClip;
                 graphics.dispose();
                 graphics = savedGraphics;
+                deviceBounds = savedDeviceBounds;
                 initialClip = savedInitialClip;
                 clipWindingRule = clipWindingRuleOriginal;
                 linePath = linePathOriginal;
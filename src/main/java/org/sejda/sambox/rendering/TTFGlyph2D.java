@@ -21,8 +21,6 @@ package org.sejda.sambox.rendering;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.fontbox.ttf.HeaderTable;
 import org.apache.fontbox.ttf.TrueTypeFont;
@@ -31,6 +29,7 @@ import org.sejda.sambox.pdmodel.font.PDFont;
 import org.sejda.sambox.pdmodel.font.PDTrueTypeFont;
 import org.sejda.sambox.pdmodel.font.PDType0Font;
 import org.sejda.sambox.pdmodel.font.PDVectorFont;
+import org.sejda.sambox.rendering.GlyphCache.FontGlyphs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,17 +45,18 @@ final class TTFGlyph2D implements Glyph2D
     private PDVectorFont vectorFont;
     private float scale = 1.0f;
     private boolean hasScaling;
-    private final Map<Integer, GeneralPath> glyphs = new HashMap<Integer, GeneralPath>();
+    private final FontGlyphs glyphs;
     private final boolean isCIDFont;
 
     /**
      * Constructor.
      *
      * @param ttfFont TrueType font
+     * @param glyphs where glyph outlines are cached
      */
-    TTFGlyph2D(PDTrueTypeFont ttfFont) throws IOException
+    TTFGlyph2D(PDTrueTypeFont ttfFont, FontGlyphs glyphs) throws IOException
     {
-        this(ttfFont.getTrueTypeFont(), ttfFont, false);
+        this(ttfFont.getTrueTypeFont(), ttfFont, false, glyphs);
         vectorFont = ttfFont;
     }
 
@@ -64,16 +64,20 @@ final class TTFGlyph2D implements Glyph2D
      * Constructor.
      *
      * @param type0Font Type0 font, with CIDFontType2 descendant
+     * @param glyphs where glyph outlines are cached
      */
-    TTFGlyph2D(PDType0Font type0Font) throws IOException
+    TTFGlyph2D(PDType0Font type0Font, FontGlyphs glyphs) throws IOException
     {
-        this(((PDCIDFontType2) type0Font.getDescendantFont()).getTrueTypeFont(), type0Font, true);
+        this(((PDCIDFontType2) type0Font.getDescendantFont()).getTrueTypeFont(), type0Font, true,
+                glyphs);
         vectorFont = type0Font;
     }
 
-    private TTFGlyph2D(TrueTypeFont ttf, PDFont font, boolean isCIDFont) throws IOException
+    private TTFGlyph2D(TrueTypeFont ttf, PDFont font, boolean isCIDFont, FontGlyphs glyphs)
+            throws IOException
     {
         this.font = font;
+        this.glyphs = glyphs;
         this.ttf = ttf;
         this.isCIDFont = isCIDFont;
         // get units per em, which is used as scaling factor
@@ -171,6 +175,6 @@ final class TTFGlyph2D implements Glyph2D
     @Override
     public void dispose()
     {
-        glyphs.clear();
+        glyphs.dispose();
     }
 }
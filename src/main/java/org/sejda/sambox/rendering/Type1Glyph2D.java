@@ -18,11 +18,10 @@ package org.sejda.sambox.rendering;
 
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
 
 import org.sejda.sambox.pdmodel.font.PDSimpleFont;
+import org.sejda.sambox.rendering.GlyphCache.FontGlyphs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,17 +32,19 @@ final class Type1Glyph2D implements Glyph2D
 {
     private static final Logger LOG = LoggerFactory.getLogger(Type1Glyph2D.class);
 
-    private final Map<Integer, GeneralPath> cache = new HashMap<Integer, GeneralPath>();
+    private final FontGlyphs cache;
     private final PDSimpleFont font;
 
     /**
      * Constructor.
      *
      * @param font PDF Type1 font.
+     * @param cache where glyph outlines are cached
      */
-    Type1Glyph2D(PDSimpleFont font)
+    Type1Glyph2D(PDSimpleFont font, FontGlyphs cache)
     {
         this.font = font;
+        this.cache = cache;
     }
 
     @Override
@@ -104,7 +105,7 @@ final class Type1Glyph2D implements Glyph2D
     @Override
     public void dispose()
     {
-        cache.clear();
+        cache.dispose();
     }
 
     // copied from UniUtil
@@ -16,6 +16,9 @@
  */
 package org.sejda.sambox.text;
 
+import static org.sejda.commons.util.RequireUtils.requireNotNullArg;
+import static org.sejda.sambox.util.ConcurrentUtils.executeInOrder;
+
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
@@ -24,14 +27,18 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 import org.sejda.sambox.pdmodel.PDDocument;
@@ -62,6 +69,8 @@ public class PDFTextStripper extends PDFTextStreamEngine
     private static final boolean useCustomQuickSort;
 
     private static final Logger LOG = LoggerFactory.getLogger(PDFTextStripper.class);
+    // max number of pages extracted by a single worker when extracting concurrently
+    private static final int MAX_PAGES_PER_RANGE = 16;
 
     // enable the ability to set the default indent/drop thresholds
     // with -D system properties:
@@ -245,6 +254,78 @@ public class PDFTextStripper extends PDFTextStreamEngine
      * @throws IOException If the doc is in an invalid state.
      */
     public void writeText(PDDocument doc, Writer outputStream) throws IOException
+    {
+        prepare(doc, outputStream);
+        startDocument(document);
+        processPages(document.getPages());
+        endDocument(document);
+    }
+
+    /**
+     * This will take a PDDocument and write the text of that document to the print writer, same as
+     * {@link #writeText(PDDocument, Writer)} does, but extracting the text of ranges of pages concurrently using the
+     * given executor. Every range of pages is processed by a new stripper created by the given supplier, it gets the
+     * settings of this stripper, and the text of the ranges is written in pages order by the calling thread, so the
+     * output is the same as the serial one. {@link #startDocument(PDDocument)} and {@link #endDocument(PDDocument)}
+     * are called on this stripper, while pages are processed by the workers. Ranges are processed ahead of the writing
+     * by at most twice the number of available processors.
+     *
+     * @param doc The document to get the data from.
+     * @param outputStream The location to put the text.
+     * @param executor the executor processing the ranges of pages, {@code Runnable::run} processes them on the
+     * calling thread
+     * @param workers supplies a new stripper for every range of pages, for example a reference to the constructor of
+     * the class of this stripper
+     * @throws IOException If the doc is in an invalid state or the text cannot be written.
+     */
+    public void writeText(PDDocument doc, Writer outputStream, Executor executor,
+            StripperSupplier workers) throws IOException
+    {
+        requireNotNullArg(executor, "Executor cannot be null");
+        requireNotNullArg(workers, "Workers supplier cannot be null");
+        prepare(doc, outputStream);
+        startDocument(document);
+        processPages(document.getPages(), executor, workers);
+        endDocument(document);
+    }
+
+    /**
+     * Extracts the text of the document one page at a time, delivering to the consumer the text and the text positions
+     * of every page in range, as soon as the page has been processed. The stripper doesn't keep any reference to the
+     * text positions of a page once it has been delivered, so memory doesn't grow with the number of pages. Pages
+     * without contents are delivered with no text. Text written by {@link #startDocument(PDDocument)} and
+     * {@link #endDocument(PDDocument)} is discarded.
+     *
+     * @param doc The document to get the data from.
+     * @param consumer the consumer of the text of the pages
+     * @throws IOException If the doc is in an invalid state or the consumer fails.
+     */
+    public void extractPages(PDDocument doc, PageTextConsumer consumer) throws IOException
+    {
+        requireNotNullArg(consumer, "Consumer cannot be null");
+        prepare(doc, new StringWriter());
+        startDocument(document);
+        PDPageTree pages = document.getPages();
+        initBookmarkPageNumbers(pages);
+        for (PDPage page : pages)
+        {
+            currentPageNo++;
+            if (isInRange(currentPageNo))
+            {
+                StringWriter text = new StringWriter();
+                output = text;
+                charactersByArticle.clear();
+                extractPage(page);
+                consumer.accept(new PageText(currentPageNo, text.toString(), charactersByArticle));
+                charactersByArticle.clear();
+                characterListMapping.clear();
+            }
+        }
+        output = new StringWriter();
+        endDocument(document);
+    }
+
+    private void prepare(PDDocument doc, Writer outputStream)
     {
         resetEngine();
         document = doc;
@@ -256,9 +337,6 @@ public class PDFTextStripper extends PDFTextStreamEngine
             articleStart = lineSeparator;
             articleEnd = lineSeparator;
         }
-        startDocument(document);
-        processPages(document.getPages());
-        endDocument(document);
     }
 
     /**
@@ -269,6 +347,16 @@ public class PDFTextStripper extends PDFTextStreamEngine
      * @throws IOException If there is an error parsing the text.
      */
     protected void processPages(PDPageTree pages) throws IOException
+    {
+        initBookmarkPageNumbers(pages);
+        for (PDPage page : pages)
+        {
+            currentPageNo++;
+            extractPage(page);
+        }
+    }
+
+    private void initBookmarkPageNumbers(PDPageTree pages) throws IOException
     {
         PDPage startBookmarkPage = startBookmark == null ? null
                 : startBookmark.findDestinationPage(document);
@@ -304,23 +392,129 @@ public class PDFTextStripper extends PDFTextStreamEngine
             startBookmarkPageNumber = 0;
             endBookmarkPageNumber = 0;
         }
+    }
 
-        for (PDPage page : pages)
+    private void extractPage(PDPage page)
+    {
+        LOG.trace("Processing page {}", currentPageNo);
+        if (page.hasContents())
         {
-            currentPageNo++;
-            LOG.trace("Processing page {}", currentPageNo);
-            if (page.hasContents())
+            try
+            {
+                processPage(page);
+            }
+            catch (IOException e)
             {
-                try
+                LOG.warn("Unable to extract text from page " + currentPageNo, e);
+            }
+        }
+    }
+
+    private boolean isInRange(int pageNumber)
+    {
+        return pageNumber >= startPage && pageNumber <= endPage
+                && (startBookmarkPageNumber == -1 || pageNumber >= startBookmarkPageNumber)
+                && (endBookmarkPageNumber == -1 || pageNumber <= endBookmarkPageNumber);
+    }
+
+    private void processPages(PDPageTree pages, Executor executor,
+            StripperSupplier workers) throws IOException
+    {
+        initBookmarkPageNumbers(pages);
+        int rangeSize = Math.max(1, Math.min(MAX_PAGES_PER_RANGE,
+                pages.getCount() / (Runtime.getRuntime().availableProcessors() * 4)));
+        Iterator<PDPage> pagesIterator = pages.iterator();
+        Iterator<Callable<String>> extractions = new Iterator<Callable<String>>()
+        {
+            private Map<Integer, PDPage> next;
+
+            @Override
+            public boolean hasNext()
+            {
+                if (next == null)
                 {
-                    processPage(page);
+                    next = nextRange(pagesIterator, rangeSize);
                 }
-                catch (IOException e)
+                return !next.isEmpty();
+            }
+
+            @Override
+            public Callable<String> next()
+            {
+                if (!hasNext())
                 {
-                    LOG.warn("Unable to extract text from page " + currentPageNo, e);
+                    throw new NoSuchElementException();
                 }
+                Map<Integer, PDPage> range = next;
+                next = null;
+                return extraction(range, workers);
+            }
+        };
+        executeInOrder(extractions, executor, (i, text) -> output.write(text));
+    }
+
+    /**
+     * @return the next pages in range to extract, at most rangeSize, or an empty map if there are no more pages to
+     * extract
+     */
+    private Map<Integer, PDPage> nextRange(Iterator<PDPage> pagesIterator, int rangeSize)
+    {
+        Map<Integer, PDPage> range = new LinkedHashMap<>();
+        while (range.size() < rangeSize && pagesIterator.hasNext())
+        {
+            PDPage page = pagesIterator.next();
+            currentPageNo++;
+            if (isInRange(currentPageNo))
+            {
+                range.put(currentPageNo, page);
             }
         }
+        return range;
+    }
+
+    private Callable<String> extraction(Map<Integer, PDPage> range, StripperSupplier workers)
+    {
+        return () -> {
+            PDFTextStripper worker = workers.get();
+            StringWriter text = new StringWriter();
+            worker.copySettings(this);
+            worker.document = document;
+            worker.output = text;
+            for (Map.Entry<Integer, PDPage> page : range.entrySet())
+            {
+                worker.currentPageNo = page.getKey();
+                worker.extractPage(page.getValue());
+            }
+            return text.toString();
+        };
+    }
+
+    /**
+     * Copies the settings of the given stripper to this one
+     */
+    private void copySettings(PDFTextStripper other)
+    {
+        lineSeparator = other.lineSeparator;
+        wordSeparator = other.wordSeparator;
+        paragraphStart = other.paragraphStart;
+        paragraphEnd = other.paragraphEnd;
+        pageStart = other.pageStart;
+        pageEnd = other.pageEnd;
+        articleStart = other.articleStart;
+        articleEnd = other.articleEnd;
+        startPage = other.startPage;
+        endPage = other.endPage;
+        startBookmarkPageNumber = other.startBookmarkPageNumber;
+        endBookmarkPageNumber = other.endBookmarkPageNumber;
+        suppressDuplicateOverlappingText = other.suppressDuplicateOverlappingText;
+        shouldSeparateByBeads = other.shouldSeparateByBeads;
+        sortByPosition = other.sortByPosition;
+        addMoreFormatting = other.addMoreFormatting;
+        indentThreshold = other.indentThreshold;
+        dropThreshold = other.dropThreshold;
+        spacingTolerance = other.spacingTolerance;
+        averageCharTolerance = other.averageCharTolerance;
+        listOfPatterns = other.listOfPatterns;
     }
 
     /**
@@ -356,9 +550,7 @@ public class PDFTextStripper extends PDFTextStreamEngine
     @Override
     public void processPage(PDPage page) throws IOException
     {
-        if (currentPageNo >= startPage && currentPageNo <= endPage
-                && (startBookmarkPageNumber == -1 || currentPageNo >= startBookmarkPageNumber)
-                && (endBookmarkPageNumber == -1 || currentPageNo <= endBookmarkPageNumber))
+        if (isInRange(currentPageNo))
         {
             startPage(page);
 
@@ -1844,6 +2036,33 @@ public class PDFTextStripper extends PDFTextStreamEngine
         return lineBuilder;
     }
 
+    /**
+     * Consumer of the text of the pages extracted by {@link PDFTextStripper#extractPages(PDDocument, PageTextConsumer)}
+     */
+    @FunctionalInterface
+    public interface PageTextConsumer
+    {
+        /**
+         * @param page the text of a page
+         * @throws IOException
+         */
+        void accept(PageText page) throws IOException;
+    }
+
+    /**
+     * Supplier of the strippers processing ranges of pages when extracting text concurrently, see
+     * {@link PDFTextStripper#writeText(PDDocument, Writer, Executor, StripperSupplier)}
+     */
+    @FunctionalInterface
+    public interface StripperSupplier
+    {
+        /**
+         * @return a new stripper
+         * @throws IOException
+         */
+        PDFTextStripper get() throws IOException;
+    }
+
     /**
      * internal marker class. Used as a place holder in a line of TextPositions.
      */
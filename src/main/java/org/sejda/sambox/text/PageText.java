@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.text;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The text extracted from a single page, see {@link PDFTextStripper#extractPages(org.sejda.sambox.pdmodel.PDDocument,
+ * PDFTextStripper.PageTextConsumer)}
+ *
+ * @author Andrea Vacondio
+ */
+public final class PageText
+{
+    private final int pageNumber;
+    private final String text;
+    private final List<List<TextPosition>> articles;
+
+    PageText(int pageNumber, String text, List<? extends List<TextPosition>> articles)
+    {
+        this.pageNumber = pageNumber;
+        this.text = text;
+        this.articles = unmodifiableList(articles.stream()
+                .map(a -> unmodifiableList(new ArrayList<>(a))).collect(toList()));
+    }
+
+    /**
+     * @return the 1-based number of the page
+     */
+    public int getPageNumber()
+    {
+        return pageNumber;
+    }
+
+    /**
+     * @return the text of the page, same as the text {@link PDFTextStripper#writeText} writes for the page
+     */
+    public String getText()
+    {
+        return text;
+    }
+
+    /**
+     * @return the text positions of the page grouped by article, in the order they have been written. Most pages
+     * have a single article, pages with beads have the text before, inside and after every bead as separate articles.
+     */
+    public List<List<TextPosition>> getArticles()
+    {
+        return articles;
+    }
+
+    /**
+     * @return all the text positions of the page, in the order they have been written
+     */
+    public List<TextPosition> getTextPositions()
+    {
+        return articles.stream().flatMap(List::stream).collect(toList());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Page " + pageNumber + ": " + text;
+    }
+}
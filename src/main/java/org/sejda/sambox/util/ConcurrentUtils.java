@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.util;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Utilities to run tasks on an {@link Executor} and collect their results
+ *
+ * @author Andrea Vacondio
+ */
+public final class ConcurrentUtils
+{
+    private ConcurrentUtils()
+    {
+        // hide
+    }
+
+    /**
+     * Waits for the given task to complete
+     *
+     * @param task
+     * @return the result of the task
+     * @throws IOException if the task failed or the wait was interrupted. An {@link IOException} thrown by the task is
+     * rethrown as is.
+     */
+    public static <T> T await(Future<T> task) throws IOException
+    {
+        try
+        {
+            return task.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Executes the given tasks using the given executor and delivers their results to the consumer in the tasks order,
+     * each one as soon as it and the ones before it are completed. Tasks are retrieved from the iterator and results
+     * are consumed by the calling thread, that blocks until all the results have been delivered. Tasks are executed
+     * ahead of the consumer by at most twice the number of available processors.
+     *
+     * @param tasks the tasks to execute
+     * @param executor
+     * @param consumer the consumer of the results
+     * @throws IOException if a task or the consumer fail, tasks whose result hasn't been delivered yet are cancelled
+     */
+    public static <T> void executeInOrder(Iterator<? extends Callable<T>> tasks,
+            Executor executor, IndexedResultConsumer<T> consumer) throws IOException
+    {
+        int maxAhead = Runtime.getRuntime().availableProcessors() * 2;
+        Deque<Future<T>> pending = new ArrayDeque<>();
+        try
+        {
+            for (int index = 0;; index++)
+            {
+                while (pending.size() < maxAhead && tasks.hasNext())
+                {
+                    FutureTask<T> task = new FutureTask<>(tasks.next());
+                    pending.add(task);
+                    executor.execute(task);
+                }
+                if (pending.isEmpty())
+                {
+                    return;
+                }
+                consumer.accept(index, await(pending.poll()));
+            }
+        }
+        finally
+        {
+            pending.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /**
+     * Consumer of the results delivered by {@link #executeInOrder(Iterator, Executor, IndexedResultConsumer)}
+     */
+    @FunctionalInterface
+    public interface IndexedResultConsumer<T>
+    {
+        /**
+         * @param index the zero-based index of the task, in the order tasks have been retrieved
+         * @param result the result of the task
+         * @throws IOException
+         */
+        void accept(int index, T result) throws IOException;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.util;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.sejda.commons.util.RequireUtils.requireArg;
+import static org.sejda.commons.util.RequireUtils.requireIOCondition;
+import static org.sejda.io.SeekableSources.seekableSourceFrom;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sejda.commons.util.IOUtils;
+import org.sejda.io.ByteArraySeekableSource;
+import org.sejda.io.SeekableSource;
+import org.sejda.sambox.SAMBox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link OutputStream} collecting bytes that, once the stream is closed, can be read as many times as needed. Bytes
+ * are kept on heap until their size exceeds a threshold (see {@link SAMBox#SCRATCH_FILE_THRESHOLD_PROPERTY}), after
+ * that they are moved to a temporary file. The file is deleted when the buffer is released or, as a fallback, once the
+ * buffer has been garbage collected.
+ *
+ * @author Andrea Vacondio
+ */
+public class ScratchBuffer extends OutputStream
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ScratchBuffer.class);
+
+    private static final ReferenceQueue<ScratchBuffer> QUEUE = new ReferenceQueue<>();
+    // keeps the phantom references reachable until they are enqueued
+    private static final Set<ScratchFileReference> REFERENCES = ConcurrentHashMap.newKeySet();
+
+    private final long threshold;
+    private HeapBuffer heap = new HeapBuffer();
+    private Path file;
+    private OutputStream fileStream;
+    private ScratchFileReference reference;
+    private long size = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a buffer using the threshold configured with the {@link SAMBox#SCRATCH_FILE_THRESHOLD_PROPERTY} system
+     * property. If not set, bytes are always kept on heap.
+     */
+    public ScratchBuffer()
+    {
+        this(Long.getLong(SAMBox.SCRATCH_FILE_THRESHOLD_PROPERTY, Long.MAX_VALUE));
+    }
+
+    /**
+     * @param threshold size in bytes after which bytes are moved to a temporary file
+     */
+    public ScratchBuffer(long threshold)
+    {
+        requireArg(threshold > 0, "Threshold must be positive");
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        requireIOCondition(!closed, "Cannot write to a closed buffer");
+        if (size + 1 > threshold && isNull(file))
+        {
+            spill();
+        }
+        target().write(b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        requireIOCondition(!closed, "Cannot write to a closed buffer");
+        if (size + len > threshold && isNull(file))
+        {
+            spill();
+        }
+        target().write(b, off, len);
+        size += len;
+    }
+
+    private OutputStream target()
+    {
+        if (nonNull(file))
+        {
+            return fileStream;
+        }
+        return heap;
+    }
+
+    private void spill() throws IOException
+    {
+        purge();
+        String directory = System.getProperty(SAMBox.SCRATCH_DIRECTORY_PROPERTY);
+        if (nonNull(directory))
+        {
+            file = Files.createTempFile(Paths.get(directory), "sambox-scratch", ".tmp");
+        }
+        else
+        {
+            file = Files.createTempFile("sambox-scratch", ".tmp");
+        }
+        reference = new ScratchFileReference(this, file);
+        REFERENCES.add(reference);
+        fileStream = new BufferedOutputStream(Files.newOutputStream(file));
+        heap.writeTo(fileStream);
+        heap = null;
+        LOG.debug("Moved {} bytes to scratch file {}", size, file);
+    }
+
+    /**
+     * Completes writing, after this the buffer can be read.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (!closed)
+        {
+            closed = true;
+            if (nonNull(file))
+            {
+                fileStream.close();
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes written to this buffer
+     */
+    public long size()
+    {
+        return size;
+    }
+
+    /**
+     * @return true if bytes have been moved to a temporary file
+     */
+    public boolean isSpilled()
+    {
+        return nonNull(file);
+    }
+
+    /**
+     * @return a new {@link InputStream} reading the buffer from the start
+     * @throws IOException if the buffer is not closed or it has been released
+     */
+    public InputStream asInputStream() throws IOException
+    {
+        requireReadable();
+        if (nonNull(file))
+        {
+            return new BufferedInputStream(Files.newInputStream(file));
+        }
+        return heap.asInputStream();
+    }
+
+    /**
+     * @return a new {@link SeekableSource} reading the buffer, the caller is responsible for closing it
+     * @throws IOException if the buffer is not closed or it has been released
+     */
+    public SeekableSource asSeekableSource() throws IOException
+    {
+        requireReadable();
+        if (nonNull(file))
+        {
+            return seekableSourceFrom(file.toFile());
+        }
+        return heap.asSeekableSource();
+    }
+
+    /**
+     * @return a read only {@link ByteBuffer} of the buffer. A temporary file is memory mapped.
+     * @throws IOException if the buffer is not closed or it has been released
+     */
+    public ByteBuffer asByteBuffer() throws IOException
+    {
+        requireReadable();
+        if (nonNull(file))
+        {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+            {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return heap.asByteBuffer();
+    }
+
+    private void requireReadable() throws IOException
+    {
+        requireIOCondition(closed, "Cannot read a buffer that is still open for writing");
+        requireIOCondition(nonNull(heap) || nonNull(file), "The buffer has been released");
+    }
+
+    /**
+     * Releases the buffer, deleting the temporary file if any. The buffer cannot be used after this.
+     */
+    public void release()
+    {
+        closed = true;
+        heap = null;
+        IOUtils.closeQuietly(fileStream);
+        if (nonNull(reference))
+        {
+            REFERENCES.remove(reference);
+            reference.clear();
+            delete(file);
+        }
+        file = null;
+    }
+
+    private static void purge()
+    {
+        ScratchFileReference reference;
+        while ((reference = (ScratchFileReference) QUEUE.poll()) != null)
+        {
+            REFERENCES.remove(reference);
+            delete(reference.file);
+        }
+    }
+
+    private static void delete(Path file)
+    {
+        try
+        {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e)
+        {
+            LOG.warn("Unable to delete scratch file " + file, e);
+        }
+    }
+
+    /**
+     * In memory buffer whose bytes are read in place, without copying them to a new array
+     */
+    private static class HeapBuffer extends ByteArrayOutputStream
+    {
+        InputStream asInputStream()
+        {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+
+        SeekableSource asSeekableSource()
+        {
+            final long length = count;
+            return new ByteArraySeekableSource(buf)
+            {
+                @Override
+                public long size()
+                {
+                    return length;
+                }
+            };
+        }
+
+        ByteBuffer asByteBuffer()
+        {
+            return ByteBuffer.wrap(buf, 0, count).asReadOnlyBuffer();
+        }
+    }
+
+    private static class ScratchFileReference extends PhantomReference<ScratchBuffer>
+    {
+        private final Path file;
+
+        ScratchFileReference(ScratchBuffer referent, Path file)
+        {
+            super(referent, QUEUE);
+            this.file = file;
+        }
+    }
+}
@@ -18,8 +18,9 @@ package org.sejda.sambox.xref;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.sejda.sambox.cos.COSObjectKey;
 
@@ -31,7 +32,7 @@ import org.sejda.sambox.cos.COSObjectKey;
  */
 public class Xref
 {
-    private HashMap<COSObjectKey, XrefEntry> data = new HashMap<>();
+    private Map<COSObjectKey, XrefEntry> data = new ConcurrentHashMap<>();
 
     /**
      * Adds the given entry to the {@link Xref} if an entry with the given object number and generation is not already
@@ -108,6 +108,25 @@ public class ShakeDownTest
         doTestEncrypted(WriteOption.OBJECT_STREAMS, WriteOption.COMPRESS_STREAMS);
     }
 
+    @Test
+    public void writeParallelCompressed() throws IOException
+    {
+        doTest(WriteOption.PARALLEL_COMPRESS_STREAMS);
+        doIncrementalTest(WriteOption.PARALLEL_COMPRESS_STREAMS);
+        doTestEncrypted(WriteOption.PARALLEL_COMPRESS_STREAMS);
+    }
+
+    @Test
+    public void writeObjectStreamParallelCompressedAsync() throws IOException
+    {
+        doTest(WriteOption.OBJECT_STREAMS, WriteOption.PARALLEL_COMPRESS_STREAMS,
+                WriteOption.ASYNC_BODY_WRITE);
+        doIncrementalTest(WriteOption.OBJECT_STREAMS, WriteOption.PARALLEL_COMPRESS_STREAMS,
+                WriteOption.ASYNC_BODY_WRITE);
+        doTestEncrypted(WriteOption.OBJECT_STREAMS, WriteOption.PARALLEL_COMPRESS_STREAMS,
+                WriteOption.ASYNC_BODY_WRITE);
+    }
+
     @Test
     public void writeAsync() throws IOException
     {
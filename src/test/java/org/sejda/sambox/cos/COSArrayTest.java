@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import org.sejda.sambox.pdmodel.PDPage;
@@ -107,4 +108,22 @@ public class COSArrayTest
         assertEquals(2.2f, array[1], 0);
         assertEquals(0f, array[2], 0);
     }
+
+    @Test
+    public void changeListener()
+    {
+        AtomicInteger changes = new AtomicInteger();
+        COSArray victim = new COSArray(COSInteger.ONE);
+        COSChangeListeners.set(victim, changes::incrementAndGet);
+        victim.add(COSInteger.TWO);
+        victim.set(0, COSInteger.THREE);
+        victim.remove(COSName.A);
+        assertEquals(2, changes.get());
+        victim.remove(COSInteger.TWO);
+        victim.trimToSize(0);
+        assertEquals(4, changes.get());
+        COSChangeListeners.set(victim, null);
+        victim.clear();
+        assertEquals(4, changes.get());
+    }
 }
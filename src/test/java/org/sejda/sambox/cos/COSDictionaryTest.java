@@ -19,6 +19,8 @@ package org.sejda.sambox.cos;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 /**
@@ -40,4 +42,23 @@ public class COSDictionaryTest
         assertNull(victim.getDictionaryObject(COSName.A, COSName.B, COSName.class));
         assertNull(victim.getDictionaryObject(COSName.C, COSName.B, COSInteger.class));
     }
+
+    @Test
+    public void changeListener()
+    {
+        AtomicInteger changes = new AtomicInteger();
+        COSDictionary victim = new COSDictionary();
+        COSChangeListeners.set(victim, changes::incrementAndGet);
+        victim.setItem(COSName.A, COSInteger.ONE);
+        victim.setInt(COSName.B, 2);
+        victim.putIfAbsent(COSName.A, COSInteger.TWO);
+        victim.removeItem(COSName.C);
+        assertEquals(2, changes.get());
+        victim.removeItem(COSName.A);
+        victim.clear();
+        assertEquals(4, changes.get());
+        COSChangeListeners.set(victim, null);
+        victim.clear();
+        assertEquals(4, changes.get());
+    }
 }
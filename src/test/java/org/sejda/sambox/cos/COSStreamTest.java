@@ -16,17 +16,24 @@
  */
 package org.sejda.sambox.cos;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 import org.junit.Test;
 import org.sejda.commons.util.IOUtils;
+import org.sejda.io.SeekableSource;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.filter.Filter;
 import org.sejda.sambox.filter.FilterFactory;
 
@@ -233,6 +240,104 @@ public class COSStreamTest
         validateEncoded(stream, testStringEncoded);
     }
 
+    @Test
+    public void lazilyDecodedFromSource() throws IOException
+    {
+        byte[] testString = "This is a test string to be used as input for TestCOSStream"
+                .getBytes("ASCII");
+        byte[] testStringEncoded = encodeData(testString, COSName.FLATE_DECODE);
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        try (SeekableSource source = SeekableSources.inMemorySeekableSourceFrom(testStringEncoded))
+        {
+            COSStream stream = new COSStream(dictionary, source, 0, testStringEncoded.length);
+            try (InputStream first = stream.getUnfilteredStream();
+                    InputStream second = stream.getUnfilteredStream())
+            {
+                // reads don't interfere with each other
+                for (byte expected : testString)
+                {
+                    assertEquals(expected, first.read());
+                    assertEquals(expected, second.read());
+                }
+                assertEquals(-1, first.read());
+                assertEquals(-1, second.read());
+            }
+            assertEquals(testString.length, stream.getUnfilteredLength());
+        }
+    }
+
+    @Test
+    public void lazilyDecodedChain() throws IOException
+    {
+        byte[] testString = "This is a test string to be used as input for TestCOSStream"
+                .getBytes("ASCII");
+        byte[] testStringEncoded = encodeData(encodeData(testString, COSName.FLATE_DECODE),
+                COSName.ASCII85_DECODE);
+        COSStream stream = createStream(testStringEncoded);
+        stream.setItem(COSName.FILTER,
+                new COSArray(COSName.ASCII85_DECODE, COSName.FLATE_DECODE));
+        validateDecoded(stream, testString);
+    }
+
+    @Test
+    public void cachedUnfiltered() throws IOException
+    {
+        byte[] testString = "This is a test string to be used as input for TestCOSStream"
+                .getBytes("ASCII");
+        byte[] testStringEncoded = encodeData(testString, COSName.FLATE_DECODE);
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        System.setProperty(SAMBox.UNFILTERED_STREAMS_CACHE_PROPERTY, "true");
+        try
+        {
+            SeekableSource source = SeekableSources.inMemorySeekableSourceFrom(testStringEncoded);
+            COSStream stream = new COSStream(dictionary, source, 0, testStringEncoded.length);
+            IOUtils.toByteArray(stream.getUnfilteredStream());
+            source.close();
+            validateDecoded(stream, testString);
+        }
+        finally
+        {
+            System.clearProperty(SAMBox.UNFILTERED_STREAMS_CACHE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void decryptedLengthReadsAViewOfItsOwn() throws IOException
+    {
+        byte[] data = "This is a test string".getBytes(StandardCharsets.US_ASCII);
+        try (SeekableSource source = SeekableSources.inMemorySeekableSourceFrom(data))
+        {
+            COSStream stream = new COSStream(new COSDictionary(), source, 0, data.length);
+            IdentityDecryptor decryptor = new IdentityDecryptor();
+            stream.setDecryptor(decryptor);
+            assertEquals(data.length, stream.getFilteredLength());
+            assertEquals(0, decryptor.startingPosition);
+            assertFalse(decryptor.encrypted.isOpen());
+        }
+    }
+
+    @Test
+    public void sourceEncryptedStreamsReadIndependently() throws IOException
+    {
+        byte[] data = "This is a test string".getBytes(StandardCharsets.US_ASCII);
+        try (SeekableSource source = SeekableSources.inMemorySeekableSourceFrom(data))
+        {
+            COSStream stream = new COSStream(new COSDictionary(), source, 0, data.length);
+            stream.setDecryptor(new IdentityDecryptor());
+            assertTrue(stream.keepSourceEncryption("AES", new byte[16]));
+            try (InputStream first = stream.getFilteredStream();
+                    InputStream second = stream.getFilteredStream())
+            {
+                assertEquals('T', first.read());
+                assertEquals('h', first.read());
+                assertArrayEquals(data, IOUtils.toByteArray(second));
+                assertEquals('i', first.read());
+            }
+        }
+    }
+
     private static byte[] encodeData(byte[] original, COSName filter) throws IOException
     {
         Filter encodingFilter = FilterFactory.INSTANCE.getFilter(filter);
@@ -274,4 +379,30 @@ public class COSStreamTest
         stream.close();
         assertTrue("Decoded data doesn't match input", Arrays.equals(expected, decoded));
     }
+
+    private static class IdentityDecryptor implements StreamDecryptor
+    {
+        private SeekableSource encrypted;
+        private long startingPosition = -1;
+
+        @Override
+        public InputStream decrypt(InputStream encrypted)
+        {
+            return encrypted;
+        }
+
+        @Override
+        public long decryptedLength(SeekableSource encrypted) throws IOException
+        {
+            this.encrypted = encrypted;
+            this.startingPosition = encrypted.position();
+            return IOUtils.toByteArray(encrypted.asInputStream()).length;
+        }
+
+        @Override
+        public boolean isEncryptedWith(String cipher, byte[] key)
+        {
+            return true;
+        }
+    }
 }
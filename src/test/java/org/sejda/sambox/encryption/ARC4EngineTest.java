@@ -19,6 +19,7 @@ package org.sejda.sambox.encryption;
 import static org.junit.Assert.assertArrayEquals;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.Security;
 
@@ -56,4 +57,18 @@ public class ARC4EngineTest
                         "ABCDE".getBytes(StandardCharsets.UTF_8))));
     }
 
+    @Test
+    public void encryptBytesWhileReadingStream() throws Exception
+    {
+        byte[] expected = new byte[] { (byte) 0xa2, (byte) 0xc9, (byte) 0xf3, (byte) 0xfa,
+                (byte) 0x70, (byte) 0x8b, (byte) 0x59, (byte) 0xde, (byte) 0x4a, (byte) 0x8d,
+                (byte) 0xc1 };
+        ARC4Engine victim = new ARC4Engine();
+        InputStream stream = victim.encryptStream(
+                new ByteArrayInputStream("ChuckNorris".getBytes(StandardCharsets.UTF_8)),
+                "ABCDE".getBytes(StandardCharsets.UTF_8));
+        victim.encryptBytes("Chuck".getBytes(StandardCharsets.UTF_8),
+                "FGHIJ".getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(expected, IOUtils.toByteArray(stream));
+    }
 }
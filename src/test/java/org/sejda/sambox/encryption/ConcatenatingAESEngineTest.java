@@ -62,4 +62,41 @@ public class ConcatenatingAESEngineTest
         assertArrayEquals(Arrays.concatenate(iv, expected), IOUtils.toByteArray(inputStream));
 
     }
+
+    @Test
+    public void keyChanges()
+    {
+        byte[] key = new byte[] { -40, -23, -118, -66, -77, -34, 42, 9, 11, 22, 105, 86, -92, 23,
+                57, 4 };
+        byte[] otherKey = new byte[16];
+        byte[] iv = new byte[] { 18, -87, 49, -32, -126, 116, -128, -36, -78, 70, 99, -98, -65, 90,
+                -95, 101 };
+        byte[] otherIv = new byte[16];
+        byte[] expected = new byte[] { -125, -84, -39, -13, -125, 92, 23, -82, 68, 81, -78, 105, 34,
+                21, -70, -14 };
+        byte[] otherExpected = new ConcatenatingAESEngine().encryptBytes("ChuckNorris".getBytes(),
+                otherKey, otherIv);
+        assertArrayEquals(Arrays.concatenate(iv, expected),
+                victim.encryptBytes("ChuckNorris".getBytes(), key, iv));
+        victim.encryptBytes("ChuckNorris".getBytes(), key, otherIv);
+        assertArrayEquals(otherExpected,
+                victim.encryptBytes("ChuckNorris".getBytes(), otherKey, otherIv));
+        assertArrayEquals(Arrays.concatenate(iv, expected),
+                victim.encryptBytes("ChuckNorris".getBytes(), key.clone(), iv));
+    }
+
+    @Test
+    public void encryptBytesWhileReadingStream() throws IOException
+    {
+        byte[] key = new byte[] { -40, -23, -118, -66, -77, -34, 42, 9, 11, 22, 105, 86, -92, 23,
+                57, 4 };
+        byte[] iv = new byte[] { 18, -87, 49, -32, -126, 116, -128, -36, -78, 70, 99, -98, -65, 90,
+                -95, 101 };
+        byte[] expected = new byte[] { -125, -84, -39, -13, -125, 92, 23, -82, 68, 81, -78, 105, 34,
+                21, -70, -14 };
+        InputStream inputStream = victim
+                .encryptStream(new ByteArrayInputStream("ChuckNorris".getBytes()), key, iv);
+        victim.encryptBytes("Chuck".getBytes(), new byte[16]);
+        assertArrayEquals(Arrays.concatenate(iv, expected), IOUtils.toByteArray(inputStream));
+    }
 }
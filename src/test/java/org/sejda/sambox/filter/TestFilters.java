@@ -20,6 +20,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -155,5 +156,13 @@ public class TestFilters extends TestCase
                 "Data that is encoded and then decoded through " + filter.getClass()
                         + " does not match the original data",
                 Arrays.equals(original, decoded.toByteArray()));
+        try (InputStream decodingStream = filter.decodingStream(
+                new ByteArrayInputStream(encoded.toByteArray()), new COSDictionary(), 0))
+        {
+            assertTrue(
+                    "Data that is encoded and then decoded through the decoding stream of "
+                            + filter.getClass() + " does not match the original data",
+                    Arrays.equals(original, IOUtils.toByteArray(decodingStream)));
+        }
     }
 }
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.After;
+import org.junit.Test;
+import org.sejda.commons.util.IOUtils;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSChangeListeners;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.COSStream;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class BoundedObjectsStoreTest
+{
+    private LazyIndirectObjectsProvider provider;
+    private COSParser parser;
+
+    @After
+    public void tearDown()
+    {
+        IOUtils.closeQuietly(parser);
+        IOUtils.closeQuietly(provider);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidWeight()
+    {
+        new BoundedObjectsStore(0, k -> true);
+    }
+
+    @Test
+    public void putAndGet()
+    {
+        BoundedObjectsStore victim = new BoundedObjectsStore(1024 * 1024, k -> true);
+        COSDictionary value = new COSDictionary();
+        assertNull(victim.put(new COSObjectKey(1, 0), value));
+        assertSame(value, victim.get(new COSObjectKey(1, 0)));
+        assertEquals(1, victim.size());
+        assertSame(value, victim.remove(new COSObjectKey(1, 0)));
+        assertNull(victim.get(new COSObjectKey(1, 0)));
+        assertEquals(0, victim.weight());
+    }
+
+    @Test
+    public void evictedStillReferencedIsRestored()
+    {
+        BoundedObjectsStore victim = new BoundedObjectsStore(1, k -> true);
+        COSDictionary first = dictionary(1);
+        victim.put(new COSObjectKey(1, 0), first);
+        victim.put(new COSObjectKey(2, 0), dictionary(2));
+        // first has been evicted but we hold it, so it's restored
+        assertSame(first, victim.get(new COSObjectKey(1, 0)));
+    }
+
+    @Test
+    public void modifiedIsNotEvicted()
+    {
+        BoundedObjectsStore victim = new BoundedObjectsStore(1, k -> true);
+        victim.put(new COSObjectKey(1, 0), dictionary(1));
+        ((COSDictionary) victim.get(new COSObjectKey(1, 0))).setInt(COSName.N, 5);
+        victim.put(new COSObjectKey(2, 0), dictionary(2));
+        victim.put(new COSObjectKey(3, 0), dictionary(3));
+        System.gc();
+        assertEquals(5,
+                ((COSDictionary) victim.get(new COSObjectKey(1, 0))).getInt(COSName.N));
+    }
+
+    @Test
+    public void modifiedWhileEvictedIsNotLost()
+    {
+        BoundedObjectsStore victim = new BoundedObjectsStore(1, k -> true);
+        victim.put(new COSObjectKey(1, 0), dictionary(1));
+        COSDictionary first = (COSDictionary) victim.get(new COSObjectKey(1, 0));
+        victim.put(new COSObjectKey(2, 0), dictionary(2));
+        // first has been evicted, we change it and drop it
+        first.setInt(COSName.N, 5);
+        first = null;
+        System.gc();
+        assertEquals(5,
+                ((COSDictionary) victim.get(new COSObjectKey(1, 0))).getInt(COSName.N));
+    }
+
+    @Test
+    public void nestedModifiedWhileEvictedIsNotLost()
+    {
+        BoundedObjectsStore victim = new BoundedObjectsStore(1, k -> true);
+        COSDictionary value = dictionary(1);
+        value.setItem(COSName.ANNOTS, new COSArray(COSInteger.get(3)));
+        victim.put(new COSObjectKey(1, 0), value);
+        COSArray array = (COSArray) value.getItem(COSName.ANNOTS);
+        value = null;
+        victim.put(new COSObjectKey(2, 0), dictionary(2));
+        array.add(COSName.B);
+        array = null;
+        System.gc();
+        assertEquals(2, ((COSArray) ((COSDictionary) victim.get(new COSObjectKey(1, 0)))
+                .getItem(COSName.ANNOTS)).size());
+    }
+
+    @Test
+    public void sharedDirectObjectIsNotEvicted()
+    {
+        BoundedObjectsStore victim = new BoundedObjectsStore(1, k -> true);
+        COSArray shared = new COSArray(COSInteger.get(3));
+        COSDictionary first = dictionary(1);
+        first.setItem(COSName.ANNOTS, shared);
+        COSDictionary second = dictionary(2);
+        second.setItem(COSName.ANNOTS, shared);
+        COSChangeListeners.set(shared, () -> {
+            // someone else
+        });
+        victim.put(new COSObjectKey(1, 0), first);
+        first = null;
+        victim.put(new COSObjectKey(2, 0), second);
+        System.gc();
+        assertNotNull(victim.get(new COSObjectKey(1, 0)));
+        COSChangeListeners.set(shared, null);
+    }
+
+    @Test
+    public void restoredIsNoLongerObserved()
+    {
+        BoundedObjectsStore victim = new BoundedObjectsStore(1, k -> true);
+        COSDictionary first = dictionary(1);
+        COSArray content = new COSArray(COSInteger.get(3));
+        first.setItem(COSName.ANNOTS, content);
+        victim.put(new COSObjectKey(1, 0), first);
+        victim.put(new COSObjectKey(2, 0), dictionary(2));
+        assertNotNull(COSChangeListeners.get(first));
+        assertNotNull(COSChangeListeners.get(content));
+        assertSame(first, victim.get(new COSObjectKey(1, 0)));
+        assertNull(COSChangeListeners.get(first));
+        assertNull(COSChangeListeners.get(content));
+        victim.clear();
+    }
+
+    @Test
+    public void notReparsableIsNotEvicted()
+    {
+        BoundedObjectsStore victim = new BoundedObjectsStore(1, k -> k.objectNumber() != 1);
+        victim.put(new COSObjectKey(1, 0), dictionary(1));
+        victim.put(new COSObjectKey(2, 0), dictionary(2));
+        victim.put(new COSObjectKey(3, 0), dictionary(3));
+        System.gc();
+        assertNotNull(victim.get(new COSObjectKey(1, 0)));
+    }
+
+    @Test
+    public void fingerprint()
+    {
+        COSDictionary dictionary = dictionary(1);
+        COSArray array = new COSArray(COSInteger.get(3), COSName.A);
+        dictionary.setItem(COSName.ANNOTS, array);
+        Long fingerprint = BoundedObjectsStore.fingerprintOf(dictionary);
+        assertEquals(fingerprint, BoundedObjectsStore.fingerprintOf(dictionary));
+        array.add(COSName.B);
+        assertNotEquals(fingerprint, BoundedObjectsStore.fingerprintOf(dictionary));
+        assertNull(BoundedObjectsStore.fingerprintOf(new COSStream()));
+    }
+
+    @Test
+    public void weight()
+    {
+        assertTrue(BoundedObjectsStore.weightOf(dictionary(1)) > BoundedObjectsStore
+                .weightOf(new COSDictionary()));
+    }
+
+    @Test
+    public void streamWeightCountsInMemoryData() throws IOException
+    {
+        COSStream stream = new COSStream();
+        long empty = BoundedObjectsStore.weightOf(stream);
+        try (OutputStream out = stream.createUnfilteredStream())
+        {
+            out.write(new byte[1000]);
+        }
+        assertEquals(empty + 1000, BoundedObjectsStore.weightOf(stream));
+    }
+
+    @Test
+    public void providerReparsesEvicted() throws IOException
+    {
+        provider = new LazyIndirectObjectsProvider(false, 1);
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test.pdf")), provider);
+        provider.initializeWith(parser);
+        new XrefParser(parser).parse();
+        for (int i = 1; i <= 10; i++)
+        {
+            assertNotNull(provider.get(new COSObjectKey(i, 0)));
+        }
+        COSBase dictionary = provider.get(new COSObjectKey(4, 0));
+        assertNotNull(((COSDictionary) dictionary).getItem(COSName.ANNOTS));
+    }
+
+    @Test
+    public void providerKeepsChangesMadeWhileEvicted() throws IOException
+    {
+        provider = new LazyIndirectObjectsProvider(false, 1);
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test.pdf")), provider);
+        provider.initializeWith(parser);
+        new XrefParser(parser).parse();
+        COSDictionary page = (COSDictionary) provider.get(new COSObjectKey(4, 0));
+        for (int i = 1; i <= 10; i++)
+        {
+            provider.get(new COSObjectKey(i, 0));
+        }
+        page.setInt(COSName.ROTATE, 90);
+        page = null;
+        System.gc();
+        assertEquals(90,
+                ((COSDictionary) provider.get(new COSObjectKey(4, 0))).getInt(COSName.ROTATE));
+    }
+
+    private static COSDictionary dictionary(int value)
+    {
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setInt(COSName.N, value);
+        dictionary.setName(COSName.TYPE, "Test");
+        return dictionary;
+    }
+}
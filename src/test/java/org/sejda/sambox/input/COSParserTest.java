@@ -163,6 +163,20 @@ public class COSParserTest
         assertEquals(COSInteger.ONE, victim.nextNumber());
     }
 
+    @Test
+    public void nextNumberExponent() throws IOException
+    {
+        victim = new COSParser(inMemorySeekableSourceFrom("-12e2 ".getBytes()));
+        assertEquals(-1200f, ((COSFloat) victim.nextNumber()).floatValue(), 0);
+    }
+
+    @Test
+    public void nextNumberNegativeSignInTheMiddle() throws IOException
+    {
+        victim = new COSParser(inMemorySeekableSourceFrom("12-3 ".getBytes()));
+        assertEquals(COSInteger.get(123), victim.nextNumber());
+    }
+
     @Test
     public void nextArray() throws IOException
     {
@@ -331,6 +345,21 @@ public class COSParserTest
         assertThat(result, is(instanceOf(ExistingIndirectCOSObject.class)));
     }
 
+    @Test
+    public void nextNumberOrIndirectReferenceIntegers() throws IOException
+    {
+        victim = new COSParser(inMemorySeekableSourceFrom("10 0 5".getBytes()));
+        assertEquals(COSInteger.get(10), victim.nextNumberOrIndirectReference());
+        assertEquals(2, victim.position());
+    }
+
+    @Test(expected = IOException.class)
+    public void nextNumberOrIndirectReferenceGenerationOverflow() throws IOException
+    {
+        victim = new COSParser(inMemorySeekableSourceFrom("10 3000000000 R".getBytes()));
+        victim.nextNumberOrIndirectReference();
+    }
+
     @Test(expected = IOException.class)
     public void nextNumberOrIndirectReferenceMalformed() throws IOException
     {
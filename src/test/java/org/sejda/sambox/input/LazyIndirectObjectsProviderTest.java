@@ -22,13 +22,19 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.After;
 import org.junit.Before;
@@ -230,4 +236,154 @@ public class LazyIndirectObjectsProviderTest
         victim.addEntry(XrefEntry.inUseEntry(10, 3, 0));
         assertEquals(COSNull.NULL, victim.get(new COSObjectKey(10, 0)));
     }
+
+    @Test
+    public void getConcurrently() throws Exception
+    {
+        victim = new LazyIndirectObjectsProvider(true);
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test_objstm.pdf")), victim);
+        victim.initializeWith(parser);
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<COSBase>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++)
+            {
+                results.add(executor.submit(() -> victim.get(new COSObjectKey(6, 0))));
+            }
+            COSBase expected = victim.get(new COSObjectKey(6, 0));
+            assertNotNull(expected);
+            for (Future<COSBase> result : results)
+            {
+                assertSame(expected, result.get());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void getFromShortLivedThreads() throws Exception
+    {
+        victim = new LazyIndirectObjectsProvider(true);
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test_objstm.pdf")), victim);
+        victim.initializeWith(parser);
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        COSObjectKey key = new COSObjectKey(6, 0);
+        for (int i = 0; i < 20; i++)
+        {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try
+            {
+                // parsers are not bound to the threads, they are reused once the thread is gone
+                assertNotNull(executor.submit(() -> {
+                    victim.release(key);
+                    return victim.get(key);
+                }).get());
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void getConcurrentlyStream() throws Exception
+    {
+        victim = new LazyIndirectObjectsProvider(true);
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test.pdf")), victim);
+        victim.initializeWith(parser);
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            COSBase stream = executor.submit(() -> victim.get(new COSObjectKey(6, 0))).get();
+            assertThat(stream, is(instanceOf(COSStream.class)));
+            assertNotNull(((COSStream) stream).getUnfilteredStream());
+            assertThat(victim.get(new COSObjectKey(4, 0)), is(instanceOf(COSDictionary.class)));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void preload() throws IOException
+    {
+        victim = new LazyIndirectObjectsProvider(true);
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test_objstm.pdf")), victim);
+        victim.initializeWith(parser);
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        victim.preload(2);
+        // objects are already there, we don't need the source anymore
+        parser.close();
+        assertNotNull(victim.get(new COSObjectKey(6, 0)));
+        assertNotNull(victim.get(new COSObjectKey(4, 0)));
+    }
+
+    @Test
+    public void parseLocksAreRemoved() throws Exception
+    {
+        victim = new LazyIndirectObjectsProvider(true);
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test_objstm.pdf")), victim);
+        victim.initializeWith(parser);
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        victim.preload(4);
+        assertNotNull(victim.get(new COSObjectKey(6, 0)));
+        assertEquals(0, victim.parseLocks());
+    }
+
+    @Test
+    public void getConcurrentlyClosedSource() throws Exception
+    {
+        victim = new LazyIndirectObjectsProvider(true);
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test.pdf")), victim);
+        victim.initializeWith(parser);
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        parser.close();
+        // no view of the source can be created, the object is not parsed with the shared parser
+        assertNull(victim.get(new COSObjectKey(4, 0)));
+        assertEquals(0, victim.parseLocks());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void preloadNotConcurrent() throws IOException
+    {
+        victim.preload(2);
+    }
+
+    @Test
+    public void releaseConcurrentCompressed() throws IOException
+    {
+        victim = new LazyIndirectObjectsProvider(true);
+        parser = new COSParser(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test_objstm.pdf")), victim);
+        victim.initializeWith(parser);
+        XrefParser xrefParser = new XrefParser(parser);
+        xrefParser.parse();
+        COSObjectKey key = new COSObjectKey(6, 0);
+        COSBase object = victim.get(key);
+        assertNotNull(object);
+        victim.release(key);
+        COSBase reparsed = victim.get(key);
+        assertNotNull(reparsed);
+        assertNotEquals(object, reparsed);
+    }
 }
@@ -58,6 +58,33 @@ public class PDFParserTest
                 getClass().getResourceAsStream("/sambox/simple_test.pdf"))));
     }
 
+    @Test
+    public void preload() throws IOException
+    {
+        try (PDDocument doc = PDFParser.parse(
+                SeekableSources.inMemorySeekableSourceFrom(
+                        getClass().getResourceAsStream("/sambox/simple_test_objstm.pdf")),
+                ParseOption.PRELOAD_OBJECTS))
+        {
+            assertNotNull(doc);
+            assertEquals(1, doc.getNumberOfPages());
+        }
+    }
+
+    @Test
+    public void preloadEncrypted() throws IOException
+    {
+        try (PDDocument doc = PDFParser.parse(
+                SeekableSources.inMemorySeekableSourceFrom(
+                        getClass().getResourceAsStream("/sambox/encrypted_simple_test.pdf")),
+                "test", ParseOption.PRELOAD_OBJECTS))
+        {
+            assertNotNull(doc);
+            assertTrue(doc.isEncrypted());
+            assertNotNull(doc.getPage(0));
+        }
+    }
+
     @Test(expected = IOException.class)
     public void notAPdf() throws IOException
     {
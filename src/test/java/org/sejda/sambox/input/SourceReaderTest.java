@@ -22,6 +22,7 @@ import static org.junit.Assert.assertTrue;
 import static org.sejda.io.SeekableSources.inMemorySeekableSourceFrom;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.After;
 import org.junit.Test;
@@ -653,4 +654,55 @@ public class SourceReaderTest
         victim = new SourceReader(inMemorySeekableSourceFrom("0.00-50".getBytes()));
         assertEquals("0.0050", victim.readNumber());
     }
+
+    @Test
+    public void readIntegerValue() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("-53 0".getBytes()));
+        assertEquals(-53, victim.readIntegerValue(true));
+        assertEquals(3, victim.position());
+    }
+
+    @Test
+    public void readIntegerValueNotComplete() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("53.2 0".getBytes()));
+        assertEquals(SourceReader.NO_INTEGER, victim.readIntegerValue(true));
+        assertEquals(0, victim.position());
+        assertEquals(53, victim.readIntegerValue(false));
+        assertEquals(2, victim.position());
+    }
+
+    @Test
+    public void readIntegerValueTooLong() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("1234567890123456789".getBytes()));
+        assertEquals(SourceReader.NO_INTEGER, victim.readIntegerValue(false));
+        assertEquals(0, victim.position());
+        assertEquals(1234567890123456789L, victim.readLong());
+    }
+
+    @Test
+    public void readIntegerValueNotANumber() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("- 5".getBytes()));
+        assertEquals(SourceReader.NO_INTEGER, victim.readIntegerValue(false));
+        assertEquals(0, victim.position());
+    }
+
+    @Test(expected = IOException.class)
+    public void readIntOverflow() throws IOException
+    {
+        victim = new SourceReader(inMemorySeekableSourceFrom("3000000000 0".getBytes()));
+        victim.readInt();
+    }
+
+    @Test
+    public void readNameNotAscii() throws IOException
+    {
+        victim = new SourceReader(
+                inMemorySeekableSourceFrom("/Chuck\u00C8Norris ".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("Chuck\u00C8Norris", victim.readName());
+        assertEquals(14, victim.position());
+    }
 }
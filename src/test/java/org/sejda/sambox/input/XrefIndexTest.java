@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sejda.commons.util.IOUtils;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.pdmodel.PDDocument;
+import org.sejda.sambox.xref.FileTrailer;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class XrefIndexTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private File indexDirectory;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        indexDirectory = folder.newFolder();
+        System.setProperty(SAMBox.XREF_INDEX_DIRECTORY_PROPERTY, indexDirectory.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty(SAMBox.XREF_INDEX_DIRECTORY_PROPERTY);
+    }
+
+    @Test
+    public void storeAndLoad() throws IOException
+    {
+        File file = copy("/sambox/simple_test_objstm.pdf");
+        try (PDDocument doc = PDFParser.parse(SeekableSources.seekableSourceFrom(file),
+                ParseOption.XREF_INDEX))
+        {
+            assertEquals(1, doc.getNumberOfPages());
+        }
+        assertEquals(1, indexDirectory.listFiles().length);
+        COSParser parser = new COSParser(SeekableSources.seekableSourceFrom(file));
+        try
+        {
+            Optional<FileTrailer> trailer = XrefIndex.load(parser);
+            assertTrue(trailer.isPresent());
+            assertNotNull(trailer.get().getCOSObject().getDictionaryObject(COSName.ROOT));
+            assertTrue(trailer.get().xrefOffset() > 0);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(parser.provider());
+            IOUtils.closeQuietly(parser);
+        }
+        try (PDDocument doc = PDFParser.parse(SeekableSources.seekableSourceFrom(file),
+                ParseOption.XREF_INDEX))
+        {
+            assertEquals(1, doc.getNumberOfPages());
+        }
+    }
+
+    @Test
+    public void reconstructedXref() throws IOException
+    {
+        File file = copy("/sambox/test_xref_missing_xref.pdf");
+        try (PDDocument doc = PDFParser.parse(SeekableSources.seekableSourceFrom(file),
+                ParseOption.XREF_INDEX))
+        {
+            assertNotNull(doc.getPage(0));
+        }
+        try (PDDocument doc = PDFParser.parse(SeekableSources.seekableSourceFrom(file),
+                ParseOption.XREF_INDEX))
+        {
+            assertNotNull(doc.getPage(0));
+        }
+    }
+
+    @Test
+    public void outdatedIndex() throws IOException
+    {
+        File file = copy("/sambox/simple_test.pdf");
+        PDFParser.parse(SeekableSources.seekableSourceFrom(file), ParseOption.XREF_INDEX)
+                .close();
+        Files.setLastModifiedTime(file.toPath(),
+                FileTime.fromMillis(file.lastModified() - 100000));
+        COSParser parser = new COSParser(SeekableSources.seekableSourceFrom(file));
+        try
+        {
+            assertFalse(XrefIndex.load(parser).isPresent());
+        }
+        finally
+        {
+            IOUtils.closeQuietly(parser.provider());
+            IOUtils.closeQuietly(parser);
+        }
+    }
+
+    @Test
+    public void corruptedIndex() throws IOException
+    {
+        File file = copy("/sambox/simple_test.pdf");
+        PDFParser.parse(SeekableSources.seekableSourceFrom(file), ParseOption.XREF_INDEX)
+                .close();
+        File index = indexDirectory.listFiles()[0];
+        byte[] content = Files.readAllBytes(index.toPath());
+        content[content.length / 2] ^= 1;
+        Files.write(index.toPath(), content);
+        assertFalse(load(file).isPresent());
+    }
+
+    @Test
+    public void indexWritableByOthers() throws IOException
+    {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        File file = copy("/sambox/simple_test.pdf");
+        PDFParser.parse(SeekableSources.seekableSourceFrom(file), ParseOption.XREF_INDEX)
+                .close();
+        File index = indexDirectory.listFiles()[0];
+        assertTrue(load(file).isPresent());
+        Files.setPosixFilePermissions(index.toPath(), PosixFilePermissions.fromString("rw-rw-rw-"));
+        assertFalse(load(file).isPresent());
+    }
+
+    @Test
+    public void directoryWritableByOthers() throws IOException
+    {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Files.setPosixFilePermissions(indexDirectory.toPath(),
+                PosixFilePermissions.fromString("rwxrwxrwx"));
+        File file = copy("/sambox/simple_test.pdf");
+        PDFParser.parse(SeekableSources.seekableSourceFrom(file), ParseOption.XREF_INDEX)
+                .close();
+        assertEquals(0, indexDirectory.listFiles().length);
+    }
+
+    private static Optional<FileTrailer> load(File file) throws IOException
+    {
+        COSParser parser = new COSParser(SeekableSources.seekableSourceFrom(file));
+        try
+        {
+            return XrefIndex.load(parser);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(parser.provider());
+            IOUtils.closeQuietly(parser);
+        }
+    }
+
+    @Test
+    public void notAFile() throws IOException
+    {
+        try (PDDocument doc = PDFParser.parse(
+                SeekableSources.inMemorySeekableSourceFrom(
+                        getClass().getResourceAsStream("/sambox/simple_test.pdf")),
+                ParseOption.XREF_INDEX))
+        {
+            assertNotNull(doc.getPage(0));
+        }
+        assertEquals(0, indexDirectory.listFiles().length);
+    }
+
+    private File copy(String resource) throws IOException
+    {
+        File file = folder.newFile();
+        try (InputStream in = getClass().getResourceAsStream(resource))
+        {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+}
@@ -17,13 +17,25 @@
 package org.sejda.sambox.output;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.sejda.sambox.cos.COSInteger;
 import org.sejda.sambox.cos.IndirectCOSObjectReference;
 
 /**
@@ -49,6 +61,71 @@ public class AsyncPDFBodyObjectsWriterTest
         new AsyncPDFBodyObjectsWriter(null);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidQueueSize()
+    {
+        new AsyncPDFBodyObjectsWriter(writer, null, 0);
+    }
+
+    @Test
+    public void sharedExecutor() throws IOException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            List<IndirectCOSObjectReference> written = new CopyOnWriteArrayList<>();
+            doAnswer(a -> written.add(a.getArgument(0))).when(writer)
+                    .writeObjectIfNotWritten(any());
+            List<IndirectCOSObjectReference> refs = new ArrayList<>();
+            AsyncBodyWriteExecutor.set(executor);
+            victim = new AsyncPDFBodyObjectsWriter(writer);
+            for (int i = 1; i <= 2000; i++)
+            {
+                IndirectCOSObjectReference ref = new IndirectCOSObjectReference(i, 0,
+                        COSInteger.get(i));
+                refs.add(ref);
+                victim.writeObject(ref);
+            }
+            victim.onWriteCompletion();
+            victim.close();
+            assertEquals(refs, written);
+            assertFalse(executor.isShutdown());
+        }
+        finally
+        {
+            AsyncBodyWriteExecutor.set(null);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void boundedQueue() throws IOException
+    {
+        doAnswer(a -> {
+            Thread.sleep(5);
+            return null;
+        }).when(writer).writeObjectIfNotWritten(any());
+        victim = new AsyncPDFBodyObjectsWriter(writer, null, 1);
+        for (int i = 0; i < 5; i++)
+        {
+            victim.writeObject(mock(IndirectCOSObjectReference.class));
+        }
+        victim.onWriteCompletion();
+        victim.close();
+        verify(writer, times(5)).writeObjectIfNotWritten(any());
+        assertEquals(1, victim.maxQueueDepth());
+        assertTrue(victim.stallNanos() > 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectedExecution() throws IOException
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        victim = new AsyncPDFBodyObjectsWriter(writer, executor, 10);
+        victim.writeObject(mock(IndirectCOSObjectReference.class));
+    }
+
     @Test(expected = IOException.class)
     public void asyncIOExceptionIsProcessed() throws IOException
     {
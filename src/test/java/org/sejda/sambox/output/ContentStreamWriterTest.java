@@ -16,6 +16,7 @@
  */
 package org.sejda.sambox.output;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyByte;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -23,6 +24,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -77,6 +79,33 @@ public class ContentStreamWriterTest
         verify(writer).write(data);
     }
 
+    @Test
+    public void writeWholeContentRange() throws Exception
+    {
+        byte[] data = new byte[] { (byte) 0x41, (byte) 0x42, (byte) 0x43 };
+        victim.writeContent(data, 0, 3);
+        verify(writer).write(data);
+        verify(writer, never()).write(anyByte());
+    }
+
+    @Test
+    public void writeShortContentRange() throws Exception
+    {
+        byte[] data = new byte[] { (byte) 0x41, (byte) 0x42, (byte) 0x43 };
+        victim.writeContent(data, 1, 1);
+        verify(writer).write((byte) 0x42);
+        verify(writer, times(1)).write(anyByte());
+    }
+
+    @Test
+    public void writeLongContentRange() throws Exception
+    {
+        byte[] data = new byte[4096];
+        victim.writeContent(data, 10, 2048);
+        verify(writer).write(any(InputStream.class));
+        verify(writer, never()).write(anyByte());
+    }
+
     @Test
     public void writeEOL() throws Exception
     {
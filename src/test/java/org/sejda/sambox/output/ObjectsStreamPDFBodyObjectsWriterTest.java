@@ -18,21 +18,29 @@ package org.sejda.sambox.output;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.hamcrest.core.IsInstanceOf;
 import org.junit.Before;
 import org.junit.Test;
+import org.sejda.commons.util.IOUtils;
 import org.sejda.sambox.SAMBox;
 import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.cos.IndirectCOSObjectReference;
+import org.sejda.sambox.output.ObjectsStreamPDFBodyObjectsWriter.ObjectsStream;
 import org.sejda.sambox.xref.CompressedXrefEntry;
 
 /**
@@ -94,6 +102,51 @@ public class ObjectsStreamPDFBodyObjectsWriterTest
         System.getProperties().remove(SAMBox.OBJECTS_STREAM_SIZE_PROPERTY);
     }
 
+    @Test
+    public void fillingStreamBytesWritesItDown() throws IOException
+    {
+        System.setProperty(SAMBox.OBJECTS_STREAM_MAX_BYTES_PROPERTY, "3");
+        victim.writeObject(new IndirectCOSObjectReference(2, 0, COSInteger.THREE));
+        verify(delegate, never()).writeObject(any());
+        victim.writeObject(new IndirectCOSObjectReference(3, 0, COSInteger.THREE));
+        // stream and length
+        verify(delegate, times(2)).writeObject(any());
+        System.getProperties().remove(SAMBox.OBJECTS_STREAM_MAX_BYTES_PROPERTY);
+    }
+
+    @Test
+    public void parallelCompressionWritesInOrder() throws IOException
+    {
+        System.setProperty(SAMBox.OBJECTS_STREAM_SIZE_PROPERTY, "2");
+        List<IndirectCOSObjectReference> written = new ArrayList<>();
+        doAnswer(a -> written.add(a.getArgument(0))).when(delegate).writeObject(any());
+        context = new PDFWriteContext(null, WriteOption.PARALLEL_COMPRESS_STREAMS);
+        victim = new ObjectsStreamPDFBodyObjectsWriter(context, delegate);
+        for (int i = 0; i < 20; i++)
+        {
+            victim.writeObject(context.getOrCreateIndirectReferenceFor(COSInteger.get(i)));
+        }
+        victim.onWriteCompletion();
+        System.getProperties().remove(SAMBox.OBJECTS_STREAM_SIZE_PROPERTY);
+        // streams and lengths
+        assertEquals(20, written.size());
+        long previous = 0;
+        for (int i = 0; i < written.size(); i += 2)
+        {
+            IndirectCOSObjectReference stream = written.get(i);
+            assertThat(stream.getCOSObject(), new IsInstanceOf(ObjectsStream.class));
+            assertEquals(written.get(i + 1),
+                    ((COSStream) stream.getCOSObject()).getItem(COSName.LENGTH));
+            assertTrue(stream.xrefEntry().getObjectNumber() > previous);
+            previous = stream.xrefEntry().getObjectNumber();
+            try (InputStream in = ((COSStream) stream.getCOSObject()).getFilteredStream())
+            {
+                assertTrue(IOUtils.toByteArray(in).length > 0);
+            }
+        }
+        victim.close();
+    }
+
     @Test
     public void onWriteCompletionWritesDown() throws IOException
     {
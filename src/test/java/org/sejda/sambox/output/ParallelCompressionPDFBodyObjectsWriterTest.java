@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.IndirectCOSObjectReference;
+import org.sejda.sambox.input.PDFParser;
+import org.sejda.sambox.pdmodel.PDDocument;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class ParallelCompressionPDFBodyObjectsWriterTest
+{
+    private PDFBodyObjectsWriter wrapped;
+    private List<IndirectCOSObjectReference> written;
+    private ParallelCompressionPDFBodyObjectsWriter victim;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        wrapped = mock(PDFBodyObjectsWriter.class);
+        written = new ArrayList<>();
+        doAnswer(a -> written.add(a.getArgument(0))).when(wrapped).writeObject(any());
+        victim = new ParallelCompressionPDFBodyObjectsWriter(wrapped,
+                StreamsCompressionExecutor.get(), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullConstructor()
+    {
+        new ParallelCompressionPDFBodyObjectsWriter(null, StreamsCompressionExecutor.get(), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidWorkers()
+    {
+        new ParallelCompressionPDFBodyObjectsWriter(wrapped, StreamsCompressionExecutor.get(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullExecutor()
+    {
+        new ParallelCompressionPDFBodyObjectsWriter(wrapped, null, 2);
+    }
+
+    @Test
+    public void orderIsPreserved() throws IOException
+    {
+        List<IndirectCOSObjectReference> refs = new ArrayList<>();
+        for (int i = 1; i <= 20; i++)
+        {
+            if (i % 2 == 0)
+            {
+                refs.add(new IndirectCOSObjectReference(i, 0, stream(i)));
+            }
+            else
+            {
+                refs.add(new IndirectCOSObjectReference(i, 0, new COSDictionary()));
+            }
+        }
+        for (IndirectCOSObjectReference ref : refs)
+        {
+            victim.writeObject(ref);
+        }
+        victim.onWriteCompletion();
+        assertEquals(refs, written);
+        verify(wrapped).onWriteCompletion();
+        victim.close();
+        verify(wrapped).close();
+    }
+
+    @Test
+    public void streamsAreEncoded() throws IOException
+    {
+        COSStream stream = stream(10000);
+        victim.writeObject(new IndirectCOSObjectReference(1, 0, stream));
+        victim.onWriteCompletion();
+        assertEquals(1, written.size());
+        // encoded data is cached
+        assertEquals(stream.getFilteredLength(), stream.getFilteredLength());
+    }
+
+    @Test(expected = IOException.class)
+    public void encodingExceptionIsProcessed() throws IOException
+    {
+        COSStream stream = mock(COSStream.class);
+        when(stream.getCOSObject()).thenReturn(stream);
+        when(stream.getFilteredLength()).thenThrow(IOException.class);
+        victim.writeObject(new IndirectCOSObjectReference(1, 0, stream));
+        victim.onWriteCompletion();
+    }
+
+    @Test
+    public void sameOutputAsSerialCompression() throws IOException
+    {
+        assertEquals(write(WriteOption.COMPRESS_STREAMS),
+                write(WriteOption.PARALLEL_COMPRESS_STREAMS));
+    }
+
+    @Test
+    public void sameOutputAsSerialObjectStreams() throws IOException
+    {
+        System.setProperty(SAMBox.OBJECTS_STREAM_SIZE_PROPERTY, "2");
+        try
+        {
+            assertEquals(write(WriteOption.OBJECT_STREAMS, WriteOption.COMPRESS_STREAMS),
+                    write(WriteOption.OBJECT_STREAMS, WriteOption.PARALLEL_COMPRESS_STREAMS));
+        }
+        finally
+        {
+            System.getProperties().remove(SAMBox.OBJECTS_STREAM_SIZE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void sharedExecutor() throws IOException
+    {
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        StreamsCompressionExecutor.set(r -> {
+            tasks.incrementAndGet();
+            executor.execute(r);
+        });
+        try
+        {
+            assertEquals(write(WriteOption.OBJECT_STREAMS, WriteOption.COMPRESS_STREAMS),
+                    write(WriteOption.OBJECT_STREAMS, WriteOption.PARALLEL_COMPRESS_STREAMS));
+            int afterFirst = tasks.get();
+            assertTrue(afterFirst > 0);
+            write(WriteOption.OBJECT_STREAMS, WriteOption.PARALLEL_COMPRESS_STREAMS);
+            assertEquals(afterFirst * 2, tasks.get());
+            assertFalse(executor.isShutdown());
+        }
+        finally
+        {
+            StreamsCompressionExecutor.set(null);
+            executor.shutdown();
+        }
+    }
+
+    private String write(WriteOption... option) throws IOException
+    {
+        try (PDDocument document = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(
+                getClass().getResourceAsStream("/sambox/simple_test.pdf"))))
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.writeTo(out, option);
+            // the generated ID is different every time
+            String written = new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+            return written.replaceAll("/ID \\[<\\p{XDigit}+> <\\p{XDigit}+>\\]", "");
+        }
+    }
+
+    private static COSStream stream(int size) throws IOException
+    {
+        COSStream stream = new COSStream();
+        try (OutputStream out = stream.createFilteredStream(COSName.FLATE_DECODE))
+        {
+            for (int i = 0; i < size; i++)
+            {
+                out.write(i % 7);
+            }
+        }
+        return stream;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.pdmodel.font.PDType1Font;
+import org.sejda.sambox.pdmodel.graphics.state.PDExtendedGraphicsState;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class PDResourcesTest
+{
+    @Test
+    public void addExisting()
+    {
+        PDResources victim = new PDResources();
+        PDExtendedGraphicsState state = new PDExtendedGraphicsState();
+        COSName name = victim.add(state);
+        assertEquals(COSName.getPDFName("gs1"), name);
+        assertEquals(name, victim.add(state));
+        assertEquals(COSName.getPDFName("gs2"), victim.add(new PDExtendedGraphicsState()));
+        assertEquals(name, victim.add(state));
+    }
+
+    @Test
+    public void addExistingInDictionary()
+    {
+        COSDictionary fonts = new COSDictionary();
+        fonts.setItem(COSName.getPDFName("F2"), PDType1Font.COURIER);
+        fonts.setItem(COSName.HELV, PDType1Font.HELVETICA);
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.FONT, fonts);
+        PDResources victim = new PDResources(dictionary);
+        assertEquals(COSName.HELV, victim.add(PDType1Font.HELVETICA));
+        assertEquals(COSName.getPDFName("F3"), victim.add(PDType1Font.TIMES_ROMAN));
+        // F3 is taken
+        assertEquals(COSName.getPDFName("F4"), victim.add(PDType1Font.SYMBOL));
+    }
+
+    @Test
+    public void dictionaryChangedDirectly()
+    {
+        PDResources victim = new PDResources();
+        PDExtendedGraphicsState state = new PDExtendedGraphicsState();
+        COSName name = victim.add(state);
+        COSDictionary states = victim.getCOSObject().getDictionaryObject(COSName.EXT_G_STATE,
+                COSDictionary.class);
+        states.removeItem(name);
+        assertEquals(name, victim.add(new PDExtendedGraphicsState()));
+        COSName other = COSName.getPDFName("other");
+        states.setItem(other, state);
+        assertEquals(other, victim.add(state));
+        // same size, the old value is not found anymore
+        states.setItem(other, new PDExtendedGraphicsState());
+        assertNotEquals(other, victim.add(state));
+    }
+
+    @Test
+    public void putReplacing()
+    {
+        PDResources victim = new PDResources();
+        COSName name = victim.add(PDType1Font.HELVETICA);
+        victim.put(name, PDType1Font.COURIER);
+        assertEquals(name, victim.add(PDType1Font.COURIER));
+        assertNotEquals(name, victim.add(PDType1Font.HELVETICA));
+        victim.put(COSName.HELV, PDType1Font.TIMES_ROMAN);
+        assertEquals(COSName.HELV, victim.add(PDType1Font.TIMES_ROMAN));
+    }
+}
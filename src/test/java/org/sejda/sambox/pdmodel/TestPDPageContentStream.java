@@ -18,15 +18,21 @@ package org.sejda.sambox.pdmodel;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.junit.Test;
 import org.sejda.sambox.contentstream.operator.Operator;
 import org.sejda.sambox.contentstream.operator.OperatorName;
 import org.sejda.sambox.cos.COSNumber;
+import org.sejda.commons.util.IOUtils;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.input.ContentStreamParser;
 import org.sejda.sambox.pdmodel.PDPageContentStream.AppendMode;
+import org.sejda.sambox.pdmodel.interactive.annotation.PDAppearanceStream;
 
 /**
  * @author Yegor Kozlov
@@ -201,4 +207,37 @@ public class TestPDPageContentStream
         contentStream.close();
         doc.close();
     }
+
+    @Test
+    public void testFloatOperands() throws IOException
+    {
+        try (PDDocument doc = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            doc.addPage(page);
+            try (PDPageContentStream contentStream = new PDPageContentStream(doc, page))
+            {
+                contentStream.moveTo(1.5f, -2f);
+                contentStream.lineTo(0.333333f, 100000.5f);
+            }
+            COSStream contents = page.getCOSObject().getDictionaryObject(COSName.CONTENTS,
+                    COSStream.class);
+            assertEquals("1.5 -2 m\n0.33333 100000.5 l\n", new String(
+                    IOUtils.toByteArray(contents.getUnfilteredStream()), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void testAppearanceFloatOperands() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDAppearanceContentStream contentStream = new PDAppearanceContentStream(
+                new PDAppearanceStream(), out))
+        {
+            contentStream.moveTo(1.5f, -2f);
+            contentStream.lineTo(0.333333f, 1234.56789f);
+        }
+        assertEquals("1.5 -2 m\n0.3333 1234.5679 l\n",
+                new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.encryption;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.sejda.commons.util.IOUtils;
+import org.sejda.io.SeekableSources;
+import org.sejda.sambox.cos.COSBase;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.encryption.StandardSecurity;
+import org.sejda.sambox.encryption.StandardSecurityEncryption;
+import org.sejda.sambox.input.IncrementablePDDocument;
+import org.sejda.sambox.input.PDFParser;
+import org.sejda.sambox.pdmodel.PDDocument;
+import org.sejda.sambox.pdmodel.PDPage;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class SecurityHandlerTest
+{
+    private static final int[] SIZES = { 0, 1, 15, 16, 17, 32, 1000 };
+
+    @Test
+    public void lazilyDecryptedARC4() throws IOException
+    {
+        assertLazilyDecrypted(StandardSecurityEncryption.ARC4_128);
+    }
+
+    @Test
+    public void lazilyDecryptedAES128() throws IOException
+    {
+        assertLazilyDecrypted(StandardSecurityEncryption.AES_128);
+    }
+
+    @Test
+    public void lazilyDecryptedAES256() throws IOException
+    {
+        assertLazilyDecrypted(StandardSecurityEncryption.AES_256);
+    }
+
+    @Test
+    public void encryptedSourceDataIsCopiedAES128() throws IOException
+    {
+        assertEncryptedSourceDataIsCopied(StandardSecurityEncryption.AES_128);
+    }
+
+    @Test
+    public void encryptedSourceDataIsCopiedAES256() throws IOException
+    {
+        assertEncryptedSourceDataIsCopied(StandardSecurityEncryption.AES_256);
+    }
+
+    private void assertEncryptedSourceDataIsCopied(StandardSecurityEncryption encryption)
+            throws IOException
+    {
+        byte[] original = encrypted(encryption);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (IncrementablePDDocument incrementable = PDFParser
+                .parseToIncrement(SeekableSources.inMemorySeekableSourceFrom(original), "user"))
+        {
+            COSBase contents = incrementable.incremented().getPage(6).getCOSObject()
+                    .getItem(COSName.CONTENTS);
+            ((COSStream) contents.getCOSObject()).setName(COSName.getPDFName("Modified"), "Yes");
+            assertTrue(incrementable.modified(contents));
+            incrementable.writeTo(out);
+        }
+        byte[] written = out.toByteArray();
+        String increment = new String(written, original.length,
+                written.length - original.length, StandardCharsets.ISO_8859_1);
+        int start = increment.indexOf("stream\r\n") + 8;
+        String encryptedData = increment.substring(start, increment.indexOf("\r\nendstream"));
+        // AES uses a random initialization vector, same data means no encryption took place
+        assertTrue(new String(original, StandardCharsets.ISO_8859_1).contains(encryptedData));
+        try (PDDocument document = PDFParser
+                .parse(SeekableSources.inMemorySeekableSourceFrom(written), "user"))
+        {
+            COSStream contents = (COSStream) document.getPage(6).getCOSObject()
+                    .getDictionaryObject(COSName.CONTENTS);
+            assertEquals("Yes", contents.getNameAsString("Modified"));
+            assertArrayEquals(bytes(1000), IOUtils.toByteArray(contents.getUnfilteredStream()));
+        }
+    }
+
+    private void assertLazilyDecrypted(StandardSecurityEncryption encryption) throws IOException
+    {
+        try (PDDocument document = PDFParser
+                .parse(SeekableSources.inMemorySeekableSourceFrom(encrypted(encryption)), "user"))
+        {
+            for (int i = 0; i < SIZES.length; i++)
+            {
+                COSDictionary page = document.getPage(i).getCOSObject();
+                assertEquals("Page " + SIZES[i], page.getString(COSName.T));
+                assertEquals("Size " + SIZES[i], page.getString(COSName.TU));
+                COSStream contents = (COSStream) page.getDictionaryObject(COSName.CONTENTS);
+                // empty streams are parsed as in memory streams, AES encrypted ones are not empty
+                boolean hasSourceData = SIZES[i] > 0
+                        || encryption != StandardSecurityEncryption.ARC4_128;
+                assertEquals(hasSourceData, contents.hasSourceData());
+                assertEquals(SIZES[i], contents.getFilteredLength());
+                assertEquals(SIZES[i], contents.getUnfilteredLength());
+                assertArrayEquals(bytes(SIZES[i]), IOUtils.toByteArray(contents.getFilteredStream()));
+                assertArrayEquals(bytes(SIZES[i]),
+                        IOUtils.toByteArray(contents.getUnfilteredStream()));
+                // decrypted data is not retained
+                assertEquals(hasSourceData, contents.hasSourceData());
+            }
+        }
+    }
+
+    private static byte[] encrypted(StandardSecurityEncryption encryption) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument())
+        {
+            for (int size : SIZES)
+            {
+                PDPage page = new PDPage();
+                COSStream contents = new COSStream();
+                try (OutputStream data = contents.createUnfilteredStream())
+                {
+                    data.write(bytes(size));
+                }
+                page.getCOSObject().setItem(COSName.CONTENTS, contents);
+                // strings of the same object share its key
+                page.getCOSObject().setString(COSName.T, "Page " + size);
+                page.getCOSObject().setString(COSName.TU, "Size " + size);
+                document.addPage(page);
+            }
+            document.writeTo(out, new StandardSecurity("owner", "user", encryption, true));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] bytes(int size)
+    {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++)
+        {
+            bytes[i] = (byte) (i % 251);
+        }
+        return bytes;
+    }
+}
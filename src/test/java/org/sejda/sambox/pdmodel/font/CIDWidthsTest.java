@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.font;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class CIDWidthsTest
+{
+    @Test
+    public void get()
+    {
+        CIDWidths victim = new CIDWidths();
+        victim.put(0, 500);
+        victim.put(300, 250);
+        victim.put(300, 750);
+        victim.put(0xFFFF, 100);
+        assertEquals(500, victim.get(0, 1000), 0);
+        assertEquals(750, victim.get(300, 1000), 0);
+        assertEquals(100, victim.get(0xFFFF, 1000), 0);
+        assertEquals(1000, victim.get(1, 1000), 0);
+        assertEquals(1000, victim.get(5000, 1000), 0);
+        assertTrue(victim.contains(300));
+        assertFalse(victim.contains(301));
+    }
+
+    @Test
+    public void outOfRange()
+    {
+        CIDWidths victim = new CIDWidths();
+        victim.put(-1, 500);
+        victim.put(0x10000, 500);
+        assertFalse(victim.contains(-1));
+        assertFalse(victim.contains(0x10000));
+        assertEquals(1000, victim.get(0x10000, 1000), 0);
+    }
+
+    @Test
+    public void average()
+    {
+        CIDWidths victim = new CIDWidths();
+        assertTrue(Float.isNaN(victim.averagePositiveWidth()));
+        victim.put(10, 500);
+        victim.put(1000, 0);
+        victim.put(2000, 1000);
+        assertEquals(750, victim.averagePositiveWidth(), 0);
+    }
+}
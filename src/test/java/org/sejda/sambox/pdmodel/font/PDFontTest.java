@@ -25,6 +25,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Arrays;
 
 import org.apache.fontbox.ttf.TTFParser;
 import org.apache.fontbox.ttf.TrueTypeFont;
@@ -32,6 +33,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.sejda.io.SeekableSources;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSFloat;
+import org.sejda.sambox.cos.COSInteger;
 import org.sejda.sambox.cos.COSName;
 import org.sejda.sambox.input.PDFParser;
 import org.sejda.sambox.pdmodel.PDDocument;
@@ -310,4 +315,34 @@ public class PDFontTest extends TestCase
 
         PDType1Font.HELVETICA.encodeLeniently(unsupported);
     }
+
+    public void testWidthsArray() throws IOException
+    {
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.TYPE, COSName.FONT);
+        dictionary.setItem(COSName.SUBTYPE, COSName.TYPE1);
+        dictionary.setName(COSName.BASE_FONT, "Helvetica");
+        dictionary.setInt(COSName.FIRST_CHAR, 32);
+        dictionary.setInt(COSName.LAST_CHAR, 34);
+        dictionary.setItem(COSName.WIDTHS,
+                new COSArray(COSInteger.get(100), COSName.A, new COSFloat(300.5f)));
+        PDType1Font font = new PDType1Font(dictionary);
+        assertEquals(100f, font.getWidth(32));
+        assertEquals(0f, font.getWidth(33));
+        assertEquals(300.5f, font.getWidth(34));
+        // cached
+        assertEquals(300.5f, font.getWidth(34));
+        assertTrue(font.hasExplicitWidth(34));
+        assertFalse(font.hasExplicitWidth(35));
+        assertEquals(Arrays.asList(100f, 0f, 300.5f), font.getWidths());
+        try
+        {
+            font.getWidths().set(0, 10f);
+            fail("Exception expected");
+        }
+        catch (UnsupportedOperationException ex)
+        {
+            // expected
+        }
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.graphics.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class DecodedImageCacheTest
+{
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxWeight()
+    {
+        new DecodedImageCache(0);
+    }
+
+    @Test
+    public void putAndGet()
+    {
+        DecodedImageCache victim = new DecodedImageCache();
+        BufferedImage image = image();
+        victim.put(id(1), 1, image);
+        assertSame(image, victim.get(id(1), 1));
+        assertNull(victim.get(id(1), 2));
+        assertNull(victim.get(id(2), 1));
+        assertEquals(DecodedImageCache.weightOf(image), victim.weight());
+        victim.clear();
+        assertNull(victim.get(id(1), 1));
+        assertEquals(0, victim.weight());
+    }
+
+    @Test
+    public void leastRecentlyUsedAreEvicted()
+    {
+        long imageWeight = DecodedImageCache.weightOf(image());
+        DecodedImageCache victim = new DecodedImageCache(imageWeight * 3);
+        BufferedImage first = image();
+        victim.put(id(1), 1, first);
+        victim.put(id(2), 1, image());
+        victim.put(id(3), 1, image());
+        assertSame(first, victim.get(id(1), 1));
+        victim.put(id(4), 1, image());
+        assertSame(first, victim.get(id(1), 1));
+        assertNull(victim.get(id(2), 1));
+        assertTrue(victim.weight() <= imageWeight * 3);
+    }
+
+    @Test
+    public void heavyImagesAreNotCached()
+    {
+        DecodedImageCache victim = new DecodedImageCache(
+                DecodedImageCache.weightOf(image()) - 1);
+        victim.put(id(1), 1, image());
+        assertNull(victim.get(id(1), 1));
+        assertEquals(0, victim.weight());
+    }
+
+    private static BufferedImage image()
+    {
+        return new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static IndirectCOSObjectIdentifier id(long objectNumber)
+    {
+        return new IndirectCOSObjectIdentifier(new COSObjectKey(objectNumber, 0), "source");
+    }
+}
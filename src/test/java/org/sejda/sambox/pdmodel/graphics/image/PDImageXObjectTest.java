@@ -3,6 +3,8 @@ package org.sejda.sambox.pdmodel.graphics.image;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
 
+import java.awt.Color;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -14,6 +16,14 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.sejda.io.SeekableSource;
 import org.sejda.io.SeekableSources;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.COSStream;
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
+import org.sejda.sambox.pdmodel.DefaultResourceCache;
+import org.sejda.sambox.pdmodel.PDResources;
+import org.sejda.sambox.pdmodel.common.PDStream;
 import org.sejda.sambox.util.filetypedetector.FileType;
 
 public class PDImageXObjectTest
@@ -67,6 +77,38 @@ public class PDImageXObjectTest
         }
     }
 
+    @Test
+    public void decodedImageIsSharedByDocument() throws IOException
+    {
+        PDResources resources = new PDResources(new COSDictionary(), new DefaultResourceCache());
+        COSStream stream = imageStream();
+        BufferedImage image = new PDImageXObject(new PDStream(stream), resources).getImage();
+        assertSame(image, new PDImageXObject(new PDStream(stream), resources).getImage());
+        assertNotSame(image, new PDImageXObject(new PDStream(stream), null).getImage());
+    }
+
+    @Test
+    public void decodedImageDependingOnResourcesIsNotShared() throws IOException
+    {
+        COSDictionary colorSpaces = new COSDictionary();
+        colorSpaces.setItem(COSName.DEFAULT_RGB, COSName.DEVICERGB);
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.COLORSPACE, colorSpaces);
+        PDResources resources = new PDResources(dictionary, new DefaultResourceCache());
+        COSStream stream = imageStream();
+        BufferedImage image = new PDImageXObject(new PDStream(stream), resources).getImage();
+        assertNotSame(image, new PDImageXObject(new PDStream(stream), resources).getImage());
+    }
+
+    private static COSStream imageStream() throws IOException
+    {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(5, 5, Color.RED.getRGB());
+        COSStream stream = LosslessFactory.createFromImage(image).getCOSObject();
+        stream.idIfAbsent(new IndirectCOSObjectIdentifier(new COSObjectKey(1, 0), "source"));
+        return stream;
+    }
+
     private File tempFileFromResource(String name) throws IOException
     {
         File outFile = folder.newFile();
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.pdmodel.graphics.image;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.sejda.sambox.cos.COSArray;
+import org.sejda.sambox.cos.COSInteger;
+import org.sejda.sambox.pdmodel.graphics.color.PDColorSpace;
+import org.sejda.sambox.pdmodel.graphics.color.PDDeviceGray;
+import org.sejda.sambox.pdmodel.graphics.color.PDDeviceRGB;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class SampledImageReaderTest
+{
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSubsampling() throws IOException
+    {
+        SampledImageReader.getRGBImage(image(8, PDDeviceGray.INSTANCE), null, 0, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void regionOutsideImage() throws IOException
+    {
+        SampledImageReader.getRGBImage(image(8, PDDeviceGray.INSTANCE),
+                new Rectangle(WIDTH, 0, 10, 10), 1, null);
+    }
+
+    @Test
+    public void oneBit() throws IOException
+    {
+        assertRegions(image(1, PDDeviceGray.INSTANCE), null);
+    }
+
+    @Test
+    public void eightBits() throws IOException
+    {
+        assertRegions(LosslessFactory.createFromImage(rgbImage()), null);
+    }
+
+    @Test
+    public void anyBits() throws IOException
+    {
+        assertRegions(image(4, PDDeviceGray.INSTANCE), null);
+        assertRegions(image(2, PDDeviceRGB.INSTANCE), null);
+    }
+
+    @Test
+    public void colorKey() throws IOException
+    {
+        COSArray colorKey = new COSArray(COSInteger.get(0), COSInteger.get(100),
+                COSInteger.get(0), COSInteger.get(255), COSInteger.get(0), COSInteger.get(255));
+        assertRegions(LosslessFactory.createFromImage(rgbImage()), colorKey);
+    }
+
+    private static void assertRegions(PDImage image, COSArray colorKey) throws IOException
+    {
+        BufferedImage full = SampledImageReader.getRGBImage(image, colorKey);
+        assertEquals(WIDTH, full.getWidth());
+        assertEquals(HEIGHT, full.getHeight());
+        assertRegion(full, SampledImageReader.getRGBImage(image, null, 1, colorKey),
+                new Rectangle(WIDTH, HEIGHT), 1);
+        for (int subsampling = 1; subsampling < 5; subsampling++)
+        {
+            assertRegion(full,
+                    SampledImageReader.getRGBImage(image, null, subsampling, colorKey),
+                    new Rectangle(WIDTH, HEIGHT), subsampling);
+            Rectangle region = new Rectangle(3, 5, 17, 11);
+            assertRegion(full,
+                    SampledImageReader.getRGBImage(image, region, subsampling, colorKey),
+                    region, subsampling);
+            assertRegion(full, SampledImageReader.getRGBImage(image,
+                    new Rectangle(30, 20, 100, 100), subsampling, colorKey),
+                    new Rectangle(30, 20, 7, 3), subsampling);
+        }
+    }
+
+    private static void assertRegion(BufferedImage full, BufferedImage actual, Rectangle region,
+            int subsampling)
+    {
+        assertEquals((region.width + subsampling - 1) / subsampling, actual.getWidth());
+        assertEquals((region.height + subsampling - 1) / subsampling, actual.getHeight());
+        for (int y = 0; y < actual.getHeight(); y++)
+        {
+            for (int x = 0; x < actual.getWidth(); x++)
+            {
+                assertEquals(full.getRGB(region.x + x * subsampling, region.y + y * subsampling),
+                        actual.getRGB(x, y));
+            }
+        }
+    }
+
+    private static PDImageXObject image(int bitsPerComponent, PDColorSpace colorSpace)
+            throws IOException
+    {
+        int rowLength = (WIDTH * colorSpace.getNumberOfComponents() * bitsPerComponent + 7) / 8;
+        byte[] data = new byte[rowLength * HEIGHT];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) (i * 31 + i / 7);
+        }
+        return new PDImageXObject(new ByteArrayInputStream(data), null, WIDTH, HEIGHT,
+                bitsPerComponent, colorSpace);
+    }
+
+    private static BufferedImage rgbImage()
+    {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < HEIGHT; y++)
+        {
+            for (int x = 0; x < WIDTH; x++)
+            {
+                image.setRGB(x, y, new Color(x * 6, y * 11, (x * y) % 256).getRGB());
+            }
+        }
+        return image;
+    }
+}
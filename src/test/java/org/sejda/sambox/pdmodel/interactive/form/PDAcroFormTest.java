@@ -16,6 +16,7 @@
  */
 package org.sejda.sambox.pdmodel.interactive.form;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
@@ -25,14 +26,21 @@ import static org.junit.Assert.fail;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.sejda.commons.FastByteArrayOutputStream;
+import org.sejda.commons.util.IOUtils;
 import org.sejda.io.SeekableSources;
 import org.sejda.sambox.cos.COSDictionary;
 import org.sejda.sambox.cos.COSName;
@@ -438,6 +446,189 @@ public class PDAcroFormTest
         }
     }
 
+    @Test
+    public void cachedFields()
+    {
+        PDNonTerminalField person = new PDNonTerminalField(form);
+        person.setPartialName("person");
+        PDTextField personName = new PDTextField(form);
+        personName.setPartialName("name");
+        person.addChild(personName);
+        PDTextField name = new PDTextField(form);
+        name.setPartialName("name");
+        form.addFields(Arrays.asList(person, name));
+        form.setCacheFields(true);
+        assertTrue(form.isCachingFields());
+
+        assertEquals(personName.getCOSObject(), form.getField("person.name").getCOSObject());
+        assertEquals(name.getCOSObject(), form.getField("name").getCOSObject());
+        assertEquals(2, form.getFieldsByPartialName("name").size());
+        assertNull(form.getField("surname"));
+
+        PDTextField surname = new PDTextField(form);
+        surname.setPartialName("surname");
+        form.addFields(Arrays.asList(surname));
+        assertEquals(surname.getCOSObject(), form.getField("surname").getCOSObject());
+
+        form.removeField(name);
+        assertNull(form.getField("name"));
+        assertEquals(1, form.getFieldsByPartialName("name").size());
+
+        person.setPartialName("customer");
+        assertNull(form.getField("person.name"));
+        assertEquals(personName.getCOSObject(), form.getField("customer.name").getCOSObject());
+
+        PDTextField age = new PDTextField(form);
+        age.setPartialName("age");
+        person.addChild(age);
+        assertEquals(age.getCOSObject(), form.getField("customer.age").getCOSObject());
+        person.removeChild(age);
+        assertNull(form.getField("customer.age"));
+
+        form.setFields(Arrays.asList(name));
+        assertEquals(name.getCOSObject(), form.getField("name").getCOSObject());
+        assertNull(form.getField("customer.name"));
+    }
+
+    @Test
+    public void fieldsByPartialName()
+    {
+        PDNonTerminalField person = new PDNonTerminalField(form);
+        person.setPartialName("person");
+        PDTextField personName = new PDTextField(form);
+        personName.setPartialName("name");
+        person.addChild(personName);
+        PDTextField name = new PDTextField(form);
+        name.setPartialName("name");
+        form.addFields(Arrays.asList(person, name));
+
+        List<PDField> uncached = form.getFieldsByPartialName("name");
+        form.setCacheFields(true);
+        List<PDField> cached = form.getFieldsByPartialName("name");
+        assertEquals(2, cached.size());
+        for (int i = 0; i < cached.size(); i++)
+        {
+            assertEquals(uncached.get(i).getCOSObject(), cached.get(i).getCOSObject());
+            assertEquals(uncached.get(i).getFullyQualifiedName(),
+                    cached.get(i).getFullyQualifiedName());
+        }
+        assertTrue(form.getFieldsByPartialName("surname").isEmpty());
+        assertTrue(form.getFieldsByPartialName(null).isEmpty());
+    }
+
+    @Test
+    public void fill() throws IOException
+    {
+        try (PDDocument expected = new PDDocument())
+        {
+            PDAcroForm expectedForm = formWithTextFields(expected, 20);
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < 20; i++)
+            {
+                values.put("field" + i, "Value of field " + i);
+                expectedForm.getField("field" + i).setValue("Value of field " + i);
+            }
+            PDAcroForm victim = formWithTextFields(document, 20);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try
+            {
+                victim.fill(values, executor);
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+            for (int i = 0; i < 20; i++)
+            {
+                PDTerminalField field = (PDTerminalField) victim.getField("field" + i);
+                PDTerminalField expectedField = (PDTerminalField) expectedForm
+                        .getField("field" + i);
+                assertEquals(expectedField.getValueAsString(), field.getValueAsString());
+                assertArrayEquals(appearance(expectedField), appearance(field));
+                assertTrue(new String(appearance(field), StandardCharsets.ISO_8859_1)
+                        .contains("(Value of field " + i + ")"));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fillMissingField() throws IOException
+    {
+        PDAcroForm victim = formWithTextFields(document, 2);
+        victim.fill(Collections.singletonMap("missing", "value"), Runnable::run);
+    }
+
+    @Test
+    public void refreshAppearancesConcurrently() throws IOException
+    {
+        try (PDDocument expected = new PDDocument())
+        {
+            PDAcroForm expectedForm = formWithTextFields(expected, 10);
+            PDAcroForm victim = formWithTextFields(document, 10);
+            for (int i = 0; i < 10; i++)
+            {
+                expectedForm.getField("field" + i).getCOSObject().setString(COSName.V, "V" + i);
+                victim.getField("field" + i).getCOSObject().setString(COSName.V, "V" + i);
+            }
+            expectedForm.refreshAppearances();
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try
+            {
+                victim.refreshAppearances(victim.getFields(), executor);
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+            for (int i = 0; i < 10; i++)
+            {
+                assertArrayEquals(
+                        appearance((PDTerminalField) expectedForm.getField("field" + i)),
+                        appearance((PDTerminalField) victim.getField("field" + i)));
+            }
+        }
+    }
+
+    private static PDAcroForm formWithTextFields(PDDocument doc, int count)
+    {
+        PDPage page = new PDPage();
+        doc.addPage(page);
+        PDAcroForm acroForm = new PDAcroForm(doc);
+        doc.getDocumentCatalog().setAcroForm(acroForm);
+        PDResources resources = new PDResources();
+        resources.put(COSName.HELV, PDType1Font.HELVETICA);
+        resources.put(COSName.getPDFName("Cour"), PDType1Font.COURIER);
+        acroForm.setDefaultResources(resources);
+        List<PDField> fields = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+        {
+            PDTextField field = new PDTextField(acroForm);
+            field.setPartialName("field" + i);
+            // fields with different fonts are generated by different tasks
+            if (i % 2 == 0)
+            {
+                field.setDefaultAppearance("/Helv 0 Tf 0 g");
+            }
+            else
+            {
+                field.setDefaultAppearance("/Cour 10 Tf 0 g");
+            }
+            PDAnnotationWidget widget = field.getWidgets().get(0);
+            widget.setRectangle(new PDRectangle(10, 20 + 30 * i, 200, 20));
+            widget.setPage(page);
+            page.getAnnotations().add(widget);
+            fields.add(field);
+        }
+        acroForm.setFields(fields);
+        return acroForm;
+    }
+
+    private static byte[] appearance(PDTerminalField field) throws IOException
+    {
+        return IOUtils.toByteArray(field.getWidgets().get(0).getNormalAppearanceStream()
+                .getCOSObject().getUnfilteredStream());
+    }
+
     @After
     public void tearDown() throws IOException
     {
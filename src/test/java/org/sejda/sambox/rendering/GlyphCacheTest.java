@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.rendering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.GeneralPath;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSObjectKey;
+import org.sejda.sambox.cos.IndirectCOSObjectIdentifier;
+import org.sejda.sambox.pdmodel.font.PDFont;
+import org.sejda.sambox.pdmodel.font.PDType1Font;
+import org.sejda.sambox.rendering.GlyphCache.FontGlyphs;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class GlyphCacheTest
+{
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxWeight()
+    {
+        new GlyphCache(0);
+    }
+
+    @Test
+    public void indirectFontsAreShared() throws IOException
+    {
+        GlyphCache victim = new GlyphCache();
+        GeneralPath path = path(10);
+        FontGlyphs glyphs = victim.glyphsOf(font(1));
+        glyphs.put(65, path);
+        glyphs.dispose();
+        assertSame(path, victim.glyphsOf(font(1)).get(65));
+        assertNull(victim.glyphsOf(font(2)).get(65));
+        assertTrue(victim.weight() > 0);
+        victim.clear();
+        assertNull(victim.glyphsOf(font(1)).get(65));
+        assertEquals(0, victim.weight());
+    }
+
+    @Test
+    public void directFontsAreNotShared() throws IOException
+    {
+        GlyphCache victim = new GlyphCache();
+        PDFont font = new PDType1Font(type1Dictionary());
+        FontGlyphs glyphs = victim.glyphsOf(font);
+        GeneralPath path = path(10);
+        glyphs.put(65, path);
+        assertSame(path, glyphs.get(65));
+        assertNull(victim.glyphsOf(font).get(65));
+        assertEquals(0, victim.weight());
+    }
+
+    @Test
+    public void leastRecentlyUsedAreEvicted() throws IOException
+    {
+        long pathWeight = GlyphCache.weightOf(path(10));
+        // a single segment can hold 3 paths
+        GlyphCache victim = new GlyphCache(pathWeight * 3 * 16 + 1);
+        FontGlyphs glyphs = victim.glyphsOf(font(1));
+        for (int i = 0; i < 1000; i++)
+        {
+            glyphs.put(i, path(10));
+            assertTrue(victim.weight() <= pathWeight * 3 * 16);
+        }
+        GeneralPath recent = path(10);
+        glyphs.put(1000, recent);
+        assertSame(recent, glyphs.get(1000));
+    }
+
+    private static PDFont font(long objectNumber) throws IOException
+    {
+        COSDictionary dictionary = type1Dictionary();
+        dictionary.idIfAbsent(new IndirectCOSObjectIdentifier(new COSObjectKey(objectNumber, 0),
+                "source"));
+        return new PDType1Font(dictionary);
+    }
+
+    private static COSDictionary type1Dictionary()
+    {
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.TYPE, COSName.FONT);
+        dictionary.setItem(COSName.SUBTYPE, COSName.TYPE1);
+        dictionary.setName(COSName.BASE_FONT, "Helvetica");
+        return dictionary;
+    }
+
+    private static GeneralPath path(int points)
+    {
+        GeneralPath path = new GeneralPath();
+        path.moveTo(0, 0);
+        for (int i = 1; i < points; i++)
+        {
+            path.lineTo(i, i * 2);
+        }
+        path.closePath();
+        return path;
+    }
+}
@@ -1,12 +1,42 @@
 package org.sejda.sambox.rendering;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Test;
 import org.sejda.io.SeekableSources;
+import org.sejda.sambox.cos.COSDictionary;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSStream;
 import org.sejda.sambox.input.PDFParser;
 import org.sejda.sambox.pdmodel.PDDocument;
+import org.sejda.sambox.pdmodel.PDPage;
+import org.sejda.sambox.pdmodel.PDPageContentStream;
+import org.sejda.sambox.pdmodel.PDResources;
+import org.sejda.sambox.pdmodel.common.PDRectangle;
+import org.sejda.sambox.pdmodel.common.PDStream;
+import org.sejda.sambox.pdmodel.font.PDType1Font;
+import org.sejda.sambox.pdmodel.graphics.blend.BlendMode;
+import org.sejda.sambox.pdmodel.graphics.form.PDFormXObject;
+import org.sejda.sambox.pdmodel.graphics.image.LosslessFactory;
+import org.sejda.sambox.pdmodel.graphics.state.PDExtendedGraphicsState;
 
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class PDFRendererTest {
 
@@ -20,4 +50,234 @@ public class PDFRendererTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void renderPages() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (PDDocument doc = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(document(20)))) {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            List<Integer> indexes = new ArrayList<>();
+            renderer.renderPages(2, 18, 36, ImageType.RGB, executor, (index, image) -> {
+                indexes.add(index);
+                assertSameImage(renderer.renderImageWithDPI(index, 36, ImageType.RGB), image);
+            });
+            assertEquals(16, indexes.size());
+            for (int i = 0; i < indexes.size(); i++) {
+                assertEquals(i + 2, indexes.get(i).intValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void glyphCacheIsShared() throws IOException {
+        try (PDDocument doc = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(document(2)))) {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            BufferedImage first = renderer.renderImage(0);
+            assertTrue(renderer.getGlyphCache().weight() > 0);
+            PDFRenderer other = new PDFRenderer(doc);
+            other.setGlyphCache(renderer.getGlyphCache());
+            assertSameImage(first, other.renderImage(0));
+            assertSameImage(first, new PDFRenderer(doc).renderImage(0));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void renderPagesConsumerFailure() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (PDDocument doc = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(document(5)))) {
+            new PDFRenderer(doc).renderPages(0, 5, 36, ImageType.RGB, executor, (index, image) -> {
+                throw new IOException("Failed");
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void renderPagesInvalidRange() throws IOException {
+        try (PDDocument doc = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(document(2)))) {
+            new PDFRenderer(doc).renderPages(0, 3, 36, ImageType.RGB, Runnable::run, (index, image) -> {
+            });
+        }
+    }
+
+    @Test
+    public void renderTiles() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (PDDocument doc = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(document(1)))) {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            BufferedImage expected = renderer.renderImageWithDPI(0, 50, ImageType.RGB);
+            assertEquals(new Dimension(expected.getWidth(), expected.getHeight()),
+                    renderer.getImageSizeWithDPI(0, 50));
+            assertSameImage(expected, stitched(renderer, 100, 70, executor));
+            assertSameImage(expected, stitched(renderer, expected.getWidth(), 33, Runnable::run));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void renderTilesWithTransparencyGroups() throws IOException {
+        try (PDDocument doc = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(groupsDocument()))) {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            BufferedImage expected = renderer.renderImageWithDPI(0, 50, ImageType.RGB);
+            assertSameImage(expected, stitched(renderer, 100, 70, Runnable::run));
+            assertSameImage(expected, stitched(renderer, expected.getWidth(), 33, Runnable::run));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void renderTilesInvalidSize() throws IOException {
+        try (PDDocument doc = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(document(1)))) {
+            new PDFRenderer(doc).renderTiles(0, 50, ImageType.RGB, 0, 10, Runnable::run, (x, y, tile) -> {
+            });
+        }
+    }
+
+    @Test
+    public void subsampledImageRegion() throws IOException {
+        try (PDDocument doc = PDFParser.parse(SeekableSources.inMemorySeekableSourceFrom(imageDocument()))) {
+            BufferedImage expected = new PDFRenderer(doc).renderImageWithDPI(0, 144, ImageType.RGB);
+            PDFRenderer renderer = new PDFRenderer(doc);
+            renderer.setSubsamplingAllowed(true);
+            // the image is drawn at its resolution, only the visible region is decoded
+            assertSameImage(expected, renderer.renderImageWithDPI(0, 144, ImageType.RGB));
+            assertSameImage(expected, stitched(renderer, 144, 90, 70, Runnable::run));
+            BufferedImage subsampled = renderer.renderImageWithDPI(0, 36, ImageType.RGB);
+            assertEquals(200, new Color(subsampled.getRGB(40, 340)).getRed());
+            assertEquals(Color.WHITE.getRGB(), subsampled.getRGB(70, 340));
+        }
+    }
+
+    private static BufferedImage stitched(PDFRenderer renderer, int tileWidth, int tileHeight, Executor executor)
+            throws IOException {
+        return stitched(renderer, 50, tileWidth, tileHeight, executor);
+    }
+
+    private static BufferedImage stitched(PDFRenderer renderer, float dpi, int tileWidth, int tileHeight,
+            Executor executor) throws IOException {
+        Dimension size = renderer.getImageSizeWithDPI(0, dpi);
+        BufferedImage image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        List<Point> positions = new ArrayList<>();
+        renderer.renderTiles(0, dpi, ImageType.RGB, tileWidth, tileHeight, executor, (x, y, tile) -> {
+            assertTrue(tile.getWidth() <= tileWidth && tile.getHeight() <= tileHeight);
+            positions.add(new Point(x, y));
+            g.drawImage(tile, x, y, null);
+        });
+        g.dispose();
+        int columns = (size.width + tileWidth - 1) / tileWidth;
+        for (int i = 0; i < positions.size(); i++) {
+            assertEquals(new Point((i % columns) * tileWidth, (i / columns) * tileHeight), positions.get(i));
+        }
+        assertEquals(columns * ((size.height + tileHeight - 1) / tileHeight), positions.size());
+        return image;
+    }
+
+    private static void assertSameImage(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertArrayEquals(expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+                actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0, actual.getWidth()));
+    }
+
+    private static byte[] document(int pages) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument()) {
+            for (int i = 0; i < pages; i++) {
+                PDPage page = new PDPage();
+                doc.addPage(page);
+                try (PDPageContentStream contents = new PDPageContentStream(doc, page)) {
+                    contents.setNonStrokingColor(new Color(i * 10, 100, 200));
+                    contents.addRect(50 + i * 10, 50, 200, 300);
+                    contents.fill();
+                    contents.beginText();
+                    contents.setFont(PDType1Font.HELVETICA, 24);
+                    contents.newLineAtOffset(100, 600);
+                    contents.showText("Page " + i);
+                    contents.endText();
+                }
+            }
+            doc.writeTo(out);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A page with a non isolated transparency group using a blend mode, so it's composited with the page as backdrop,
+     * and a fill using a luminosity soft mask
+     */
+    private static byte[] groupsDocument() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage();
+            doc.addPage(page);
+            PDResources groupResources = new PDResources();
+            PDExtendedGraphicsState multiply = new PDExtendedGraphicsState();
+            multiply.setBlendMode(BlendMode.MULTIPLY);
+            COSName multiplyName = groupResources.add(multiply);
+            PDFormXObject group = group("/" + multiplyName.getName()
+                    + " gs 0 0 1 rg 100 100 250 250 re f 1 1 0 rg 200 150 150 300 re f", groupResources);
+
+            PDFormXObject mask = group("0.5 g 300 300 100 300 re f 1 g 400 300 100 300 re f", new PDResources());
+            COSDictionary softMask = new COSDictionary();
+            softMask.setItem(COSName.TYPE, COSName.MASK);
+            softMask.setItem(COSName.S, COSName.LUMINOSITY);
+            softMask.setItem(COSName.G, mask);
+            PDExtendedGraphicsState masked = new PDExtendedGraphicsState();
+            masked.getCOSObject().setItem(COSName.SMASK, softMask);
+
+            PDResources resources = new PDResources();
+            page.setResources(resources);
+            COSName groupName = resources.add(group);
+            COSName maskedName = resources.add(masked);
+            page.setContents(new PDStream(stream("1 0 0 rg 40 40 400 500 re f /" + groupName.getName()
+                    + " Do /" + maskedName.getName() + " gs 0 1 0 rg 300 300 200 300 re f")));
+            doc.writeTo(out);
+        }
+        return out.toByteArray();
+    }
+
+    private static PDFormXObject group(String content, PDResources resources) throws IOException {
+        PDFormXObject form = new PDFormXObject(stream(content));
+        form.setBBox(new PDRectangle(0, 0, 612, 792));
+        form.setResources(resources);
+        COSDictionary group = new COSDictionary();
+        group.setItem(COSName.S, COSName.TRANSPARENCY);
+        form.getCOSObject().setItem(COSName.GROUP, group);
+        return form;
+    }
+
+    private static COSStream stream(String content) throws IOException {
+        COSStream stream = new COSStream();
+        try (OutputStream out = stream.createUnfilteredStream()) {
+            out.write(content.getBytes(StandardCharsets.US_ASCII));
+        }
+        return stream;
+    }
+
+    private static byte[] imageDocument() throws IOException {
+        BufferedImage image = new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 200; y++) {
+            for (int x = 0; x < 200; x++) {
+                image.setRGB(x, y, new Color(200, (x * 7) % 256, (y * 5) % 256).getRGB());
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage();
+            doc.addPage(page);
+            try (PDPageContentStream contents = new PDPageContentStream(doc, page)) {
+                contents.saveGraphicsState();
+                contents.addRect(60, 0, 45, 792);
+                contents.clip();
+                contents.drawImage(LosslessFactory.createFromImage(image), 50, 50, 100, 100);
+                contents.restoreGraphicsState();
+            }
+            doc.writeTo(out);
+        }
+        return out.toByteArray();
+    }
+}
@@ -17,6 +17,7 @@
 package org.sejda.sambox.text;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
@@ -28,14 +29,22 @@ import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.sejda.io.SeekableSources;
 import org.sejda.sambox.input.PDFParser;
 import org.sejda.sambox.pdmodel.PDDocument;
+import org.sejda.sambox.pdmodel.PDPage;
+import org.sejda.sambox.pdmodel.PDPageContentStream;
+import org.sejda.sambox.pdmodel.font.PDType1Font;
 import org.sejda.sambox.pdmodel.interactive.documentnavigation.destination.PDPageDestination;
 import org.sejda.sambox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
 import org.sejda.sambox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
@@ -564,6 +573,124 @@ public class TestTextStripper extends TestCase
         }
     }
 
+    /**
+     * Test that the text extracted concurrently is the same as the text extracted serially, for the whole file set,
+     * for a many pages document and for pages ranges.
+     *
+     * @throws IOException
+     */
+    public void testParallelExtraction() throws IOException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            File[] testFiles = new File("src/test/resources/input")
+                    .listFiles((dir, name) -> name.endsWith(".pdf"));
+            for (File file : testFiles)
+            {
+                try (PDDocument doc = PDFParser.parse(SeekableSources.seekableSourceFrom(file)))
+                {
+                    assertParallelExtraction(doc, false, executor);
+                    assertParallelExtraction(doc, true, executor);
+                }
+            }
+            try (PDDocument doc = PDFParser
+                    .parse(SeekableSources.inMemorySeekableSourceFrom(manyPages(100))))
+            {
+                assertParallelExtraction(doc, false, executor);
+                stripper.setStartPage(7);
+                stripper.setEndPage(61);
+                assertParallelExtraction(doc, false, executor);
+                stripper.setAddMoreFormatting(true);
+                assertParallelExtraction(doc, true, Runnable::run);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that the text of the pages extracted one by one is the same as the text of the document.
+     *
+     * @throws IOException
+     */
+    public void testExtractPages() throws IOException
+    {
+        File[] testFiles = new File("src/test/resources/input")
+                .listFiles((dir, name) -> name.endsWith(".pdf"));
+        for (File file : testFiles)
+        {
+            try (PDDocument doc = PDFParser.parse(SeekableSources.seekableSourceFrom(file)))
+            {
+                assertEquals(stripper.getText(doc), pagesText(doc));
+            }
+        }
+        try (PDDocument doc = PDFParser
+                .parse(SeekableSources.inMemorySeekableSourceFrom(manyPages(20))))
+        {
+            stripper.setStartPage(5);
+            stripper.setEndPage(8);
+            assertEquals(stripper.getText(doc), pagesText(doc));
+            List<PageText> pages = new ArrayList<>();
+            stripper.extractPages(doc, pages::add);
+            assertEquals(4, pages.size());
+            for (int i = 0; i < pages.size(); i++)
+            {
+                PageText page = pages.get(i);
+                assertEquals(i + 5, page.getPageNumber());
+                assertTrue(page.getText().startsWith("Page " + (i + 5) + " first paragraph"));
+                assertEquals(1, page.getArticles().size());
+                assertEquals("P", page.getTextPositions().get(0).getUnicode());
+            }
+            assertNotSame(pages.get(0).getArticles().get(0), pages.get(1).getArticles().get(0));
+            assertFalse(pages.get(0).getTextPositions().isEmpty());
+        }
+    }
+
+    private String pagesText(PDDocument doc) throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        stripper.extractPages(doc, p -> text.append(p.getText()));
+        return text.toString();
+    }
+
+    private void assertParallelExtraction(PDDocument doc, boolean sort, Executor executor)
+            throws IOException
+    {
+        stripper.setSortByPosition(sort);
+        String expected = stripper.getText(doc);
+        StringWriter actual = new StringWriter();
+        stripper.writeText(doc, actual, executor, PDFTextStripper::new);
+        assertEquals(expected, actual.toString());
+    }
+
+    private static byte[] manyPages(int pages) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument())
+        {
+            for (int i = 0; i < pages; i++)
+            {
+                PDPage page = new PDPage();
+                doc.addPage(page);
+                try (PDPageContentStream contents = new PDPageContentStream(doc, page))
+                {
+                    contents.beginText();
+                    contents.setFont(PDType1Font.HELVETICA, 12);
+                    contents.newLineAtOffset(100, 700);
+                    contents.showText("Page " + (i + 1) + " first paragraph");
+                    contents.newLineAtOffset(0, -40);
+                    contents.showText("second paragraph of page " + (i + 1));
+                    contents.endText();
+                }
+            }
+            doc.writeTo(out);
+        }
+        return out.toByteArray();
+    }
+
     /**
      * Set the tests in the suite for this test class.
      *
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class ConcurrentUtilsTest
+{
+    private ExecutorService executor;
+
+    @Before
+    public void setUp()
+    {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void awaitRethrowsIOException()
+    {
+        IOException failure = new IOException("failed");
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            throw failure;
+        });
+        task.run();
+        try
+        {
+            ConcurrentUtils.await(task);
+            fail("Exception expected");
+        }
+        catch (IOException e)
+        {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void awaitWrapsOtherExceptions()
+    {
+        IllegalStateException failure = new IllegalStateException("failed");
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            throw failure;
+        });
+        task.run();
+        try
+        {
+            ConcurrentUtils.await(task);
+            fail("Exception expected");
+        }
+        catch (IOException e)
+        {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void executeInOrder() throws IOException
+    {
+        List<Callable<Integer>> tasks = IntStream.range(0, 50)
+                .mapToObj(i -> (Callable<Integer>) () -> {
+                    Thread.sleep((50 - i) % 7);
+                    return i;
+                }).collect(Collectors.toList());
+        List<Integer> results = new ArrayList<>();
+        ConcurrentUtils.executeInOrder(tasks.iterator(), executor, (i, result) -> {
+            assertEquals(i, result.intValue());
+            results.add(result);
+        });
+        assertEquals(IntStream.range(0, 50).boxed().collect(Collectors.toList()), results);
+    }
+
+    @Test
+    public void executeNothing() throws IOException
+    {
+        ConcurrentUtils.executeInOrder(new ArrayList<Callable<Integer>>().iterator(), executor,
+                (i, result) -> fail("Nothing to consume"));
+    }
+
+    @Test(expected = IOException.class)
+    public void failingConsumer() throws IOException
+    {
+        List<Callable<Integer>> tasks = IntStream.range(0, 50)
+                .mapToObj(i -> (Callable<Integer>) () -> i).collect(Collectors.toList());
+        ConcurrentUtils.executeInOrder(tasks.iterator(), executor, (i, result) -> {
+            throw new IOException("failed");
+        });
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sejda.sambox.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sejda.commons.util.IOUtils;
+import org.sejda.io.SeekableSource;
+import org.sejda.sambox.SAMBox;
+import org.sejda.sambox.cos.COSName;
+import org.sejda.sambox.cos.COSStream;
+
+/**
+ * @author Andrea Vacondio
+ */
+public class ScratchBufferTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = folder.newFolder();
+        System.setProperty(SAMBox.SCRATCH_DIRECTORY_PROPERTY, directory.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty(SAMBox.SCRATCH_DIRECTORY_PROPERTY);
+        System.clearProperty(SAMBox.SCRATCH_FILE_THRESHOLD_PROPERTY);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreshold()
+    {
+        new ScratchBuffer(0);
+    }
+
+    @Test
+    public void onHeap() throws IOException
+    {
+        ScratchBuffer victim = new ScratchBuffer();
+        victim.write(new byte[] { 1, 2, 3 });
+        victim.write(4);
+        victim.close();
+        assertFalse(victim.isSpilled());
+        assertEquals(4, victim.size());
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, IOUtils.toByteArray(victim.asInputStream()));
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void onHeapSources() throws IOException
+    {
+        byte[] bytes = bytes(100);
+        ScratchBuffer victim = new ScratchBuffer();
+        victim.write(bytes);
+        victim.close();
+        try (SeekableSource source = victim.asSeekableSource())
+        {
+            assertEquals(100, source.size());
+            source.position(99);
+            assertEquals(99, source.read());
+            assertEquals(-1, source.read());
+            source.position(0);
+            assertArrayEquals(bytes, IOUtils.toByteArray(source.asNewInputStream()));
+        }
+        ByteBuffer buffer = victim.asByteBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals(100, buffer.remaining());
+        assertEquals(99, buffer.get(99));
+    }
+
+    @Test
+    public void spilled() throws IOException
+    {
+        byte[] bytes = bytes(100);
+        ScratchBuffer victim = new ScratchBuffer(10);
+        victim.write(bytes, 0, 5);
+        assertFalse(victim.isSpilled());
+        victim.write(bytes, 5, 95);
+        victim.close();
+        assertTrue(victim.isSpilled());
+        assertEquals(100, victim.size());
+        assertEquals(1, directory.listFiles().length);
+        try (InputStream in = victim.asInputStream())
+        {
+            assertArrayEquals(bytes, IOUtils.toByteArray(in));
+        }
+        try (SeekableSource source = victim.asSeekableSource())
+        {
+            assertEquals(100, source.size());
+            source.position(50);
+            assertEquals(50, source.read());
+        }
+        ByteBuffer buffer = victim.asByteBuffer();
+        assertEquals(100, buffer.remaining());
+        assertEquals(99, buffer.get(99));
+        victim.release();
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void readOpen() throws IOException
+    {
+        ScratchBuffer victim = new ScratchBuffer();
+        victim.write(1);
+        victim.asInputStream();
+    }
+
+    @Test(expected = IOException.class)
+    public void readReleased() throws IOException
+    {
+        ScratchBuffer victim = new ScratchBuffer();
+        victim.write(1);
+        victim.close();
+        victim.release();
+        victim.asInputStream();
+    }
+
+    @Test(expected = IOException.class)
+    public void writeClosed() throws IOException
+    {
+        ScratchBuffer victim = new ScratchBuffer();
+        victim.close();
+        victim.write(1);
+    }
+
+    @Test
+    public void spilledStream() throws IOException
+    {
+        System.setProperty(SAMBox.SCRATCH_FILE_THRESHOLD_PROPERTY, "10");
+        byte[] bytes = bytes(1000);
+        COSStream stream = new COSStream();
+        try (OutputStream out = stream.createFilteredStream(COSName.FLATE_DECODE))
+        {
+            out.write(bytes);
+        }
+        assertEquals(1, directory.listFiles().length);
+        assertTrue(stream.getFilteredLength() > 10);
+        assertEquals(2, directory.listFiles().length);
+        assertArrayEquals(bytes, IOUtils.toByteArray(stream.getUnfilteredStream()));
+        assertEquals(1000, stream.getUnfilteredLength());
+        stream.close();
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    private static byte[] bytes(int size)
+    {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++)
+        {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+}